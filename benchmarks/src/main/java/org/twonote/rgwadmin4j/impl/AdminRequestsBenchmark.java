@@ -0,0 +1,69 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.twonote.rgwadmin4j.impl.RgwAdminImpl.MetadataType;
+
+/**
+ * Cost of building the URL and request of an admin operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdminRequestsBenchmark {
+
+  private static final Map<String, String> usageParameters =
+      ImmutableMap.of(
+          "uid", "testuser",
+          "start", "2017-04-01 00:00:00",
+          "end", "2017-05-01 00:00:00",
+          "show-entries", "true",
+          "show-summary", "true");
+
+  private AdminRequests requests;
+
+  @Setup
+  public void setup() {
+    requests = new AdminRequests("http://127.0.0.1:8080/admin");
+  }
+
+  @Benchmark
+  public Request getUserInfo() {
+    return requests.getUserInfo("testuser");
+  }
+
+  @Benchmark
+  public Request getUsage() {
+    return requests.getUsage(usageParameters);
+  }
+
+  @Benchmark
+  public Request getMetadata() {
+    return requests.getMetadata(MetadataType.USER, "testuser");
+  }
+
+  @Benchmark
+  public Request listMetadataPage() {
+    return requests.listMetadata(MetadataType.BUCKET, "bucket-4242", 1000);
+  }
+
+  @Benchmark
+  public Request setUserQuota() {
+    return requests.setQuota("testuser", "user", 1000, 1048576);
+  }
+}
@@ -0,0 +1,143 @@
+package org.twonote.rgwadmin4j.impl;
+
+/**
+ * Generates admin API responses shaped like the ones of Radosgw.
+ */
+final class Fixtures {
+
+  private static final String[] categories = {"get_obj", "put_obj", "list_bucket", "delete_obj"};
+
+  private Fixtures() {
+  }
+
+  /**
+   * Response of GET /admin/bucket?stats=true.
+   *
+   * @param buckets number of buckets in the list
+   */
+  static String bucketInfoList(int buckets) {
+    StringBuilder sb = new StringBuilder(buckets * 640).append('[');
+    for (int i = 0; i < buckets; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      bucketInfo(sb, i);
+    }
+    return sb.append(']').toString();
+  }
+
+  private static void bucketInfo(StringBuilder sb, int i) {
+    sb.append("{\"bucket\":\"bucket-")
+        .append(i)
+        .append("\",\"pool\":\"default.rgw.buckets.data\"")
+        .append(",\"index_pool\":\"default.rgw.buckets.index\"")
+        .append(",\"id\":\"064a046c-aa3b-405a-beb4-0968b75ea03f.24099.")
+        .append(i)
+        .append("\",\"marker\":\"064a046c-aa3b-405a-beb4-0968b75ea03f.24099.")
+        .append(i)
+        .append("\",\"owner\":\"user-")
+        .append(i % 1000)
+        .append("\",\"ver\":\"0#7\",\"master_ver\":\"0#0\"")
+        .append(",\"mtime\":\"2017-04-07 15:07:37.280666\",\"max_marker\":\"0#\"")
+        .append(",\"usage\":{\"rgw.main\":{\"size\":122880,\"size_actual\":122880")
+        .append(",\"size_utilized\":122880,\"size_kb\":120,\"size_kb_actual\":120")
+        .append(",\"size_kb_utilized\":120,\"num_objects\":")
+        .append(i)
+        .append("}},\"bucket_quota\":{\"enabled\":false,\"check_on_raw\":false")
+        .append(",\"max_size\":-1,\"max_size_kb\":0,\"max_objects\":-1}}");
+  }
+
+  /**
+   * Response of GET /admin/user.
+   *
+   * @param keys number of S3 keys and subusers of the user
+   */
+  static String user(int keys) {
+    StringBuilder sb =
+        new StringBuilder(keys * 256)
+            .append("{\"user_id\":\"user-0\",\"display_name\":\"user-0\",\"email\":\"\"")
+            .append(",\"suspended\":0,\"max_buckets\":1000,\"subusers\":[");
+    for (int i = 0; i < keys; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"id\":\"user-0:sub-").append(i).append("\",\"permissions\":\"full-control\"}");
+    }
+    sb.append("],\"keys\":[");
+    for (int i = 0; i < keys; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"user\":\"user-0:sub-")
+          .append(i)
+          .append("\",\"access_key\":\"AKIA")
+          .append(String.format("%016d", i))
+          .append("\",\"secret_key\":\"wJalrXUtnFEMI/K7MDENG/bPxRfiCYEXAMPLEKEY\"}");
+    }
+    return sb.append("],\"swift_keys\":[],\"caps\":[{\"type\":\"usage\",\"perm\":\"*\"}")
+        .append(",{\"type\":\"users\",\"perm\":\"read\"}],\"op_mask\":\"read, write, delete\"}")
+        .toString();
+  }
+
+  /**
+   * Response of GET /admin/usage?show-entries=true&show-summary=true.
+   *
+   * @param users   number of users in the entries and the summary
+   * @param buckets number of hourly bucket records of each user
+   */
+  static String usage(int users, int buckets) {
+    StringBuilder sb = new StringBuilder(users * buckets * 512).append("{\"entries\":[");
+    for (int u = 0; u < users; u++) {
+      if (u > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"user\":\"user-").append(u).append("\",\"buckets\":[");
+      for (int b = 0; b < buckets; b++) {
+        if (b > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"bucket\":\"bucket-")
+            .append(b)
+            .append("\",\"time\":\"2017-04-07 15:00:00.000000Z\",\"epoch\":")
+            .append(1491577200L + 3600L * b)
+            .append(",\"owner\":\"user-")
+            .append(u)
+            .append("\",\"categories\":");
+        categories(sb);
+        sb.append('}');
+      }
+      sb.append("]}");
+    }
+    sb.append("],\"summary\":[");
+    for (int u = 0; u < users; u++) {
+      if (u > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"user\":\"user-").append(u).append("\",\"categories\":");
+      categories(sb);
+      sb.append(",\"total\":");
+      category(sb, null);
+      sb.append('}');
+    }
+    return sb.append("]}").toString();
+  }
+
+  private static void categories(StringBuilder sb) {
+    sb.append('[');
+    for (int i = 0; i < categories.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      category(sb, categories[i]);
+    }
+    sb.append(']');
+  }
+
+  private static void category(StringBuilder sb, String category) {
+    sb.append('{');
+    if (category != null) {
+      sb.append("\"category\":\"").append(category).append("\",");
+    }
+    sb.append("\"bytes_sent\":1048576,\"bytes_received\":4096,\"ops\":42,\"successful_ops\":41}");
+  }
+}
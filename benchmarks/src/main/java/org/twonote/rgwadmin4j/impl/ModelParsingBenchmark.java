@@ -0,0 +1,92 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * Cost of deserializing the admin responses to the models.
+ *
+ * <p>The default sizes fit in a 4 GB heap. Larger ones can be given on the command line, e.g.,
+ * {@code -p entries=1000000 -jvmArgs -Xmx16g}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ModelParsingBenchmark {
+
+  private static final MediaType json = MediaType.get("application/json");
+
+  private static final Request request =
+      new AdminRequests("http://127.0.0.1:8080/admin").getBucketInfo(null);
+
+  /**
+   * Number of buckets in the bucket list, user keys, and hourly usage records.
+   */
+  @Param({"1000", "10000", "100000"})
+  public int entries;
+
+  private String bucketInfoList;
+  private String user;
+  private String usage;
+
+  @Setup
+  public void setup() {
+    bucketInfoList = Fixtures.bucketInfoList(entries);
+    user = Fixtures.user(entries);
+    // 100 users with an hourly record per bucket
+    usage = Fixtures.usage(100, entries / 100);
+  }
+
+  @Benchmark
+  public List<BucketInfo> bucketInfoList() {
+    return RgwAdminImpl.gson.fromJson(bucketInfoList, RgwAdminImpl.bucketInfoListType);
+  }
+
+  @Benchmark
+  public long streamBucketInfo() {
+    Response response =
+        new Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK")
+            .body(ResponseBody.create(bucketInfoList, json))
+            .build();
+    try (Stream<BucketInfo> stream = JsonArrayStream.of(response, BucketInfo.class)) {
+      return stream.count();
+    }
+  }
+
+  @Benchmark
+  public User user() {
+    return RgwAdminImpl.gson.fromJson(user, User.class);
+  }
+
+  @Benchmark
+  public UsageInfo usage() {
+    return RgwAdminImpl.gson.fromJson(usage, UsageInfo.class);
+  }
+}
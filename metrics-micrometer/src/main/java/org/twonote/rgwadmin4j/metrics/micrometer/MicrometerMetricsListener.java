@@ -0,0 +1,103 @@
+package org.twonote.rgwadmin4j.metrics.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.twonote.rgwadmin4j.metrics.MetricsListener;
+import org.twonote.rgwadmin4j.metrics.RequestMetrics;
+
+/**
+ * Publishes the metrics of a client to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>The meters, tagged by {@code operation} and {@code method}:
+ *
+ * <ul>
+ *   <li>{@code rgwadmin4j.requests}: timer of the requests, also tagged by {@code status}, the
+ *       HTTP status code or {@code IO_ERROR}, with a percentile histogram.
+ *   <li>{@code rgwadmin4j.response.bytes}: distribution of the response body sizes.
+ *   <li>{@code rgwadmin4j.retries}: counter of the retries.
+ *   <li>{@code rgwadmin4j.requests.in.flight}: gauge of the requests in flight.
+ * </ul>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * RgwAdmin rgwAdmin = new RgwAdminBuilder()
+ *     ...
+ *     .metricsListener(new MicrometerMetricsListener(meterRegistry))
+ *     .build();
+ * }</pre>
+ */
+public class MicrometerMetricsListener implements MetricsListener {
+
+  private final MeterRegistry registry;
+  private final Tags tags;
+
+  private final Map<Tags, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+  public MicrometerMetricsListener(MeterRegistry registry) {
+    this(registry, Tags.empty());
+  }
+
+  /**
+   * @param registry The registry to publish to.
+   * @param tags     Tags added to all meters, e.g., to tell multiple clients apart.
+   */
+  public MicrometerMetricsListener(MeterRegistry registry, Tags tags) {
+    this.registry = registry;
+    this.tags = tags;
+  }
+
+  private Tags tags(String operation, String method) {
+    return tags.and("operation", operation, "method", method);
+  }
+
+  private AtomicInteger inFlight(String operation, String method) {
+    return inFlight.computeIfAbsent(
+        tags(operation, method),
+        t -> {
+          AtomicInteger gauge = new AtomicInteger();
+          Gauge.builder("rgwadmin4j.requests.in.flight", gauge, AtomicInteger::get)
+              .tags(t)
+              .register(registry);
+          return gauge;
+        });
+  }
+
+  @Override
+  public void requestStarted(String operation, String method) {
+    inFlight(operation, method).incrementAndGet();
+  }
+
+  @Override
+  public void requestCompleted(RequestMetrics metrics) {
+    Tags t = tags(metrics.getOperation(), metrics.getMethod());
+    inFlight(metrics.getOperation(), metrics.getMethod()).decrementAndGet();
+    String status = metrics.getStatus() > 0 ? String.valueOf(metrics.getStatus()) : "IO_ERROR";
+    Timer.builder("rgwadmin4j.requests")
+        .tags(t.and("status", status))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(metrics.getLatencyNanos(), TimeUnit.NANOSECONDS);
+    DistributionSummary.builder("rgwadmin4j.response.bytes")
+        .baseUnit("bytes")
+        .tags(t)
+        .register(registry)
+        .record(metrics.getBytesReceived());
+  }
+
+  @Override
+  public void requestRetried(String operation, String method, int attempt) {
+    Counter.builder("rgwadmin4j.retries")
+        .tags(tags(operation, method))
+        .register(registry)
+        .increment();
+  }
+}
@@ -0,0 +1,95 @@
+package org.twonote.rgwadmin4j.metrics.micrometer;
+
+import static org.junit.Assert.assertEquals;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.metrics.RequestMetrics;
+
+public class MicrometerMetricsListenerTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final MicrometerMetricsListener listener =
+      new MicrometerMetricsListener(registry, Tags.of("client", "test"));
+
+  private double inFlight() {
+    return registry
+        .get("rgwadmin4j.requests.in.flight")
+        .tags("client", "test", "operation", "user", "method", "GET")
+        .gauge()
+        .value();
+  }
+
+  @Test
+  public void countInFlight() {
+    listener.requestStarted("user", "GET");
+    listener.requestStarted("user", "GET");
+    assertEquals(2, inFlight(), 0);
+
+    listener.requestCompleted(
+        new RequestMetrics("user", "GET", 200, TimeUnit.MILLISECONDS.toNanos(5), 100, null));
+    assertEquals(1, inFlight(), 0);
+  }
+
+  @Test
+  public void timerByStatus() {
+    listener.requestStarted("user", "GET");
+    listener.requestCompleted(
+        new RequestMetrics("user", "GET", 200, TimeUnit.MILLISECONDS.toNanos(5), 100, null));
+    listener.requestStarted("user", "GET");
+    listener.requestCompleted(
+        new RequestMetrics("user", "GET", 404, TimeUnit.MILLISECONDS.toNanos(3), 20, null));
+    listener.requestStarted("user", "GET");
+    listener.requestCompleted(
+        new RequestMetrics(
+            "user", "GET", 0, TimeUnit.MILLISECONDS.toNanos(7), 0, new IOException("reset")));
+
+    Timer ok =
+        registry
+            .get("rgwadmin4j.requests")
+            .tags("client", "test", "operation", "user", "method", "GET", "status", "200")
+            .timer();
+    assertEquals(1, ok.count());
+    assertEquals(5, ok.totalTime(TimeUnit.MILLISECONDS), 0);
+    assertEquals(1, registry.get("rgwadmin4j.requests").tag("status", "404").timer().count());
+    assertEquals(1, registry.get("rgwadmin4j.requests").tag("status", "IO_ERROR").timer().count());
+  }
+
+  @Test
+  public void responseBytes() {
+    listener.requestStarted("bucket", "GET");
+    listener.requestCompleted(new RequestMetrics("bucket", "GET", 200, 1, 100, null));
+    listener.requestStarted("bucket", "GET");
+    listener.requestCompleted(new RequestMetrics("bucket", "GET", 200, 1, 300, null));
+
+    DistributionSummary bytes =
+        registry
+            .get("rgwadmin4j.response.bytes")
+            .tags("client", "test", "operation", "bucket", "method", "GET")
+            .summary();
+    assertEquals(2, bytes.count());
+    assertEquals(400, bytes.totalAmount(), 0);
+    assertEquals(300, bytes.max(), 0);
+  }
+
+  @Test
+  public void retries() {
+    listener.requestRetried("user", "PUT", 1);
+    listener.requestRetried("user", "PUT", 2);
+    listener.requestRetried("bucket", "GET", 1);
+
+    assertEquals(
+        2,
+        registry
+            .get("rgwadmin4j.retries")
+            .tags("client", "test", "operation", "user", "method", "PUT")
+            .counter()
+            .count(),
+        0);
+  }
+}
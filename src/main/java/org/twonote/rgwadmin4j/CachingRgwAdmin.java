@@ -0,0 +1,168 @@
+package org.twonote.rgwadmin4j;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * A {@link RgwAdmin} which keeps the results of {@link #getUserInfo(String)} and {@link
+ * #getUserInfoByAccessKey(String)} in memory.
+ *
+ * <p>Users are kept up to the given number of entries and for the given time after they were
+ * loaded, the least recently used ones are evicted first. Only existing users are kept.
+ *
+ * <p>Mutations of a user made through this client, e.g., {@link #modifyUser(String, Map)} or
+ * {@link #createS3Credential(String)}, invalidate the cached user. Changes made by other clients
+ * are visible after the entries expire, or after calling {@link #invalidate(String)}.
+ *
+ * <p>The returned {@link User} instances are shared by the callers and should not be modified.
+ */
+public class CachingRgwAdmin extends UserObservingRgwAdmin {
+
+  private final RgwAdmin delegate;
+
+  /*
+   * userId -> user
+   */
+  private final Cache<String, User> users;
+
+  /*
+   * accessKey -> userId. An entry is only trusted if the cached user still has the key, so
+   * invalidating the user is enough to invalidate its keys.
+   */
+  private final Cache<String, String> accessKeys;
+
+  private final Object lock = new Object();
+
+  /*
+   * The number of invalidations so far, so that a user loaded before an invalidation is not put
+   * into the cache after it. Guarded by the lock.
+   */
+  private long invalidations;
+
+  /**
+   * Create a caching client.
+   *
+   * @param delegate    The client to load the users with.
+   * @param maximumSize Max number of users to keep.
+   * @param ttl         How long to keep a user after it was loaded.
+   */
+  public CachingRgwAdmin(RgwAdmin delegate, long maximumSize, Duration ttl) {
+    this.delegate = delegate;
+    this.users =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+            .recordStats()
+            .build();
+    this.accessKeys =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+            .build();
+  }
+
+  @Override
+  protected RgwAdmin delegate() {
+    return delegate;
+  }
+
+  /**
+   * Discard the cached user, e.g., after it was modified by another client.
+   *
+   * @param userId The user ID.
+   */
+  public void invalidate(String userId) {
+    synchronized (lock) {
+      invalidations++;
+      users.invalidate(userId);
+    }
+  }
+
+  /**
+   * Discard all cached users.
+   */
+  public void invalidateAll() {
+    synchronized (lock) {
+      invalidations++;
+      users.invalidateAll();
+      accessKeys.invalidateAll();
+    }
+  }
+
+  /**
+   * Statistics of the user lookups, e.g., the hit rate.
+   *
+   * @return Snapshot of the statistics.
+   */
+  public CacheStats stats() {
+    return users.stats();
+  }
+
+  private long invalidations() {
+    synchronized (lock) {
+      return invalidations;
+    }
+  }
+
+  private void put(User user, long invalidationsBeforeLoad) {
+    synchronized (lock) {
+      if (invalidations != invalidationsBeforeLoad) {
+        return;
+      }
+      users.put(user.getUserId(), user);
+      if (user.getS3Credentials() != null) {
+        for (S3Credential credential : user.getS3Credentials()) {
+          accessKeys.put(credential.getAccessKey(), user.getUserId());
+        }
+      }
+    }
+  }
+
+  private static boolean hasAccessKey(User user, String accessKey) {
+    return user.getS3Credentials() != null
+        && user.getS3Credentials().stream().anyMatch(c -> accessKey.equals(c.getAccessKey()));
+  }
+
+  @Override
+  public Optional<User> getUserInfo(String userId) {
+    User user = users.getIfPresent(userId);
+    if (user != null) {
+      return Optional.of(user);
+    }
+    long invalidationsBeforeLoad = invalidations();
+    Optional<User> loaded = delegate.getUserInfo(userId);
+    loaded.ifPresent(u -> put(u, invalidationsBeforeLoad));
+    return loaded;
+  }
+
+  @Override
+  public Optional<User> getUserInfoByAccessKey(String accessKey) {
+    String userId = accessKeys.getIfPresent(accessKey);
+    if (userId != null) {
+      User user = users.getIfPresent(userId);
+      if (user != null && hasAccessKey(user, accessKey)) {
+        return Optional.of(user);
+      }
+    }
+    long invalidationsBeforeLoad = invalidations();
+    Optional<User> loaded = delegate.getUserInfoByAccessKey(accessKey);
+    if (loaded.isPresent()) {
+      put(loaded.get(), invalidationsBeforeLoad);
+    } else {
+      accessKeys.invalidate(accessKey);
+    }
+    return loaded;
+  }
+
+  @Override
+  protected void userChanged(String userId) {
+    invalidate(userId);
+  }
+}
@@ -0,0 +1,183 @@
+package org.twonote.rgwadmin4j;
+
+import java.time.Duration;
+
+/**
+ * When to stop sending admin requests to an unhealthy Radosgw, see {@link
+ * RgwAdminBuilder#circuitBreaker(CircuitBreakerPolicy)}.
+ *
+ * <p>The outcomes of the recent requests are kept in a sliding window. A request fails if it gets
+ * an I/O error or a 5xx response, and is slow if it takes longer than the slow call duration.
+ * Once the window holds the minimum number of requests and the failure rate or the slow call rate
+ * reaches its threshold, the circuit opens: requests fail immediately with {@link
+ * org.twonote.rgwadmin4j.impl.CircuitOpenException} instead of waiting for timeouts. After the
+ * open duration, a few trial requests are let through; the circuit closes if they are healthy,
+ * and opens again otherwise.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * CircuitBreakerPolicy policy =
+ *     CircuitBreakerPolicy.builder()
+ *         .failureRateThreshold(0.5)
+ *         .slowCalls(Duration.ofSeconds(5), 0.8)
+ *         .window(50, 10)
+ *         .openDuration(Duration.ofSeconds(10))
+ *         .build();
+ * }</pre>
+ */
+public final class CircuitBreakerPolicy {
+
+  private final double failureRateThreshold;
+  private final Duration slowCallDuration;
+  private final double slowCallRateThreshold;
+  private final int windowSize;
+  private final int minimumCalls;
+  private final Duration openDuration;
+  private final int trialCalls;
+
+  private CircuitBreakerPolicy(Builder builder) {
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallDuration = builder.slowCallDuration;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.windowSize = builder.windowSize;
+    this.minimumCalls = builder.minimumCalls;
+    this.openDuration = builder.openDuration;
+    this.trialCalls = builder.trialCalls;
+  }
+
+  /**
+   * Start a policy with the defaults: open at a failure rate of 50% over the last 100 requests,
+   * once there are at least 20 of them, for 30 seconds, then let 5 trial requests through. Slow
+   * requests do not open the circuit.
+   *
+   * @return The builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  public Duration getSlowCallDuration() {
+    return slowCallDuration;
+  }
+
+  /**
+   * @return The slow call rate to open the circuit at; above 1 if slow calls do not open it.
+   */
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  public int getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  public Duration getOpenDuration() {
+    return openDuration;
+  }
+
+  public int getTrialCalls() {
+    return trialCalls;
+  }
+
+  /**
+   * Fluent builder for {@link CircuitBreakerPolicy}.
+   */
+  public static final class Builder {
+
+    private double failureRateThreshold = 0.5;
+    private Duration slowCallDuration = Duration.ofSeconds(60);
+    private double slowCallRateThreshold = 2;
+    private int windowSize = 100;
+    private int minimumCalls = 20;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int trialCalls = 5;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the failure rate to open the circuit at.
+     *
+     * @param threshold Rate in (0, 1].
+     * @return This object for method chaining.
+     */
+    public Builder failureRateThreshold(double threshold) {
+      if (threshold <= 0 || threshold > 1) {
+        throw new IllegalArgumentException("threshold should be in (0, 1]");
+      }
+      this.failureRateThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Opens the circuit when too many requests are slow, e.g., when Radosgw is overloaded but
+     * still answers.
+     *
+     * @param duration  How long a request takes to be slow.
+     * @param threshold The slow call rate to open the circuit at, in (0, 1].
+     * @return This object for method chaining.
+     */
+    public Builder slowCalls(Duration duration, double threshold) {
+      if (threshold <= 0 || threshold > 1) {
+        throw new IllegalArgumentException("threshold should be in (0, 1]");
+      }
+      this.slowCallDuration = duration;
+      this.slowCallRateThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Sets the sliding window the rates are computed over.
+     *
+     * @param size         The number of recent requests in the window.
+     * @param minimumCalls The number of requests needed before the circuit may open.
+     * @return This object for method chaining.
+     */
+    public Builder window(int size, int minimumCalls) {
+      if (size < 1 || minimumCalls < 1 || minimumCalls > size) {
+        throw new IllegalArgumentException("window should be 1 <= minimumCalls <= size");
+      }
+      this.windowSize = size;
+      this.minimumCalls = minimumCalls;
+      return this;
+    }
+
+    /**
+     * Sets how long the circuit stays open before trial requests are let through.
+     *
+     * @param openDuration The open duration.
+     * @return This object for method chaining.
+     */
+    public Builder openDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Sets the number of trial requests deciding whether to close the circuit again.
+     *
+     * @param trialCalls Number of trial requests, should be positive.
+     * @return This object for method chaining.
+     */
+    public Builder trialCalls(int trialCalls) {
+      if (trialCalls < 1) {
+        throw new IllegalArgumentException("trialCalls should be positive");
+      }
+      this.trialCalls = trialCalls;
+      return this;
+    }
+
+    public CircuitBreakerPolicy build() {
+      return new CircuitBreakerPolicy(this);
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package org.twonote.rgwadmin4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.Cap;
+import org.twonote.rgwadmin4j.model.ClusterInfo;
+import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
+import org.twonote.rgwadmin4j.model.Quota;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.SubUser;
+import org.twonote.rgwadmin4j.model.SwiftCredential;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.User;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+/**
+ * A {@link RgwAdmin} which forwards all its method calls to another {@link RgwAdmin}.
+ *
+ * <p>Subclasses override one or more methods to modify the behavior of the backing client, e.g.,
+ * to cache the results. This follows the forwarding classes of Guava such as {@link
+ * com.google.common.collect.ForwardingMap}.
+ */
+public abstract class ForwardingRgwAdmin implements RgwAdmin {
+
+  /**
+   * Constructor for use by subclasses.
+   */
+  protected ForwardingRgwAdmin() {
+  }
+
+  /**
+   * The backing client to which the method calls are forwarded.
+   */
+  protected abstract RgwAdmin delegate();
+
+  @Override
+  public void trimUserUsage(String userId, Map<String, String> parameters) {
+    delegate().trimUserUsage(userId, parameters);
+  }
+
+  @Override
+  public void trimUsage(Map<String, String> parameters) {
+    delegate().trimUsage(parameters);
+  }
+
+  @Override
+  public Optional<UsageInfo> getUserUsage(String userId) {
+    return delegate().getUserUsage(userId);
+  }
+
+  @Override
+  public Optional<UsageInfo> getUserUsage(String userId, Map<String, String> parameters) {
+    return delegate().getUserUsage(userId, parameters);
+  }
+
+  @Override
+  public Optional<UsageInfo> getUsage() {
+    return delegate().getUsage();
+  }
+
+  @Override
+  public Optional<UsageInfo> getUsage(Map<String, String> parameters) {
+    return delegate().getUsage(parameters);
+  }
+
+  @Override
+  public Stream<UsageRecord> streamUsage(Map<String, String> parameters) {
+    return delegate().streamUsage(parameters);
+  }
+
+  @Override
+  public List<Cap> addUserCapability(String userId, List<Cap> userCaps) {
+    return delegate().addUserCapability(userId, userCaps);
+  }
+
+  @Override
+  public List<Cap> removeUserCapability(String userId, List<Cap> userCaps) {
+    return delegate().removeUserCapability(userId, userCaps);
+  }
+
+  @Override
+  public List<SubUser> createSubUser(
+      String userId, String subUserId, Map<String, String> parameters) {
+    return delegate().createSubUser(userId, subUserId, parameters);
+  }
+
+  @Override
+  public SubUser createSubUser(
+      String userId,
+      String subUserId,
+      SubUser.Permission permission,
+      CredentialType credentialType) {
+    return delegate().createSubUser(userId, subUserId, permission, credentialType);
+  }
+
+  @Override
+  public List<SubUser> setSubUserPermission(
+      String userId, String subUserId, SubUser.Permission permission) {
+    return delegate().setSubUserPermission(userId, subUserId, permission);
+  }
+
+  @Override
+  public List<SubUser> listSubUserInfo(String userId) {
+    return delegate().listSubUserInfo(userId);
+  }
+
+  @Override
+  public Optional<SubUser> getSubUserInfo(String userId, String subUserId) {
+    return delegate().getSubUserInfo(userId, subUserId);
+  }
+
+  @Override
+  public void removeSubUser(String userId, String subUserId) {
+    delegate().removeSubUser(userId, subUserId);
+  }
+
+  @Override
+  public List<S3Credential> createS3Credential(String userId, String accessKey, String secretKey) {
+    return delegate().createS3Credential(userId, accessKey, secretKey);
+  }
+
+  @Override
+  public List<S3Credential> createS3Credential(String userId) {
+    return delegate().createS3Credential(userId);
+  }
+
+  @Override
+  public void removeS3Credential(String userId, String accessKey) {
+    delegate().removeS3Credential(userId, accessKey);
+  }
+
+  @Override
+  public List<S3Credential> createS3CredentialForSubUser(
+      String userId, String subUserId, String accessKey, String secretKey) {
+    return delegate().createS3CredentialForSubUser(userId, subUserId, accessKey, secretKey);
+  }
+
+  @Override
+  public List<S3Credential> createS3CredentialForSubUser(String userId, String subUserId) {
+    return delegate().createS3CredentialForSubUser(userId, subUserId);
+  }
+
+  @Override
+  public void removeS3CredentialFromSubUser(String userId, String subUserId, String accessKey) {
+    delegate().removeS3CredentialFromSubUser(userId, subUserId, accessKey);
+  }
+
+  @Override
+  public SwiftCredential createSwiftCredentialForSubUser(
+      String userId, String subUserId, String password) {
+    return delegate().createSwiftCredentialForSubUser(userId, subUserId, password);
+  }
+
+  @Override
+  public SwiftCredential createSwiftCredentialForSubUser(String userId, String subUserId) {
+    return delegate().createSwiftCredentialForSubUser(userId, subUserId);
+  }
+
+  @Override
+  public void removeSwiftCredentialFromSubUser(String userId, String subUserId) {
+    delegate().removeSwiftCredentialFromSubUser(userId, subUserId);
+  }
+
+  @Override
+  public void removeBucket(String bucketName) {
+    delegate().removeBucket(bucketName);
+  }
+
+  @Override
+  public void linkBucket(String bucketName, String bucketId, String userId) {
+    delegate().linkBucket(bucketName, bucketId, userId);
+  }
+
+  @Override
+  public void linkBucket(String bucketName, String userId) {
+    delegate().linkBucket(bucketName, userId);
+  }
+
+  @Override
+  public void unlinkBucket(String bucketName, String userId) {
+    delegate().unlinkBucket(bucketName, userId);
+  }
+
+  @Override
+  public Optional<String> checkBucketIndex(
+      String bucketName, boolean isCheckObjects, boolean isFix) {
+    return delegate().checkBucketIndex(bucketName, isCheckObjects, isFix);
+  }
+
+  @Override
+  public List<String> listBucket() {
+    return delegate().listBucket();
+  }
+
+  @Override
+  public List<String> listBucket(String userId) {
+    return delegate().listBucket(userId);
+  }
+
+  @Override
+  public List<BucketInfo> listBucketInfo() {
+    return delegate().listBucketInfo();
+  }
+
+  @Override
+  public List<BucketInfo> listBucketInfo(String userId) {
+    return delegate().listBucketInfo(userId);
+  }
+
+  @Override
+  public Stream<BucketInfo> streamBucketInfo() {
+    return delegate().streamBucketInfo();
+  }
+
+  @Override
+  public Stream<BucketInfo> streamBucketInfo(String userId) {
+    return delegate().streamBucketInfo(userId);
+  }
+
+  @Override
+  public Optional<BucketInfo> getBucketInfo(String bucketName) {
+    return delegate().getBucketInfo(bucketName);
+  }
+
+  @Override
+  public User createUser(String userId) {
+    return delegate().createUser(userId);
+  }
+
+  @Override
+  public User createUser(String userId, Map<String, String> parameters) {
+    return delegate().createUser(userId, parameters);
+  }
+
+  @Override
+  public Optional<User> getUserInfo(String userId) {
+    return delegate().getUserInfo(userId);
+  }
+
+  @Override
+  public Optional<User> getUserInfoByAccessKey(String accessKey) {
+    return delegate().getUserInfoByAccessKey(accessKey);
+  }
+
+  @Override
+  public List<String> listUser() {
+    return delegate().listUser();
+  }
+
+  @Override
+  public MetadataPage listUserPage(String marker, int maxEntries) {
+    return delegate().listUserPage(marker, maxEntries);
+  }
+
+  @Override
+  public MetadataPage listBucketPage(String marker, int maxEntries) {
+    return delegate().listBucketPage(marker, maxEntries);
+  }
+
+  @Override
+  public MetadataPage listBucketInstancePage(String marker, int maxEntries) {
+    return delegate().listBucketInstancePage(marker, maxEntries);
+  }
+
+  @Override
+  public Iterable<String> iterateUsers(int pageSize) {
+    return delegate().iterateUsers(pageSize);
+  }
+
+  @Override
+  public Iterable<String> iterateBuckets(int pageSize) {
+    return delegate().iterateBuckets(pageSize);
+  }
+
+  @Override
+  public Iterable<String> iterateBucketInstances(int pageSize) {
+    return delegate().iterateBucketInstances(pageSize);
+  }
+
+  @Override
+  public List<String> listSubUser(String userId) {
+    return delegate().listSubUser(userId);
+  }
+
+  @Override
+  public List<User> listUserInfo() {
+    return delegate().listUserInfo();
+  }
+
+  @Override
+  public List<User> listUserInfo(ListOptions options) {
+    return delegate().listUserInfo(options);
+  }
+
+  @Override
+  public User modifyUser(String userId, Map<String, String> parameters) {
+    return delegate().modifyUser(userId, parameters);
+  }
+
+  @Override
+  public void suspendUser(String userId, boolean suspend) {
+    delegate().suspendUser(userId, suspend);
+  }
+
+  @Override
+  public void removeUser(String userId) {
+    delegate().removeUser(userId);
+  }
+
+  @Override
+  public Optional<Quota> getUserQuota(String userId) {
+    return delegate().getUserQuota(userId);
+  }
+
+  @Override
+  public Optional<Quota> getBucketQuota(String userId) {
+    return delegate().getBucketQuota(userId);
+  }
+
+  @Override
+  public void setIndividualBucketQuota(
+      String userId, String bucket, long maxObjects, long maxSizeKB) {
+    delegate().setIndividualBucketQuota(userId, bucket, maxObjects, maxSizeKB);
+  }
+
+  @Override
+  public void setBucketQuota(String userId, long maxObjects, long maxSizeKB) {
+    delegate().setBucketQuota(userId, maxObjects, maxSizeKB);
+  }
+
+  @Override
+  public void setUserQuota(String userId, long maxObjects, long maxSizeKB) {
+    delegate().setUserQuota(userId, maxObjects, maxSizeKB);
+  }
+
+  @Override
+  public void removeObject(String bucketName, String objectKey) {
+    delegate().removeObject(bucketName, objectKey);
+  }
+
+  @Override
+  public Optional<String> getObjectPolicy(String bucketName, String objectKey) {
+    return delegate().getObjectPolicy(bucketName, objectKey);
+  }
+
+  @Override
+  public Optional<String> getBucketPolicy(String bucketName) {
+    return delegate().getBucketPolicy(bucketName);
+  }
+
+  @Override
+  public Optional<ClusterInfo> getInfo() {
+    return delegate().getInfo();
+  }
+}
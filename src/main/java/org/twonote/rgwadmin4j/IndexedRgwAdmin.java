@@ -0,0 +1,270 @@
+package org.twonote.rgwadmin4j;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * A {@link RgwAdmin} which resolves {@link #getUserInfoByAccessKey(String)} from an in-memory index
+ * of all users by their S3 access keys.
+ *
+ * <p>The index is built by walking through all users page by page, and rebuilt periodically in
+ * the background. Until the first walk completes, and for keys not in the index, e.g., keys
+ * created by other clients since the last walk, the lookup falls back to the admin API and adds
+ * the result to the index.
+ *
+ * <p>Mutations of a user made through this client, e.g., {@link #createS3Credential(String)} or
+ * {@link #removeUser(String)}, drop the user from the index, so the next lookup of its keys goes
+ * to the admin API. Keys removed by other clients may still be resolved until the next walk.
+ *
+ * <p>The returned {@link User} instances are shared by the callers and should not be modified.
+ * Close the client to stop the background refresh.
+ */
+public class IndexedRgwAdmin extends UserObservingRgwAdmin implements Closeable {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final RgwAdmin delegate;
+  private final int parallelism;
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+  private final Object refreshLock = new Object();
+
+  /*
+   * Replaced as a whole by each walk, updated in place under the lock otherwise.
+   */
+  private volatile Index index = new Index();
+
+  /*
+   * Users changed while a walk is in progress, to be dropped from the index it built. Guarded by
+   * the lock.
+   */
+  private Set<String> changedDuringRefresh;
+
+  /*
+   * The number of users changed so far, so that a lookup loaded before a change does not put the
+   * stale user back into the index. Guarded by the lock.
+   */
+  private long changes;
+
+  private final AtomicLong refreshes = new AtomicLong();
+  private volatile RuntimeException lastRefreshFailure;
+
+  /**
+   * Create an indexing client and start building the index in the background.
+   *
+   * @param delegate        The client to load the users with.
+   * @param refreshInterval Delay between the end of a walk and the start of the next one.
+   * @param parallelism     Max number of users to load concurrently during a walk.
+   */
+  public IndexedRgwAdmin(RgwAdmin delegate, Duration refreshInterval, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be positive");
+    }
+    this.delegate = delegate;
+    this.parallelism = parallelism;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("rgwadmin4j-access-key-index-%d")
+                .setDaemon(true)
+                .build());
+    scheduler.scheduleWithFixedDelay(
+        this::refreshQuietly, 0, refreshInterval.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  protected RgwAdmin delegate() {
+    return delegate;
+  }
+
+  /**
+   * Rebuild the index by walking through all users, blocking until done.
+   *
+   * <p>Lookups keep using the previous index during the walk.
+   */
+  public void refresh() {
+    synchronized (refreshLock) {
+      synchronized (lock) {
+        changedDuringRefresh = new HashSet<>();
+      }
+      Index fresh = null;
+      try {
+        fresh = walk();
+      } finally {
+        synchronized (lock) {
+          if (fresh != null) {
+            changedDuringRefresh.forEach(fresh::remove);
+            index = fresh;
+          }
+          changedDuringRefresh = null;
+        }
+      }
+      refreshes.incrementAndGet();
+    }
+  }
+
+  private Index walk() {
+    Index fresh = new Index();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setNameFormat("rgwadmin4j-access-key-index-walk-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      List<String> page = new ArrayList<>(PAGE_SIZE);
+      for (String userId : delegate.iterateUsers(PAGE_SIZE)) {
+        page.add(userId);
+        if (page.size() == PAGE_SIZE) {
+          load(page, executor).forEach(fresh::put);
+          page.clear();
+        }
+      }
+      load(page, executor).forEach(fresh::put);
+      return fresh;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<User> load(List<String> userIds, ExecutorService executor) {
+    List<CompletableFuture<Optional<User>>> futures =
+        userIds
+            .stream()
+            .map(id -> CompletableFuture.supplyAsync(() -> delegate.getUserInfo(id), executor))
+            .collect(Collectors.toList());
+    try {
+      return futures
+          .stream()
+          .map(CompletableFuture::join)
+          .filter(Optional::isPresent)
+          .map(Optional::get)
+          .collect(Collectors.toList());
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  private void refreshQuietly() {
+    try {
+      refresh();
+      lastRefreshFailure = null;
+    } catch (RuntimeException e) {
+      // Keep serving the previous index, and retry at the next round.
+      lastRefreshFailure = e;
+    }
+  }
+
+  /**
+   * The number of completed walks, e.g., to wait for the index to be ready.
+   *
+   * @return The number of completed walks.
+   */
+  public long refreshCount() {
+    return refreshes.get();
+  }
+
+  /**
+   * The failure of the last background walk.
+   *
+   * @return The failure; empty if the last walk succeeded or none was done.
+   */
+  public Optional<RuntimeException> lastRefreshFailure() {
+    return Optional.ofNullable(lastRefreshFailure);
+  }
+
+  /**
+   * The number of access keys in the index.
+   *
+   * @return The number of access keys.
+   */
+  public int size() {
+    return index.byAccessKey.size();
+  }
+
+  @Override
+  public Optional<User> getUserInfoByAccessKey(String accessKey) {
+    User user = index.byAccessKey.get(accessKey);
+    if (user != null) {
+      return Optional.of(user);
+    }
+    long changesBeforeLoad;
+    synchronized (lock) {
+      changesBeforeLoad = changes;
+    }
+    Optional<User> loaded = delegate.getUserInfoByAccessKey(accessKey);
+    loaded.ifPresent(
+        u -> {
+          synchronized (lock) {
+            if (changes == changesBeforeLoad) {
+              index.put(u);
+            }
+          }
+        });
+    return loaded;
+  }
+
+  @Override
+  protected void userChanged(String userId) {
+    synchronized (lock) {
+      changes++;
+      index.remove(userId);
+      if (changedDuringRefresh != null) {
+        changedDuringRefresh.add(userId);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  private static final class Index {
+
+    private final Map<String, User> byAccessKey = new ConcurrentHashMap<>();
+    private final Map<String, User> byUserId = new HashMap<>();
+
+    private void put(User user) {
+      remove(user.getUserId());
+      byUserId.put(user.getUserId(), user);
+      if (user.getS3Credentials() != null) {
+        for (S3Credential credential : user.getS3Credentials()) {
+          byAccessKey.put(credential.getAccessKey(), user);
+        }
+      }
+    }
+
+    private void remove(String userId) {
+      User user = byUserId.remove(userId);
+      if (user != null && user.getS3Credentials() != null) {
+        for (S3Credential credential : user.getS3Credentials()) {
+          byAccessKey.remove(credential.getAccessKey(), user);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.twonote.rgwadmin4j;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Options for the list operations which fan out one request per listed item, e.g., {@link
+ * RgwAdmin#listUserInfo(ListOptions)}.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * List<User> users =
+ *     rgwAdmin.listUserInfo(
+ *         ListOptions.parallelism(64).onFailure((uid, e) -> log.warn("skip {}", uid, e)));
+ * }</pre>
+ */
+public final class ListOptions {
+
+  private static final ListOptions DEFAULTS = new ListOptions(1, null);
+
+  private final int parallelism;
+  private final BiConsumer<String, RuntimeException> failureHandler;
+
+  private ListOptions(int parallelism, BiConsumer<String, RuntimeException> failureHandler) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be positive");
+    }
+    this.parallelism = parallelism;
+    this.failureHandler = failureHandler;
+  }
+
+  /**
+   * Sequential requests, and the first failure aborts the operation.
+   *
+   * @return The default options.
+   */
+  public static ListOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Sets the max number of requests in flight at the same time.
+   *
+   * @param parallelism Max number of concurrent requests, should be positive.
+   * @return The options.
+   */
+  public static ListOptions parallelism(int parallelism) {
+    return new ListOptions(parallelism, null);
+  }
+
+  /**
+   * Report failed items to the given handler instead of aborting the whole operation.
+   *
+   * <p>The failed items are left out of the result. The handler receives the key of the item,
+   * e.g., the user ID, and the failure. It may be called concurrently.
+   *
+   * @param failureHandler The handler of the failed items.
+   * @return The options.
+   */
+  public ListOptions onFailure(BiConsumer<String, RuntimeException> failureHandler) {
+    return new ListOptions(parallelism, failureHandler);
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return The handler of the failed items; null if a failure aborts the operation.
+   */
+  public BiConsumer<String, RuntimeException> getFailureHandler() {
+    return failureHandler;
+  }
+}
@@ -0,0 +1,23 @@
+package org.twonote.rgwadmin4j;
+
+/**
+ * The strategy to spread the admin requests over multiple Radosgw endpoints with.
+ *
+ * <p>Whatever the strategy, endpoints which fail repeatedly are ejected for a while, see {@link
+ * RgwAdminBuilder#endpointEjection(int, java.time.Duration)}.
+ */
+public enum LoadBalancing {
+  /**
+   * Send to the endpoints in turn.
+   */
+  ROUND_ROBIN,
+  /**
+   * Send to the endpoint with the fewest requests in flight.
+   */
+  LEAST_OUTSTANDING_REQUESTS,
+  /**
+   * Send to the endpoint with the lowest moving average of the latency, weighted by its requests
+   * in flight. Favors fast endpoints while still spreading bursts.
+   */
+  LATENCY_EWMA
+}
@@ -0,0 +1,219 @@
+package org.twonote.rgwadmin4j;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.twonote.rgwadmin4j.impl.RgwAdminException;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.Quota;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.SubUser;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * A {@link RgwAdmin} which remembers users, access keys and buckets that were not found for a
+ * short time, and answers repeated lookups of them without a request.
+ *
+ * <p>A user not found by {@link #getUserInfo(String)}, {@link #getUserQuota(String)} or {@link
+ * #getBucketQuota(String)} is reported as missing by all of them, the same way the admin API does:
+ * {@link #getUserInfo(String)} returns empty, and the quota lookups throw a {@link
+ * RgwAdminException} with status 404. Likewise for a bucket not found by {@link
+ * #getBucketInfo(String)} or {@link #getBucketPolicy(String)}, and an access key not found by
+ * {@link #getUserInfoByAccessKey(String)}.
+ *
+ * <p>Mutations of a user, e.g., creating it or its credentials, and linking a bucket through this
+ * client forget the corresponding misses. Users and buckets created by other clients, e.g.,
+ * buckets created through the S3 API, are visible after the misses expire, so the TTL should be
+ * short.
+ */
+public class NegativeCachingRgwAdmin extends UserObservingRgwAdmin {
+
+  private final RgwAdmin delegate;
+
+  private final Cache<String, Boolean> missingUsers;
+  private final Cache<String, Boolean> missingAccessKeys;
+  private final Cache<String, Boolean> missingBuckets;
+
+  /**
+   * Create a negative caching client.
+   *
+   * @param delegate    The client to look up with.
+   * @param maximumSize Max number of misses to keep, for users, access keys and buckets each.
+   * @param ttl         How long to keep a miss.
+   */
+  public NegativeCachingRgwAdmin(RgwAdmin delegate, long maximumSize, Duration ttl) {
+    this.delegate = delegate;
+    this.missingUsers = newCache(maximumSize, ttl);
+    this.missingAccessKeys = newCache(maximumSize, ttl);
+    this.missingBuckets = newCache(maximumSize, ttl);
+  }
+
+  private static Cache<String, Boolean> newCache(long maximumSize, Duration ttl) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+        .build();
+  }
+
+  @Override
+  protected RgwAdmin delegate() {
+    return delegate;
+  }
+
+  /**
+   * Forget all misses.
+   */
+  public void invalidateAll() {
+    missingUsers.invalidateAll();
+    missingAccessKeys.invalidateAll();
+    missingBuckets.invalidateAll();
+  }
+
+  private static <T> Optional<T> lookup(
+      Cache<String, Boolean> misses, String key, Supplier<Optional<T>> loader) {
+    if (misses.getIfPresent(key) != null) {
+      return Optional.empty();
+    }
+    Optional<T> result = loader.get();
+    if (!result.isPresent()) {
+      misses.put(key, Boolean.TRUE);
+    }
+    return result;
+  }
+
+  @Override
+  public Optional<User> getUserInfo(String userId) {
+    return lookup(missingUsers, userId, () -> delegate.getUserInfo(userId));
+  }
+
+  @Override
+  public Optional<User> getUserInfoByAccessKey(String accessKey) {
+    return lookup(missingAccessKeys, accessKey, () -> delegate.getUserInfoByAccessKey(accessKey));
+  }
+
+  @Override
+  public Optional<Quota> getUserQuota(String userId) {
+    return lookupQuota(userId, () -> delegate.getUserQuota(userId));
+  }
+
+  @Override
+  public Optional<Quota> getBucketQuota(String userId) {
+    return lookupQuota(userId, () -> delegate.getBucketQuota(userId));
+  }
+
+  /*
+   * Unlike getUserInfo(), the quota lookups report a missing user with a 404.
+   */
+  private Optional<Quota> lookupQuota(String userId, Supplier<Optional<Quota>> loader) {
+    if (missingUsers.getIfPresent(userId) != null) {
+      throw new RgwAdminException(404, "NoSuchUser");
+    }
+    try {
+      return loader.get();
+    } catch (RgwAdminException e) {
+      if (e.status() == 404) {
+        missingUsers.put(userId, Boolean.TRUE);
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<BucketInfo> getBucketInfo(String bucketName) {
+    return lookup(missingBuckets, bucketName, () -> delegate.getBucketInfo(bucketName));
+  }
+
+  @Override
+  public Optional<String> getBucketPolicy(String bucketName) {
+    return lookup(missingBuckets, bucketName, () -> delegate.getBucketPolicy(bucketName));
+  }
+
+  @Override
+  public void linkBucket(String bucketName, String bucketId, String userId) {
+    try {
+      delegate.linkBucket(bucketName, bucketId, userId);
+    } finally {
+      missingBuckets.invalidate(bucketName);
+    }
+  }
+
+  @Override
+  public void linkBucket(String bucketName, String userId) {
+    try {
+      delegate.linkBucket(bucketName, userId);
+    } finally {
+      missingBuckets.invalidate(bucketName);
+    }
+  }
+
+  /*
+   * The access keys given to a mutation may exist now. Generated keys are random, so they cannot
+   * have been looked up before.
+   */
+  private void keyChanged(String accessKey) {
+    if (accessKey != null) {
+      missingAccessKeys.invalidate(accessKey);
+    }
+  }
+
+  private static String accessKey(Map<String, String> parameters) {
+    return parameters == null ? null : parameters.get("access-key");
+  }
+
+  @Override
+  public User createUser(String userId, Map<String, String> parameters) {
+    try {
+      return super.createUser(userId, parameters);
+    } finally {
+      keyChanged(accessKey(parameters));
+    }
+  }
+
+  @Override
+  public User modifyUser(String userId, Map<String, String> parameters) {
+    try {
+      return super.modifyUser(userId, parameters);
+    } finally {
+      keyChanged(accessKey(parameters));
+    }
+  }
+
+  @Override
+  public List<SubUser> createSubUser(
+      String userId, String subUserId, Map<String, String> parameters) {
+    try {
+      return super.createSubUser(userId, subUserId, parameters);
+    } finally {
+      keyChanged(accessKey(parameters));
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3Credential(String userId, String accessKey, String secretKey) {
+    try {
+      return super.createS3Credential(userId, accessKey, secretKey);
+    } finally {
+      keyChanged(accessKey);
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3CredentialForSubUser(
+      String userId, String subUserId, String accessKey, String secretKey) {
+    try {
+      return super.createS3CredentialForSubUser(userId, subUserId, accessKey, secretKey);
+    } finally {
+      keyChanged(accessKey);
+    }
+  }
+
+  @Override
+  protected void userChanged(String userId) {
+    missingUsers.invalidate(userId);
+  }
+}
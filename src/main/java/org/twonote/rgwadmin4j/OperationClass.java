@@ -0,0 +1,25 @@
+package org.twonote.rgwadmin4j;
+
+/**
+ * The classes of admin operations which get separate throughput and concurrency budgets, see
+ * {@link RgwAdminBuilder#rateLimit(OperationClass, double)}.
+ */
+public enum OperationClass {
+  /**
+   * Operations which only read, e.g., {@link RgwAdmin#getUserInfo(String)}.
+   */
+  READ,
+  /**
+   * Operations which create or modify, e.g., {@link RgwAdmin#setUserQuota(String, long, long)}.
+   */
+  WRITE,
+  /**
+   * Operations which remove, e.g., {@link RgwAdmin#removeBucket(String)}.
+   */
+  DELETE,
+  /**
+   * Removal of usage logs, e.g., {@link RgwAdmin#trimUsage(java.util.Map)}, which is expensive for
+   * Radosgw.
+   */
+  USAGE_TRIM
+}
@@ -0,0 +1,168 @@
+package org.twonote.rgwadmin4j;
+
+import java.time.Duration;
+
+/**
+ * When and how often to retry failed admin requests, see {@link
+ * RgwAdminBuilder#retryPolicy(RetryPolicy)}.
+ *
+ * <p>Requests failed with an I/O error or with status 429, 500, 502, 503 or 504, e.g., 503
+ * SlowDown of an overloaded Radosgw, are retried. Only idempotent requests are retried: reads,
+ * and writes which have the same effect when repeated, e.g., setting a quota. Requests which
+ * generate keys or modify a user are not, so that a retry never creates a second key.
+ *
+ * <p>Attempts are delayed by an exponential backoff with full jitter. To avoid retry storms while
+ * Radosgw is overloaded, retries are limited by a budget: each request earns the client a fraction
+ * of a retry, up to a maximum balance, and each retry spends one.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * RetryPolicy policy =
+ *     RetryPolicy.builder()
+ *         .maxAttempts(4)
+ *         .backoff(Duration.ofMillis(100), Duration.ofSeconds(5))
+ *         .budget(0.1, 20)
+ *         .build();
+ * }</pre>
+ */
+public final class RetryPolicy {
+
+  private static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final double budgetRatio;
+  private final int maxBudget;
+
+  private RetryPolicy(Builder builder) {
+    this.maxAttempts = builder.maxAttempts;
+    this.initialBackoff = builder.initialBackoff;
+    this.maxBackoff = builder.maxBackoff;
+    this.budgetRatio = builder.budgetRatio;
+    this.maxBudget = builder.maxBudget;
+  }
+
+  /**
+   * No retries at all.
+   *
+   * @return The policy.
+   */
+  public static RetryPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * Start a policy with the defaults: 3 attempts, backoff from 100 milliseconds up to 10 seconds,
+   * and a budget of 1 retry per 10 requests with a balance of up to 10 retries.
+   *
+   * @return The builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return The max number of attempts of a request, including the first one.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * @return The upper bound of the delay before the first retry.
+   */
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * @return The upper bound of the delay before any retry.
+   */
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * @return The fraction of a retry earned by each request.
+   */
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  /**
+   * @return The max number of retries saved up, also the initial balance.
+   */
+  public int getMaxBudget() {
+    return maxBudget;
+  }
+
+  /**
+   * Fluent builder for {@link RetryPolicy}.
+   */
+  public static final class Builder {
+
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(10);
+    private double budgetRatio = 0.1;
+    private int maxBudget = 10;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the max number of attempts of a request, including the first one.
+     *
+     * @param maxAttempts Max number of attempts, should be positive.
+     * @return This object for method chaining.
+     */
+    public Builder maxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts should be positive");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Sets the backoff between the attempts. The delay before the n-th retry is random between
+     * zero and initialBackoff * 2^(n-1), capped at maxBackoff.
+     *
+     * @param initialBackoff Upper bound of the delay before the first retry.
+     * @param maxBackoff     Upper bound of the delay before any retry.
+     * @return This object for method chaining.
+     */
+    public Builder backoff(Duration initialBackoff, Duration maxBackoff) {
+      if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+        throw new IllegalArgumentException("backoff should be 0 <= initialBackoff <= maxBackoff");
+      }
+      this.initialBackoff = initialBackoff;
+      this.maxBackoff = maxBackoff;
+      return this;
+    }
+
+    /**
+     * Sets the retry budget shared by all requests of the client.
+     *
+     * @param ratio     Fraction of a retry earned by each request, e.g., 0.1 to retry at most 10%
+     *                  of the requests in the long run.
+     * @param maxBudget Max number of retries saved up, also the initial balance. Allows bursts of
+     *                  retries after a quiet period.
+     * @return This object for method chaining.
+     */
+    public Builder budget(double ratio, int maxBudget) {
+      if (ratio < 0 || maxBudget < 0) {
+        throw new IllegalArgumentException("budget should not be negative");
+      }
+      this.budgetRatio = ratio;
+      this.maxBudget = maxBudget;
+      return this;
+    }
+
+    public RetryPolicy build() {
+      return new RetryPolicy(this);
+    }
+  }
+}
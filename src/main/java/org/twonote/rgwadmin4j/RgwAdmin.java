@@ -3,16 +3,20 @@ package org.twonote.rgwadmin4j;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.twonote.rgwadmin4j.model.BucketInfo;
 import org.twonote.rgwadmin4j.model.Cap;
 import org.twonote.rgwadmin4j.model.ClusterInfo;
 import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
 import org.twonote.rgwadmin4j.model.Quota;
 import org.twonote.rgwadmin4j.model.S3Credential;
 import org.twonote.rgwadmin4j.model.SubUser;
 import org.twonote.rgwadmin4j.model.SwiftCredential;
 import org.twonote.rgwadmin4j.model.UsageInfo;
 import org.twonote.rgwadmin4j.model.User;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
 
 /**
  * Radosgw administrator
@@ -111,6 +115,47 @@ public interface RgwAdmin {
    */
   Optional<UsageInfo> getUsage(Map<String, String> parameters);
 
+  /**
+   * Request bandwidth usage information, one record per bucket, hour and category.
+   *
+   * <p>Unlike {@link #getUsage(Map)}, the response is parsed while it is being received and no
+   * {@link UsageInfo} is built, so the memory footprint stays constant no matter how large the
+   * usage log is. This is the preferred way to fold a large usage log, e.g., for billing.
+   *
+   * <p>The parameters are the same as of {@link #getUsage(Map)}. The summary is not requested
+   * unless {@code show-summary} is given, and it is skipped anyway.
+   *
+   * <p>The stream holds the underlying HTTP connection and must be closed, e.g.:
+   *
+   * <pre>{@code
+   * try (Stream<UsageRecord> records = rgwAdmin.streamUsage(ImmutableMap.of("uid", userId))) {
+   *   long bytesSent = records.mapToLong(UsageRecord::getBytesSent).sum();
+   * }
+   * }</pre>
+   *
+   * <p>Errors occurred while consuming the stream are thrown as {@link
+   * org.twonote.rgwadmin4j.impl.RgwAdminException}.
+   *
+   * @param parameters optional parameters to filter the query result.
+   * @return The usage records.
+   */
+  Stream<UsageRecord> streamUsage(Map<String, String> parameters);
+
+  /**
+   * Pass the bandwidth usage information to the consumer, one record per bucket, hour and
+   * category.
+   *
+   * <p>See {@link #streamUsage(Map)}
+   *
+   * @param parameters optional parameters to filter the query result.
+   * @param consumer   The consumer of the records.
+   */
+  default void streamUsage(Map<String, String> parameters, Consumer<UsageRecord> consumer) {
+    try (Stream<UsageRecord> records = streamUsage(parameters)) {
+      records.forEach(consumer);
+    }
+  }
+
   /**
    * Add an administrative capability to a specified user.
    *
@@ -428,6 +473,38 @@ public interface RgwAdmin {
    */
   List<BucketInfo> listBucketInfo(String userId);
 
+  /**
+   * Get information about buckets, one bucket at a time.
+   *
+   * <p>Unlike {@link #listBucketInfo()}, the response is parsed while it is being received, so
+   * the memory footprint stays constant no matter how many buckets there are. This is the
+   * preferred way to walk through the buckets of a large system.
+   *
+   * <p>The stream holds the underlying HTTP connection and must be closed, e.g.:
+   *
+   * <pre>{@code
+   * try (Stream<BucketInfo> buckets = rgwAdmin.streamBucketInfo()) {
+   *   buckets.forEach(b -> System.out.println(b.getBucket()));
+   * }
+   * }</pre>
+   *
+   * <p>Errors occurred while consuming the stream are thrown as {@link
+   * org.twonote.rgwadmin4j.impl.RgwAdminException}.
+   *
+   * @return The desired bucket information.
+   */
+  Stream<BucketInfo> streamBucketInfo();
+
+  /**
+   * Get information about buckets under a given user, one bucket at a time.
+   *
+   * <p>See {@link #streamBucketInfo()}
+   *
+   * @param userId The user to retrieve bucket information for.
+   * @return The desired bucket information.
+   */
+  Stream<BucketInfo> streamBucketInfo(String userId);
+
   /**
    * Get information about a bucket.
    *
@@ -514,6 +591,75 @@ public interface RgwAdmin {
    */
   List<String> listUser();
 
+  /**
+   * Get a page of the user list
+   *
+   * <p>Unlike {@link #listUser()}, which retrieves all the user IDs in one response, the user
+   * list is retrieved in pages of bounded size. Start with a null marker, and continue with
+   * {@link MetadataPage#getMarker()} as long as {@link MetadataPage#isTruncated()}. See also
+   * {@link #iterateUsers(int)}.
+   *
+   * @param marker     The marker from the previous page; null for the first page.
+   * @param maxEntries The max number of user IDs in the page.
+   * @return A page of user IDs.
+   */
+  MetadataPage listUserPage(String marker, int maxEntries);
+
+  /**
+   * Get a page of the bucket list
+   *
+   * <p>See {@link #listUserPage(String, int)}
+   *
+   * @param marker     The marker from the previous page; null for the first page.
+   * @param maxEntries The max number of bucket names in the page.
+   * @return A page of bucket names.
+   */
+  MetadataPage listBucketPage(String marker, int maxEntries);
+
+  /**
+   * Get a page of the bucket instance list
+   *
+   * <p>A bucket instance key is in the form of {@code bucketName:bucketId}. See {@link
+   * #listUserPage(String, int)}
+   *
+   * @param marker     The marker from the previous page; null for the first page.
+   * @param maxEntries The max number of bucket instance keys in the page.
+   * @return A page of bucket instance keys.
+   */
+  MetadataPage listBucketInstancePage(String marker, int maxEntries);
+
+  /**
+   * Iterate all user IDs in the system page by page
+   *
+   * <p>The next page is requested only when the IDs of the previous page are consumed, so the
+   * first IDs are available right away and the memory footprint is bounded by the page size.
+   * Each iteration starts over from the first page.
+   *
+   * @param pageSize The max number of user IDs to request at a time.
+   * @return Id of users in the system.
+   */
+  Iterable<String> iterateUsers(int pageSize);
+
+  /**
+   * Iterate all bucket names in the system page by page
+   *
+   * <p>See {@link #iterateUsers(int)}
+   *
+   * @param pageSize The max number of bucket names to request at a time.
+   * @return Name of buckets in the system.
+   */
+  Iterable<String> iterateBuckets(int pageSize);
+
+  /**
+   * Iterate all bucket instance keys in the system page by page
+   *
+   * <p>See {@link #iterateUsers(int)}
+   *
+   * @param pageSize The max number of bucket instance keys to request at a time.
+   * @return Bucket instance keys in the system.
+   */
+  Iterable<String> iterateBucketInstances(int pageSize);
+
   /**
    * Get the subuser list under a user
    *
@@ -529,6 +675,22 @@ public interface RgwAdmin {
    */
   List<User> listUserInfo();
 
+  /**
+   * Get information about users exist in the system
+   *
+   * <p>The user list is retrieved first, and then one request per user is issued. Use {@link
+   * ListOptions#parallelism(int)} to have many of them in flight at the same time, which shortens
+   * the operation a lot on systems with many users. The order of the result follows the order of
+   * the user list in any case.
+   *
+   * <p>By default the first failure aborts the operation. To collect as many users as possible
+   * instead, see {@link ListOptions#onFailure(java.util.function.BiConsumer)}.
+   *
+   * @param options Options of concurrency and failure handling.
+   * @return Information of users in the system.
+   */
+  List<User> listUserInfo(ListOptions options);
+
   /**
    * Modify a user.
    *
@@ -0,0 +1,334 @@
+package org.twonote.rgwadmin4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.Cap;
+import org.twonote.rgwadmin4j.model.ClusterInfo;
+import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
+import org.twonote.rgwadmin4j.model.Quota;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.SubUser;
+import org.twonote.rgwadmin4j.model.SwiftCredential;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * Radosgw administrator, the non-blocking flavor.
+ *
+ * <p>Every operation of {@link RgwAdmin} is available here with the same semantics, but instead
+ * of blocking the calling thread until the response arrives, the request is handed to the HTTP
+ * dispatcher and a {@link CompletableFuture} is returned. Failures that would be thrown by {@link
+ * RgwAdmin} complete the future exceptionally, e.g., with a {@link
+ * org.twonote.rgwadmin4j.impl.RgwAdminException}. Cancelling a future cancels the in-flight HTTP
+ * call.
+ *
+ * <p>Note that callbacks attached to the returned futures without an explicit executor run on the
+ * HTTP dispatcher threads and should not block.
+ */
+@SuppressWarnings("SameParameterValue")
+public interface RgwAdminAsync {
+
+  /**
+   * See {@link RgwAdmin#trimUserUsage(String, Map)}
+   */
+  CompletableFuture<Void> trimUserUsage(String userId, Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#trimUsage(Map)}
+   */
+  CompletableFuture<Void> trimUsage(Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#getUserUsage(String)}
+   */
+  CompletableFuture<Optional<UsageInfo>> getUserUsage(String userId);
+
+  /**
+   * See {@link RgwAdmin#getUserUsage(String, Map)}
+   */
+  CompletableFuture<Optional<UsageInfo>> getUserUsage(
+      String userId, Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#getUsage()}
+   */
+  CompletableFuture<Optional<UsageInfo>> getUsage();
+
+  /**
+   * See {@link RgwAdmin#getUsage(Map)}
+   */
+  CompletableFuture<Optional<UsageInfo>> getUsage(Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#addUserCapability(String, List)}
+   */
+  CompletableFuture<List<Cap>> addUserCapability(String userId, List<Cap> userCaps);
+
+  /**
+   * See {@link RgwAdmin#removeUserCapability(String, List)}
+   */
+  CompletableFuture<List<Cap>> removeUserCapability(String userId, List<Cap> userCaps);
+
+  /**
+   * See {@link RgwAdmin#createSubUser(String, String, Map)}
+   */
+  CompletableFuture<List<SubUser>> createSubUser(
+      String userId, String subUserId, Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#createSubUser(String, String, SubUser.Permission, CredentialType)}
+   */
+  CompletableFuture<SubUser> createSubUser(
+      String userId,
+      String subUserId,
+      SubUser.Permission permission,
+      CredentialType credentialType);
+
+  /**
+   * See {@link RgwAdmin#setSubUserPermission(String, String, SubUser.Permission)}
+   */
+  CompletableFuture<List<SubUser>> setSubUserPermission(
+      String userId, String subUserId, SubUser.Permission permission);
+
+  /**
+   * See {@link RgwAdmin#listSubUserInfo(String)}
+   */
+  CompletableFuture<List<SubUser>> listSubUserInfo(String userId);
+
+  /**
+   * See {@link RgwAdmin#getSubUserInfo(String, String)}
+   */
+  CompletableFuture<Optional<SubUser>> getSubUserInfo(String userId, String subUserId);
+
+  /**
+   * See {@link RgwAdmin#removeSubUser(String, String)}
+   */
+  CompletableFuture<Void> removeSubUser(String userId, String subUserId);
+
+  /**
+   * See {@link RgwAdmin#createS3Credential(String, String, String)}
+   */
+  CompletableFuture<List<S3Credential>> createS3Credential(
+      String userId, String accessKey, String secretKey);
+
+  /**
+   * See {@link RgwAdmin#createS3Credential(String)}
+   */
+  CompletableFuture<List<S3Credential>> createS3Credential(String userId);
+
+  /**
+   * See {@link RgwAdmin#removeS3Credential(String, String)}
+   */
+  CompletableFuture<Void> removeS3Credential(String userId, String accessKey);
+
+  /**
+   * See {@link RgwAdmin#createS3CredentialForSubUser(String, String, String, String)}
+   */
+  CompletableFuture<List<S3Credential>> createS3CredentialForSubUser(
+      String userId, String subUserId, String accessKey, String secretKey);
+
+  /**
+   * See {@link RgwAdmin#createS3CredentialForSubUser(String, String)}
+   */
+  CompletableFuture<List<S3Credential>> createS3CredentialForSubUser(
+      String userId, String subUserId);
+
+  /**
+   * See {@link RgwAdmin#removeS3CredentialFromSubUser(String, String, String)}
+   */
+  CompletableFuture<Void> removeS3CredentialFromSubUser(
+      String userId, String subUserId, String accessKey);
+
+  /**
+   * See {@link RgwAdmin#createSwiftCredentialForSubUser(String, String, String)}
+   */
+  CompletableFuture<SwiftCredential> createSwiftCredentialForSubUser(
+      String userId, String subUserId, String password);
+
+  /**
+   * See {@link RgwAdmin#createSwiftCredentialForSubUser(String, String)}
+   */
+  CompletableFuture<SwiftCredential> createSwiftCredentialForSubUser(
+      String userId, String subUserId);
+
+  /**
+   * See {@link RgwAdmin#removeSwiftCredentialFromSubUser(String, String)}
+   */
+  CompletableFuture<Void> removeSwiftCredentialFromSubUser(String userId, String subUserId);
+
+  /**
+   * See {@link RgwAdmin#removeBucket(String)}
+   */
+  CompletableFuture<Void> removeBucket(String bucketName);
+
+  /**
+   * See {@link RgwAdmin#linkBucket(String, String, String)}
+   */
+  CompletableFuture<Void> linkBucket(String bucketName, String bucketId, String userId);
+
+  /**
+   * See {@link RgwAdmin#linkBucket(String, String)}
+   */
+  default CompletableFuture<Void> linkBucket(String bucketName, String userId) {
+    return linkBucket(bucketName, null, userId);
+  }
+
+  /**
+   * See {@link RgwAdmin#unlinkBucket(String, String)}
+   */
+  CompletableFuture<Void> unlinkBucket(String bucketName, String userId);
+
+  /**
+   * See {@link RgwAdmin#checkBucketIndex(String, boolean, boolean)}
+   */
+  CompletableFuture<Optional<String>> checkBucketIndex(
+      String bucketName, boolean isCheckObjects, boolean isFix);
+
+  /**
+   * See {@link RgwAdmin#listBucket()}
+   */
+  CompletableFuture<List<String>> listBucket();
+
+  /**
+   * See {@link RgwAdmin#listBucket(String)}
+   */
+  CompletableFuture<List<String>> listBucket(String userId);
+
+  /**
+   * See {@link RgwAdmin#listBucketInfo()}
+   */
+  CompletableFuture<List<BucketInfo>> listBucketInfo();
+
+  /**
+   * See {@link RgwAdmin#listBucketInfo(String)}
+   */
+  CompletableFuture<List<BucketInfo>> listBucketInfo(String userId);
+
+  /**
+   * See {@link RgwAdmin#getBucketInfo(String)}
+   */
+  CompletableFuture<Optional<BucketInfo>> getBucketInfo(String bucketName);
+
+  /**
+   * See {@link RgwAdmin#createUser(String)}
+   */
+  CompletableFuture<User> createUser(String userId);
+
+  /**
+   * See {@link RgwAdmin#createUser(String, Map)}
+   */
+  CompletableFuture<User> createUser(String userId, Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#getUserInfo(String)}
+   */
+  CompletableFuture<Optional<User>> getUserInfo(String userId);
+
+  /**
+   * See {@link RgwAdmin#getUserInfoByAccessKey(String)}
+   */
+  CompletableFuture<Optional<User>> getUserInfoByAccessKey(String accessKey);
+
+  /**
+   * See {@link RgwAdmin#listUser()}
+   */
+  CompletableFuture<List<String>> listUser();
+
+  /**
+   * See {@link RgwAdmin#listUserPage(String, int)}
+   */
+  CompletableFuture<MetadataPage> listUserPage(String marker, int maxEntries);
+
+  /**
+   * See {@link RgwAdmin#listBucketPage(String, int)}
+   */
+  CompletableFuture<MetadataPage> listBucketPage(String marker, int maxEntries);
+
+  /**
+   * See {@link RgwAdmin#listBucketInstancePage(String, int)}
+   */
+  CompletableFuture<MetadataPage> listBucketInstancePage(String marker, int maxEntries);
+
+  /**
+   * See {@link RgwAdmin#listSubUser(String)}
+   */
+  CompletableFuture<List<String>> listSubUser(String userId);
+
+  /**
+   * See {@link RgwAdmin#listUserInfo()}
+   *
+   * <p>The information of users is requested concurrently, up to the max requests per host of the
+   * dispatcher of the underlying HTTP client at a time.
+   */
+  CompletableFuture<List<User>> listUserInfo();
+
+  /**
+   * See {@link RgwAdmin#listUserInfo(ListOptions)}
+   */
+  CompletableFuture<List<User>> listUserInfo(ListOptions options);
+
+  /**
+   * See {@link RgwAdmin#modifyUser(String, Map)}
+   */
+  CompletableFuture<User> modifyUser(String userId, Map<String, String> parameters);
+
+  /**
+   * See {@link RgwAdmin#suspendUser(String, boolean)}
+   */
+  CompletableFuture<Void> suspendUser(String userId, boolean suspend);
+
+  /**
+   * See {@link RgwAdmin#removeUser(String)}
+   */
+  CompletableFuture<Void> removeUser(String userId);
+
+  /**
+   * See {@link RgwAdmin#getUserQuota(String)}
+   */
+  CompletableFuture<Optional<Quota>> getUserQuota(String userId);
+
+  /**
+   * See {@link RgwAdmin#getBucketQuota(String)}
+   */
+  CompletableFuture<Optional<Quota>> getBucketQuota(String userId);
+
+  /**
+   * See {@link RgwAdmin#setIndividualBucketQuota(String, String, long, long)}
+   */
+  CompletableFuture<Void> setIndividualBucketQuota(
+      String userId, String bucket, long maxObjects, long maxSizeKB);
+
+  /**
+   * See {@link RgwAdmin#setBucketQuota(String, long, long)}
+   */
+  CompletableFuture<Void> setBucketQuota(String userId, long maxObjects, long maxSizeKB);
+
+  /**
+   * See {@link RgwAdmin#setUserQuota(String, long, long)}
+   */
+  CompletableFuture<Void> setUserQuota(String userId, long maxObjects, long maxSizeKB);
+
+  /**
+   * See {@link RgwAdmin#removeObject(String, String)}
+   */
+  CompletableFuture<Void> removeObject(String bucketName, String objectKey);
+
+  /**
+   * See {@link RgwAdmin#getObjectPolicy(String, String)}
+   */
+  CompletableFuture<Optional<String>> getObjectPolicy(String bucketName, String objectKey);
+
+  /**
+   * See {@link RgwAdmin#getBucketPolicy(String)}
+   */
+  CompletableFuture<Optional<String>> getBucketPolicy(String bucketName);
+
+  /**
+   * See {@link RgwAdmin#getInfo()}
+   */
+  CompletableFuture<Optional<ClusterInfo>> getInfo();
+}
@@ -1,9 +1,19 @@
 package org.twonote.rgwadmin4j;
 
 import com.google.common.base.Strings;
-import java.util.Arrays;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.twonote.rgwadmin4j.impl.RgwAdminAsyncImpl;
 import org.twonote.rgwadmin4j.impl.RgwAdminImpl;
+import org.twonote.rgwadmin4j.metrics.MetricsListener;
 
 /**
  * Fluent builder for {@link RgwAdmin}. Use of the builder is preferred over using constructors of
@@ -16,6 +26,37 @@ public class RgwAdminBuilder {
   private String accessKey;
   private String secretKey;
   private String endpoint;
+  private List<String> endpoints;
+  private LoadBalancing loadBalancing;
+  private int ejectionThreshold;
+  private Duration ejectionTime;
+  private RetryPolicy retryPolicy;
+  private Duration hedgeDelay;
+  private double hedgePercentile;
+  private CircuitBreakerPolicy circuitBreakerPolicy;
+  private MetricsListener metricsListener;
+  private final Map<OperationClass, Double> rateLimits = new EnumMap<>(OperationClass.class);
+  private final Map<OperationClass, Integer> concurrencyLimits =
+      new EnumMap<>(OperationClass.class);
+
+  private OkHttpClient httpClient;
+  private int maxIdleConnections = -1;
+  private Duration keepAlive;
+  private int maxRequests = -1;
+  private int maxRequestsPerHost = -1;
+  private Duration connectTimeout;
+  private Duration readTimeout;
+  private Duration writeTimeout;
+  private Duration callTimeout;
+  private SignatureVersion signatureVersion;
+  private String region;
+  private boolean coalesceReads;
+  private long userInfoCacheSize;
+  private Duration userInfoCacheTtl;
+  private Duration accessKeyIndexRefreshInterval;
+  private int accessKeyIndexParallelism;
+  private long notFoundCacheSize;
+  private Duration notFoundCacheTtl;
 
   /**
    * Sets the access key to be used by the client.
@@ -57,6 +98,421 @@ public class RgwAdminBuilder {
    */
   public RgwAdminBuilder endpoint(String endpoint) {
     this.endpoint = endpoint;
+    this.endpoints = null;
+    return this;
+  }
+
+  /**
+   * Sets multiple equivalent endpoints to spread the requests over, e.g., the Radosgw daemons of a
+   * zone.
+   *
+   * <p>The endpoints should serve the admin API of the same cluster with the same credentials.
+   * Endpoints which fail repeatedly are ejected for a while, see {@link #endpointEjection(int,
+   * Duration)}.
+   *
+   * @param endpoints Endpoints to use, e.g., http://rgw1:80/admin and http://rgw2:80/admin
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder endpoints(String... endpoints) {
+    if (endpoints.length == 0) {
+      throw new IllegalArgumentException("endpoints should not be empty");
+    }
+    this.endpoint = endpoints[0];
+    this.endpoints = ImmutableList.copyOf(endpoints);
+    return this;
+  }
+
+  /**
+   * Sets the strategy to spread the requests over the endpoints with.
+   *
+   * @param loadBalancing Strategy to use. Default: {@link LoadBalancing#ROUND_ROBIN}
+   * @return This object for method chaining.
+   * @see #endpoints(String...)
+   */
+  public RgwAdminBuilder loadBalancing(LoadBalancing loadBalancing) {
+    this.loadBalancing = loadBalancing;
+    return this;
+  }
+
+  /**
+   * Sets when to stop sending requests to a failing endpoint.
+   *
+   * <p>An endpoint which fails the given number of requests in a row, with an I/O error or a 5xx
+   * response, is ejected for the given time. The next request after that decides whether it is
+   * back. Default: ejected for 30 seconds after 3 failures.
+   *
+   * @param consecutiveFailures Number of failures in a row to eject an endpoint.
+   * @param ejectionTime        How long to eject an endpoint.
+   * @return This object for method chaining.
+   * @see #endpoints(String...)
+   */
+  public RgwAdminBuilder endpointEjection(int consecutiveFailures, Duration ejectionTime) {
+    if (consecutiveFailures < 1) {
+      throw new IllegalArgumentException("consecutiveFailures should be positive");
+    }
+    this.ejectionThreshold = consecutiveFailures;
+    this.ejectionTime = ejectionTime;
+    return this;
+  }
+
+  /**
+   * Sets the HTTP client to derive the client from.
+   *
+   * <p>The connection pool, dispatcher, timeouts and interceptors of the given client are shared,
+   * e.g., to reuse the connections of the application. Other HTTP options of this builder are
+   * applied on top of it.
+   *
+   * <p>By default, a client with the OkHttp default settings is used: 5 idle connections kept
+   * alive for 5 minutes, 64 concurrent requests in total and 5 per host for asynchronous calls,
+   * and 10 seconds connect/read/write timeouts.
+   *
+   * @param httpClient The HTTP client to derive from.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder httpClient(OkHttpClient httpClient) {
+    this.httpClient = httpClient;
+    return this;
+  }
+
+  /**
+   * Sets the max number of idle connections to keep in the pool.
+   *
+   * <p>Bulk workloads with many concurrent requests should keep at least as many connections as
+   * requests in flight to avoid paying the connection setup repeatedly.
+   *
+   * @param maxIdleConnections Max number of idle connections. Default: 5
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder maxIdleConnections(int maxIdleConnections) {
+    if (maxIdleConnections < 0) {
+      throw new IllegalArgumentException("maxIdleConnections should not be negative");
+    }
+    this.maxIdleConnections = maxIdleConnections;
+    return this;
+  }
+
+  /**
+   * Sets how long to keep an idle connection in the pool.
+   *
+   * @param keepAlive Time to keep an idle connection. Default: 5 minutes
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder keepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+    return this;
+  }
+
+  /**
+   * Sets the max number of asynchronous requests in flight, see {@link RgwAdminAsync}.
+   *
+   * <p>Requests beyond the limit are queued. Blocking calls are not limited.
+   *
+   * <p>If only {@link #maxRequestsPerHost(int)} is set, this limit is raised to match it.
+   *
+   * @param maxRequests Max number of requests in flight. Default: 64
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder maxRequests(int maxRequests) {
+    if (maxRequests < 1) {
+      throw new IllegalArgumentException("maxRequests should be positive");
+    }
+    this.maxRequests = maxRequests;
+    return this;
+  }
+
+  /**
+   * Sets the max number of asynchronous requests in flight to a single host, see {@link
+   * RgwAdminAsync}.
+   *
+   * <p>Requests beyond the limit are queued. Blocking calls are not limited.
+   *
+   * @param maxRequestsPerHost Max number of requests in flight per host. Default: 5
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder maxRequestsPerHost(int maxRequestsPerHost) {
+    if (maxRequestsPerHost < 1) {
+      throw new IllegalArgumentException("maxRequestsPerHost should be positive");
+    }
+    this.maxRequestsPerHost = maxRequestsPerHost;
+    return this;
+  }
+
+  /**
+   * Sets the connect timeout.
+   *
+   * @param connectTimeout The timeout; zero for no timeout. Default: 10 seconds
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder connectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+    return this;
+  }
+
+  /**
+   * Sets the read timeout, i.e., the max time between two bytes of the response.
+   *
+   * @param readTimeout The timeout; zero for no timeout. Default: 10 seconds
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder readTimeout(Duration readTimeout) {
+    this.readTimeout = readTimeout;
+    return this;
+  }
+
+  /**
+   * Sets the write timeout, i.e., the max time between two bytes of the request.
+   *
+   * @param writeTimeout The timeout; zero for no timeout. Default: 10 seconds
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder writeTimeout(Duration writeTimeout) {
+    this.writeTimeout = writeTimeout;
+    return this;
+  }
+
+  /**
+   * Sets the timeout of a whole call, from connecting to reading the full response.
+   *
+   * @param callTimeout The timeout; zero for no timeout. Default: no timeout
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder callTimeout(Duration callTimeout) {
+    this.callTimeout = callTimeout;
+    return this;
+  }
+
+  /**
+   * Sets the AWS signature version to sign the requests with.
+   *
+   * <p>{@link SignatureVersion#V4} is required by deployments, e.g., proxies in front of Radosgw,
+   * which reject the legacy signature. Requests signed with V4 include the host header, so the
+   * endpoint should be the address Radosgw is reached at.
+   *
+   * @param signatureVersion Signature version to use. Default: {@link SignatureVersion#V2}
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder signatureVersion(SignatureVersion signatureVersion) {
+    this.signatureVersion = signatureVersion;
+    return this;
+  }
+
+  /**
+   * Sets the region to be used in the credential scope of {@link SignatureVersion#V4} signatures.
+   *
+   * <p>It should match the api_name of the zonegroup of the Radosgw.
+   *
+   * @param region Region to use. Default: us-east-1
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder region(String region) {
+    this.region = region;
+    return this;
+  }
+
+  /**
+   * Sets when and how often to retry failed requests, e.g., on 503 SlowDown of an overloaded
+   * Radosgw.
+   *
+   * <p>Only idempotent requests are retried, see {@link RetryPolicy}. With multiple endpoints, a
+   * retry may go to another endpoint.
+   *
+   * @param retryPolicy Retry policy to use. Default: {@link RetryPolicy#none()}
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder retryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+    return this;
+  }
+
+  /**
+   * Reports the latency, status, bytes received and retries of each request to the given
+   * listener, e.g., to publish them to a monitoring system.
+   *
+   * @param metricsListener Listener to report to. Default: none
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder metricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+    return this;
+  }
+
+  /**
+   * Limits the number of requests per second of the given operation class, e.g., to run a bulk
+   * job without degrading the data path of Radosgw.
+   *
+   * <p>Requests over the limit wait. Short bursts of up to one second of requests are let through
+   * after a quiet period. Retries and hedged duplicates count as requests.
+   *
+   * @param operationClass    The operation class to limit.
+   * @param requestsPerSecond Max number of requests per second, should be positive.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder rateLimit(OperationClass operationClass, double requestsPerSecond) {
+    if (!(requestsPerSecond > 0)) {
+      throw new IllegalArgumentException("requestsPerSecond should be positive");
+    }
+    rateLimits.put(operationClass, requestsPerSecond);
+    return this;
+  }
+
+  /**
+   * Limits the number of requests in flight of the given operation class. Requests over the
+   * limit wait for a slot.
+   *
+   * <p>Unlike {@link #maxRequestsPerHost(int)}, it applies to blocking calls as well, and to each
+   * operation class separately, e.g., to keep reads flowing while a sweep removes buckets.
+   *
+   * @param operationClass        The operation class to limit.
+   * @param maxConcurrentRequests Max number of requests in flight, should be positive.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder maxConcurrentRequests(
+      OperationClass operationClass, int maxConcurrentRequests) {
+    if (maxConcurrentRequests < 1) {
+      throw new IllegalArgumentException("maxConcurrentRequests should be positive");
+    }
+    concurrencyLimits.put(operationClass, maxConcurrentRequests);
+    return this;
+  }
+
+  /**
+   * Stops sending requests while Radosgw is unhealthy, so that callers fail fast instead of piling
+   * up until the timeouts.
+   *
+   * <p>While the circuit is open, calls fail immediately with {@link
+   * org.twonote.rgwadmin4j.impl.CircuitOpenException}, see {@link CircuitBreakerPolicy}. The
+   * circuit covers all endpoints; a request counts once, after its retries.
+   *
+   * @param circuitBreakerPolicy Circuit breaker policy to use. Default: none
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder circuitBreaker(CircuitBreakerPolicy circuitBreakerPolicy) {
+    this.circuitBreakerPolicy = circuitBreakerPolicy;
+    return this;
+  }
+
+  /**
+   * Sends a duplicate of a read which is not answered within the given delay, and takes the first
+   * success. The other request is cancelled.
+   *
+   * <p>Cuts the latency tail caused by an occasionally slow Radosgw, at the cost of the duplicate
+   * requests. With multiple endpoints, the duplicate goes to another endpoint. Applies to
+   * blocking GETs, e.g., {@link RgwAdmin#getUserInfo(String)} or {@link RgwAdmin#getUsage()}.
+   *
+   * @param delay How long to wait before sending the duplicate.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder hedgeReads(Duration delay) {
+    return hedgeReads(0, delay);
+  }
+
+  /**
+   * Same as {@link #hedgeReads(Duration)}, with the delay adapted to the given percentile of the
+   * latency of the recent reads, e.g., 0.95 to send a duplicate for about 5% of the reads.
+   *
+   * @param percentile The percentile to send the duplicate at, in [0, 1).
+   * @param minDelay   The lower bound of the delay, also used until enough reads are observed.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder hedgeReads(double percentile, Duration minDelay) {
+    if (percentile < 0 || percentile >= 1) {
+      throw new IllegalArgumentException("percentile should be in [0, 1)");
+    }
+    this.hedgePercentile = percentile;
+    this.hedgeDelay = minDelay;
+    return this;
+  }
+
+  /**
+   * Lets concurrent identical reads share one request.
+   *
+   * <p>A GET issued while an identical one is in flight, e.g., {@link
+   * RgwAdmin#getBucketInfo(String)} of the same bucket called by many threads at once, waits for
+   * the in-flight request and gets its result or failure instead of sending another request. A
+   * read may thus not observe a change made after the shared request was sent.
+   *
+   * @param coalesceReads True to coalesce reads. Default: false
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder coalesceReads(boolean coalesceReads) {
+    this.coalesceReads = coalesceReads;
+    return this;
+  }
+
+  /**
+   * Keeps the results of {@link RgwAdmin#getUserInfo(String)} and {@link
+   * RgwAdmin#getUserInfoByAccessKey(String)} in memory, see {@link CachingRgwAdmin}.
+   *
+   * <p>Mutations of a user made through the built client invalidate the cached user. Changes made
+   * by other clients are visible once the entry expires.
+   *
+   * <p>Applies to {@link #build()} only.
+   *
+   * @param maximumSize Max number of users to keep.
+   * @param ttl         How long to keep a user after it was loaded.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder userInfoCache(long maximumSize, Duration ttl) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize should be positive");
+    }
+    this.userInfoCacheSize = maximumSize;
+    this.userInfoCacheTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Remembers users, access keys and buckets that were not found for a short time, see {@link
+   * NegativeCachingRgwAdmin}.
+   *
+   * <p>Repeated lookups of absent users and buckets, e.g., by scanners, are answered without a
+   * request. Users and buckets created by other clients are visible once the misses expire.
+   *
+   * <p>Applies to {@link #build()} only.
+   *
+   * @param maximumSize Max number of misses to keep, for users, access keys and buckets each.
+   * @param ttl         How long to keep a miss.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder notFoundCache(long maximumSize, Duration ttl) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize should be positive");
+    }
+    this.notFoundCacheSize = maximumSize;
+    this.notFoundCacheTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Resolves {@link RgwAdmin#getUserInfoByAccessKey(String)} from an in-memory index of all users,
+   * rebuilt in the background, see {@link IndexedRgwAdmin}.
+   *
+   * <p>The index holds every user, so it suits deployments which look up access keys much more
+   * often than the number of users. Keys not in the index are looked up through the admin API.
+   *
+   * <p>Applies to {@link #buildIndexed()} only. Users are loaded with up to 8 requests in flight.
+   *
+   * @param refreshInterval Delay between two rebuilds of the index.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder accessKeyIndex(Duration refreshInterval) {
+    return accessKeyIndex(refreshInterval, 8);
+  }
+
+  /**
+   * Resolves {@link RgwAdmin#getUserInfoByAccessKey(String)} from an in-memory index of all users,
+   * rebuilt in the background, see {@link #accessKeyIndex(Duration)}.
+   *
+   * @param refreshInterval Delay between two rebuilds of the index.
+   * @param parallelism     Max number of users to load concurrently while rebuilding the index.
+   * @return This object for method chaining.
+   */
+  public RgwAdminBuilder accessKeyIndex(Duration refreshInterval, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be positive");
+    }
+    this.accessKeyIndexRefreshInterval = refreshInterval;
+    this.accessKeyIndexParallelism = parallelism;
     return this;
   }
 
@@ -64,11 +520,123 @@ public class RgwAdminBuilder {
    * Builds a client with the configure properties.
    *
    * @return Client instance to make API calls with.
+   * @throws IllegalStateException if {@link #accessKeyIndex(Duration)} is set, which requires
+   *                               {@link #buildIndexed()}.
    */
   public RgwAdmin build() {
+    if (accessKeyIndexRefreshInterval != null) {
+      throw new IllegalStateException("Use buildIndexed() with accessKeyIndex().");
+    }
+    return buildCaching();
+  }
+
+  /**
+   * Builds a client with the configure properties which indexes the users by access key, see
+   * {@link #accessKeyIndex(Duration)}.
+   *
+   * <p>The index is rebuilt by a background thread. Close the client to stop it.
+   *
+   * @return Client instance to make API calls with.
+   */
+  public IndexedRgwAdmin buildIndexed() {
+    if (accessKeyIndexRefreshInterval == null) {
+      throw new IllegalStateException("Missing accessKeyIndex() to build an indexed instance.");
+    }
+    return new IndexedRgwAdmin(
+        buildCaching(), accessKeyIndexRefreshInterval, accessKeyIndexParallelism);
+  }
+
+  private RgwAdmin buildCaching() {
+    RgwAdmin admin = new RgwAdminImpl(buildConfig());
+    if (userInfoCacheSize > 0) {
+      admin = new CachingRgwAdmin(admin, userInfoCacheSize, userInfoCacheTtl);
+    }
+    if (notFoundCacheSize > 0) {
+      admin = new NegativeCachingRgwAdmin(admin, notFoundCacheSize, notFoundCacheTtl);
+    }
+    return admin;
+  }
+
+  /**
+   * Builds a non-blocking client with the configure properties.
+   *
+   * @return Client instance to make asynchronous API calls with.
+   */
+  public RgwAdminAsync buildAsync() {
+    return new RgwAdminAsyncImpl(buildConfig());
+  }
+
+  private RgwAdminConfig buildConfig() {
     if (Stream.of(accessKey, secretKey, endpoint).anyMatch(Strings::isNullOrEmpty)) {
       throw new IllegalArgumentException("Missing required parameter to build the instance.");
     }
-    return new RgwAdminImpl(accessKey, secretKey, endpoint);
+    RgwAdminConfig config = new RgwAdminConfig(accessKey, secretKey, endpoint);
+    config.setHttpClient(buildHttpClient());
+    if (signatureVersion != null) {
+      config.setSignatureVersion(signatureVersion);
+    }
+    if (!Strings.isNullOrEmpty(region)) {
+      config.setRegion(region);
+    }
+    config.setCoalesceReads(coalesceReads);
+    if (endpoints != null) {
+      config.setEndpoints(endpoints);
+    }
+    if (retryPolicy != null) {
+      config.setRetryPolicy(retryPolicy);
+    }
+    if (hedgeDelay != null) {
+      config.setHedging(hedgeDelay, hedgePercentile);
+    }
+    config.setCircuitBreakerPolicy(circuitBreakerPolicy);
+    config.setMetricsListener(metricsListener);
+    config.setRateLimits(rateLimits);
+    config.setConcurrencyLimits(concurrencyLimits);
+    if (loadBalancing != null) {
+      config.setLoadBalancing(loadBalancing);
+    }
+    if (ejectionTime != null) {
+      config.setEjectionThreshold(ejectionThreshold);
+      config.setEjectionTime(ejectionTime);
+    }
+    return config;
+  }
+
+  private OkHttpClient buildHttpClient() {
+    OkHttpClient base = httpClient != null ? httpClient : new OkHttpClient();
+    OkHttpClient.Builder builder = base.newBuilder();
+
+    if (maxIdleConnections >= 0 || keepAlive != null) {
+      builder.connectionPool(
+          new ConnectionPool(
+              maxIdleConnections >= 0 ? maxIdleConnections : 5,
+              keepAlive != null ? keepAlive.toMillis() : TimeUnit.MINUTES.toMillis(5),
+              TimeUnit.MILLISECONDS));
+    }
+
+    if (maxRequests > 0 || maxRequestsPerHost > 0) {
+      // Keep the executor of the given client, if any.
+      int perHost =
+          maxRequestsPerHost > 0 ? maxRequestsPerHost : base.dispatcher().getMaxRequestsPerHost();
+      Dispatcher dispatcher = new Dispatcher(base.dispatcher().executorService());
+      dispatcher.setMaxRequests(
+          maxRequests > 0 ? maxRequests : Math.max(base.dispatcher().getMaxRequests(), perHost));
+      dispatcher.setMaxRequestsPerHost(perHost);
+      builder.dispatcher(dispatcher);
+    }
+
+    if (connectTimeout != null) {
+      builder.connectTimeout(connectTimeout);
+    }
+    if (readTimeout != null) {
+      builder.readTimeout(readTimeout);
+    }
+    if (writeTimeout != null) {
+      builder.writeTimeout(writeTimeout);
+    }
+    if (callTimeout != null) {
+      builder.callTimeout(callTimeout);
+    }
+    return builder.build();
   }
 }
@@ -0,0 +1,261 @@
+package org.twonote.rgwadmin4j;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.OkHttpClient;
+import org.twonote.rgwadmin4j.metrics.MetricsListener;
+
+/**
+ * Settings to construct a client, as collected by {@link RgwAdminBuilder}.
+ *
+ * <p>Use of the builder is preferred over creating the configuration directly.
+ */
+public final class RgwAdminConfig {
+
+  private final String accessKey;
+  private final String secretKey;
+  private final String endpoint;
+
+  private OkHttpClient httpClient;
+  private SignatureVersion signatureVersion = SignatureVersion.V2;
+  private String region = "us-east-1";
+  private boolean coalesceReads;
+  private List<String> endpoints;
+  private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+  private int ejectionThreshold = 3;
+  private Duration ejectionTime = Duration.ofSeconds(30);
+  private RetryPolicy retryPolicy = RetryPolicy.none();
+  private Duration hedgeDelay;
+  private double hedgePercentile;
+  private CircuitBreakerPolicy circuitBreakerPolicy;
+  private MetricsListener metricsListener;
+  private final Map<OperationClass, Double> rateLimits = new EnumMap<>(OperationClass.class);
+  private final Map<OperationClass, Integer> concurrencyLimits =
+      new EnumMap<>(OperationClass.class);
+
+  /**
+   * Create a configuration with the default settings.
+   *
+   * @param accessKey Access key of the admin who have proper administrative capabilities.
+   * @param secretKey Secret key of the admin who have proper administrative capabilities.
+   * @param endpoint  Radosgw admin API endpoint, e.g., http://127.0.0.1:80/admin
+   */
+  public RgwAdminConfig(String accessKey, String secretKey, String endpoint) {
+    this.accessKey = accessKey;
+    this.secretKey = secretKey;
+    this.endpoint = endpoint;
+  }
+
+  public String getAccessKey() {
+    return accessKey;
+  }
+
+  public String getSecretKey() {
+    return secretKey;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * All endpoints to spread the requests over. The requests are built against the first one, i.e.,
+   * {@link #getEndpoint()}.
+   *
+   * @return The endpoints. Default: the endpoint only
+   */
+  public List<String> getEndpoints() {
+    return endpoints != null ? endpoints : Collections.singletonList(endpoint);
+  }
+
+  void setEndpoints(List<String> endpoints) {
+    this.endpoints = endpoints;
+  }
+
+  /**
+   * The strategy to spread the requests over the endpoints with.
+   *
+   * @return The strategy. Default: {@link LoadBalancing#ROUND_ROBIN}
+   */
+  public LoadBalancing getLoadBalancing() {
+    return loadBalancing;
+  }
+
+  void setLoadBalancing(LoadBalancing loadBalancing) {
+    this.loadBalancing = loadBalancing;
+  }
+
+  /**
+   * The number of requests in a row an endpoint should fail to be ejected.
+   *
+   * @return The number of failures. Default: 3
+   */
+  public int getEjectionThreshold() {
+    return ejectionThreshold;
+  }
+
+  void setEjectionThreshold(int ejectionThreshold) {
+    this.ejectionThreshold = ejectionThreshold;
+  }
+
+  /**
+   * How long a failing endpoint is ejected.
+   *
+   * @return The ejection time. Default: 30 seconds
+   */
+  public Duration getEjectionTime() {
+    return ejectionTime;
+  }
+
+  void setEjectionTime(Duration ejectionTime) {
+    this.ejectionTime = ejectionTime;
+  }
+
+  /**
+   * The HTTP client to derive the client of the admin API from. The connection pool, dispatcher
+   * and timeouts of it are shared.
+   *
+   * @return The base HTTP client.
+   */
+  public OkHttpClient getHttpClient() {
+    if (httpClient == null) {
+      httpClient = new OkHttpClient();
+    }
+    return httpClient;
+  }
+
+  void setHttpClient(OkHttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  /**
+   * The signature version to authenticate the requests with.
+   *
+   * @return The signature version. Default: {@link SignatureVersion#V2}
+   */
+  public SignatureVersion getSignatureVersion() {
+    return signatureVersion;
+  }
+
+  void setSignatureVersion(SignatureVersion signatureVersion) {
+    this.signatureVersion = signatureVersion;
+  }
+
+  /**
+   * The region in the credential scope of {@link SignatureVersion#V4} signatures.
+   *
+   * @return The region. Default: us-east-1
+   */
+  public String getRegion() {
+    return region;
+  }
+
+  void setRegion(String region) {
+    this.region = region;
+  }
+
+  /**
+   * Whether concurrent identical GETs share one request.
+   *
+   * @return True if reads are coalesced. Default: false
+   */
+  public boolean isCoalesceReads() {
+    return coalesceReads;
+  }
+
+  void setCoalesceReads(boolean coalesceReads) {
+    this.coalesceReads = coalesceReads;
+  }
+
+  /**
+   * When and how often to retry failed requests.
+   *
+   * @return The retry policy. Default: {@link RetryPolicy#none()}
+   */
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  void setRetryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * How long to wait for a read before sending a duplicate, or the lower bound of it if {@link
+   * #getHedgePercentile()} is set.
+   *
+   * @return The delay; null if reads are not hedged.
+   */
+  public Duration getHedgeDelay() {
+    return hedgeDelay;
+  }
+
+  /**
+   * The percentile of the observed read latency to send a duplicate at.
+   *
+   * @return The percentile, e.g., 0.95; 0 if the delay is fixed.
+   */
+  public double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  void setHedging(Duration hedgeDelay, double hedgePercentile) {
+    this.hedgeDelay = hedgeDelay;
+    this.hedgePercentile = hedgePercentile;
+  }
+
+  /**
+   * When to stop sending requests to an unhealthy Radosgw.
+   *
+   * @return The circuit breaker policy; null if there is no circuit breaker.
+   */
+  public CircuitBreakerPolicy getCircuitBreakerPolicy() {
+    return circuitBreakerPolicy;
+  }
+
+  void setCircuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+    this.circuitBreakerPolicy = circuitBreakerPolicy;
+  }
+
+  /**
+   * The max number of requests per second of each operation class.
+   *
+   * @return The rate limits; operation classes without one are not limited.
+   */
+  public Map<OperationClass, Double> getRateLimits() {
+    return Collections.unmodifiableMap(rateLimits);
+  }
+
+  void setRateLimits(Map<OperationClass, Double> rateLimits) {
+    this.rateLimits.putAll(rateLimits);
+  }
+
+  /**
+   * The max number of requests in flight of each operation class.
+   *
+   * @return The concurrency limits; operation classes without one are not limited.
+   */
+  public Map<OperationClass, Integer> getConcurrencyLimits() {
+    return Collections.unmodifiableMap(concurrencyLimits);
+  }
+
+  void setConcurrencyLimits(Map<OperationClass, Integer> concurrencyLimits) {
+    this.concurrencyLimits.putAll(concurrencyLimits);
+  }
+
+  /**
+   * The listener to report the requests to.
+   *
+   * @return The listener; null if the requests are not measured.
+   */
+  public MetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  void setMetricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+}
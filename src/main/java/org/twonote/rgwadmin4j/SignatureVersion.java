@@ -0,0 +1,15 @@
+package org.twonote.rgwadmin4j;
+
+/**
+ * The AWS signature version used to authenticate the admin requests.
+ */
+public enum SignatureVersion {
+  /**
+   * The legacy AWS signature version 2, accepted by all Radosgw releases.
+   */
+  V2,
+  /**
+   * AWS signature version 4. Required by deployments which turn off the legacy scheme.
+   */
+  V4
+}
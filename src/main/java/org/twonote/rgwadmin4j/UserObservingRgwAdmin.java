@@ -0,0 +1,213 @@
+package org.twonote.rgwadmin4j;
+
+import java.util.List;
+import java.util.Map;
+import org.twonote.rgwadmin4j.model.Cap;
+import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.SubUser;
+import org.twonote.rgwadmin4j.model.SwiftCredential;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * A {@link ForwardingRgwAdmin} which is notified after each operation that changes a user, its
+ * subusers, credentials or capabilities. The notification is sent even if the operation failed,
+ * since it may have been applied partially.
+ */
+abstract class UserObservingRgwAdmin extends ForwardingRgwAdmin {
+
+  /**
+   * Called after the user was changed through this client.
+   *
+   * @param userId The user ID.
+   */
+  protected abstract void userChanged(String userId);
+
+  @Override
+  public User createUser(String userId) {
+    try {
+      return delegate().createUser(userId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public User createUser(String userId, Map<String, String> parameters) {
+    try {
+      return delegate().createUser(userId, parameters);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public User modifyUser(String userId, Map<String, String> parameters) {
+    try {
+      return delegate().modifyUser(userId, parameters);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void suspendUser(String userId, boolean suspend) {
+    try {
+      delegate().suspendUser(userId, suspend);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void removeUser(String userId) {
+    try {
+      delegate().removeUser(userId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<Cap> addUserCapability(String userId, List<Cap> userCaps) {
+    try {
+      return delegate().addUserCapability(userId, userCaps);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<Cap> removeUserCapability(String userId, List<Cap> userCaps) {
+    try {
+      return delegate().removeUserCapability(userId, userCaps);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<SubUser> createSubUser(
+      String userId, String subUserId, Map<String, String> parameters) {
+    try {
+      return delegate().createSubUser(userId, subUserId, parameters);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public SubUser createSubUser(
+      String userId,
+      String subUserId,
+      SubUser.Permission permission,
+      CredentialType credentialType) {
+    try {
+      return delegate().createSubUser(userId, subUserId, permission, credentialType);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<SubUser> setSubUserPermission(
+      String userId, String subUserId, SubUser.Permission permission) {
+    try {
+      return delegate().setSubUserPermission(userId, subUserId, permission);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void removeSubUser(String userId, String subUserId) {
+    try {
+      delegate().removeSubUser(userId, subUserId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3Credential(String userId, String accessKey, String secretKey) {
+    try {
+      return delegate().createS3Credential(userId, accessKey, secretKey);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3Credential(String userId) {
+    try {
+      return delegate().createS3Credential(userId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void removeS3Credential(String userId, String accessKey) {
+    try {
+      delegate().removeS3Credential(userId, accessKey);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3CredentialForSubUser(
+      String userId, String subUserId, String accessKey, String secretKey) {
+    try {
+      return delegate().createS3CredentialForSubUser(userId, subUserId, accessKey, secretKey);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public List<S3Credential> createS3CredentialForSubUser(String userId, String subUserId) {
+    try {
+      return delegate().createS3CredentialForSubUser(userId, subUserId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void removeS3CredentialFromSubUser(String userId, String subUserId, String accessKey) {
+    try {
+      delegate().removeS3CredentialFromSubUser(userId, subUserId, accessKey);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public SwiftCredential createSwiftCredentialForSubUser(
+      String userId, String subUserId, String password) {
+    try {
+      return delegate().createSwiftCredentialForSubUser(userId, subUserId, password);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public SwiftCredential createSwiftCredentialForSubUser(String userId, String subUserId) {
+    try {
+      return delegate().createSwiftCredentialForSubUser(userId, subUserId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+
+  @Override
+  public void removeSwiftCredentialFromSubUser(String userId, String subUserId) {
+    try {
+      delegate().removeSwiftCredentialFromSubUser(userId, subUserId);
+    } finally {
+      userChanged(userId);
+    }
+  }
+}
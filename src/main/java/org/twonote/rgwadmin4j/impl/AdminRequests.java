@@ -0,0 +1,308 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import java.util.List;
+import java.util.Map;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.twonote.rgwadmin4j.model.Cap;
+
+/**
+ * Builds the HTTP requests of the Radosgw admin operations.
+ *
+ * <p>The sync and async clients share this class so that an operation is described once no matter
+ * how it is executed.
+ */
+final class AdminRequests {
+
+  private static final Gson gson = new Gson();
+
+  private static final RequestBody emptyBody = RequestBody.create(null, new byte[]{});
+
+  private final HttpUrl endpoint;
+
+  AdminRequests(String endpoint) {
+    HttpUrl url = HttpUrl.parse(endpoint);
+    if (url == null) {
+      throw new IllegalArgumentException("endpoint is invalid");
+    }
+    this.endpoint = url;
+  }
+
+  HttpUrl endpoint() {
+    return endpoint;
+  }
+
+  private static void appendParameters(Map<String, String> parameters, HttpUrl.Builder urlBuilder) {
+    if (parameters != null) {
+      parameters.forEach(urlBuilder::addQueryParameter);
+    }
+  }
+
+  private static String buildQuotaConfig(long maxObjects, long maxSizeKB) {
+    return gson.toJson(
+        ImmutableMap.of(
+            "max_objects", String.valueOf(maxObjects),
+            "max_size_kb", String.valueOf(maxSizeKB),
+            "enabled", "true"));
+  }
+
+  private HttpUrl.Builder url(String pathSegment) {
+    return endpoint.newBuilder().addPathSegment(pathSegment);
+  }
+
+  Request trimUsage(Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("usage");
+    appendParameters(parameters, urlBuilder);
+    return new Request.Builder().delete().url(urlBuilder.build()).build();
+  }
+
+  Request getUsage(Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("usage");
+    appendParameters(parameters, urlBuilder);
+    return new Request.Builder().get().url(urlBuilder.build()).build();
+  }
+
+  Request addUserCapability(String userId, List<Cap> userCaps) {
+    return new Request.Builder().put(emptyBody).url(userCapsUrl(userId, userCaps)).build();
+  }
+
+  Request removeUserCapability(String userId, List<Cap> userCaps) {
+    return new Request.Builder().delete().url(userCapsUrl(userId, userCaps)).build();
+  }
+
+  private HttpUrl userCapsUrl(String userId, List<Cap> userCaps) {
+    return url("user")
+        .query("caps")
+        .addQueryParameter("uid", userId)
+        .addQueryParameter("user-caps", Joiner.on(";").join(userCaps))
+        .build();
+  }
+
+  Request createSubUser(String userId, String subUserId, Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = subUserUrl(userId, subUserId);
+    appendParameters(parameters, urlBuilder);
+    // May generate a key.
+    return new Request.Builder()
+        .put(emptyBody)
+        .url(urlBuilder.build())
+        .tag(Idempotency.class, Idempotency.NOT_IDEMPOTENT)
+        .build();
+  }
+
+  Request modifySubUser(String userId, String subUserId, Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = subUserUrl(userId, subUserId);
+    appendParameters(parameters, urlBuilder);
+    return new Request.Builder().post(emptyBody).url(urlBuilder.build()).build();
+  }
+
+  Request removeSubUser(String userId, String subUserId) {
+    return new Request.Builder().delete().url(subUserUrl(userId, subUserId).build()).build();
+  }
+
+  private HttpUrl.Builder subUserUrl(String userId, String subUserId) {
+    return url("user")
+        .query("subuser")
+        .addQueryParameter("uid", userId)
+        .addQueryParameter("subuser", subUserId);
+  }
+
+  Request createKey(String userId, Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("user").query("key").addQueryParameter("uid", userId);
+    appendParameters(parameters, urlBuilder);
+    // Each attempt would generate another key unless the key is given.
+    boolean generated = parameters == null || !parameters.containsKey("access-key");
+    return new Request.Builder()
+        .put(emptyBody)
+        .url(urlBuilder.build())
+        .tag(Idempotency.class, generated ? Idempotency.NOT_IDEMPOTENT : Idempotency.IDEMPOTENT)
+        .build();
+  }
+
+  Request removeKey(String userId, Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("user").query("key").addQueryParameter("uid", userId);
+    appendParameters(parameters, urlBuilder);
+    return new Request.Builder().delete().url(urlBuilder.build()).build();
+  }
+
+  Request removeBucket(String bucketName) {
+    HttpUrl url =
+        url("bucket")
+            .addQueryParameter("bucket", bucketName)
+            .addQueryParameter("purge-objects", "true")
+            .build();
+    return new Request.Builder().delete().url(url).build();
+  }
+
+  Request linkBucket(String bucketName, String bucketId, String userId) {
+    HttpUrl.Builder urlBuilder = url("bucket").addQueryParameter("bucket", bucketName);
+
+    if (bucketId != null) {
+      urlBuilder.addQueryParameter("bucket-id", bucketId);
+    }
+
+    urlBuilder.addQueryParameter("uid", userId);
+    return new Request.Builder().put(emptyBody).url(urlBuilder.build()).build();
+  }
+
+  Request unlinkBucket(String bucketName, String userId) {
+    HttpUrl url =
+        url("bucket")
+            .addQueryParameter("bucket", bucketName)
+            .addQueryParameter("uid", userId)
+            .build();
+    return new Request.Builder().post(emptyBody).url(url).build();
+  }
+
+  Request checkBucketIndex(String bucketName, boolean isCheckObjects, boolean isFix) {
+    HttpUrl url =
+        url("bucket")
+            .query("index")
+            .addQueryParameter("bucket", bucketName)
+            .addQueryParameter("check-objects", Boolean.toString(isCheckObjects))
+            .addQueryParameter("fix", Boolean.toString(isFix))
+            .build();
+    // A GET, but one that repairs the index when asked to.
+    return new Request.Builder()
+        .get()
+        .url(url)
+        .tag(Idempotency.class, isFix ? Idempotency.NOT_IDEMPOTENT : Idempotency.IDEMPOTENT)
+        .build();
+  }
+
+  Request getBucketInfo(Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("bucket");
+    appendParameters(parameters, urlBuilder);
+    return new Request.Builder().get().url(urlBuilder.build()).build();
+  }
+
+  Request createUser(String userId, Map<String, String> options) {
+    HttpUrl.Builder urlBuilder =
+        url("user").addQueryParameter("uid", userId).addQueryParameter("display-name", userId);
+    appendParameters(options, urlBuilder);
+    // May generate a key, and a retry may fail for the user created by the first attempt.
+    return new Request.Builder()
+        .put(emptyBody)
+        .url(urlBuilder.build())
+        .tag(Idempotency.class, Idempotency.NOT_IDEMPOTENT)
+        .build();
+  }
+
+  Request getUserInfo(String userId) {
+    HttpUrl url = url("user").addQueryParameter("uid", userId).build();
+    return new Request.Builder().get().url(url).build();
+  }
+
+  Request getUserInfoByAccessKey(String accessKey) {
+    HttpUrl url = url("user").addQueryParameter("access-key", accessKey).build();
+    return new Request.Builder().get().url(url).build();
+  }
+
+  Request modifyUser(String userId, Map<String, String> parameters) {
+    HttpUrl.Builder urlBuilder = url("user").addQueryParameter("uid", userId);
+    parameters.forEach(urlBuilder::addQueryParameter);
+    return new Request.Builder().post(emptyBody).url(urlBuilder.build()).build();
+  }
+
+  Request removeUser(String userId) {
+    HttpUrl url =
+        url("user")
+            .addQueryParameter("uid", userId)
+            .addQueryParameter("purge-data", "true")
+            .build();
+    return new Request.Builder().delete().url(url).build();
+  }
+
+  Request listMetadata(RgwAdminImpl.MetadataType metadataType) {
+    HttpUrl url = url("metadata").addPathSegment(metadataType.toString()).build();
+    return new Request.Builder().get().url(url).build();
+  }
+
+  Request listMetadata(RgwAdminImpl.MetadataType metadataType, String marker, int maxEntries) {
+    HttpUrl.Builder urlBuilder =
+        url("metadata")
+            .addPathSegment(metadataType.toString())
+            .addQueryParameter("max-entries", String.valueOf(maxEntries));
+    if (marker != null) {
+      urlBuilder.addQueryParameter("marker", marker);
+    }
+    return new Request.Builder().get().url(urlBuilder.build()).build();
+  }
+
+  Request getMetadata(RgwAdminImpl.MetadataType metadataType, String key) {
+    HttpUrl url =
+        url("metadata")
+            .addQueryParameter("key", String.join(":", metadataType.toString(), key))
+            .build();
+    return new Request.Builder().get().url(url).build();
+  }
+
+  Request getQuota(String userId, String quotaType) {
+    HttpUrl url =
+        url("user")
+            .query("quota")
+            .addQueryParameter("uid", userId)
+            .addQueryParameter("quota-type", quotaType)
+            .build();
+    return new Request.Builder().get().url(url).build();
+  }
+
+  Request setQuota(String userId, String quotaType, long maxObjects, long maxSizeKB) {
+    HttpUrl url =
+        url("user")
+            .query("quota")
+            .addQueryParameter("uid", userId)
+            .addQueryParameter("quota-type", quotaType)
+            .build();
+    return new Request.Builder()
+        .put(RequestBody.create(null, buildQuotaConfig(maxObjects, maxSizeKB)))
+        .url(url)
+        .build();
+  }
+
+  Request setIndividualBucketQuota(String userId, String bucket, long maxObjects, long maxSizeKB) {
+    HttpUrl url =
+        url("bucket")
+            .query("quota")
+            .addQueryParameter("uid", userId)
+            .addQueryParameter("bucket", bucket)
+            .build();
+    return new Request.Builder()
+        .put(RequestBody.create(null, buildQuotaConfig(maxObjects, maxSizeKB)))
+        .url(url)
+        .build();
+  }
+
+  Request removeObject(String bucketName, String objectKey) {
+    HttpUrl url =
+        url("bucket")
+            .query("object")
+            .addQueryParameter("bucket", bucketName)
+            .addQueryParameter("object", objectKey)
+            .build();
+    return new Request.Builder().delete().url(url).build();
+  }
+
+  Request getPolicy(String bucketName, String objectKey) {
+    if (Strings.isNullOrEmpty(bucketName)) {
+      throw new IllegalArgumentException("no bucketName");
+    }
+
+    HttpUrl.Builder urlBuilder =
+        url("bucket").query("policy").addQueryParameter("bucket", bucketName);
+
+    if (!Strings.isNullOrEmpty(objectKey)) {
+      urlBuilder.addQueryParameter("object", objectKey);
+    }
+
+    return new Request.Builder().get().url(urlBuilder.build()).build();
+  }
+
+  Request getInfo() {
+    return new Request.Builder().get().url(url("info").build()).build();
+  }
+}
@@ -0,0 +1,337 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.twonote.rgwadmin4j.RgwAdminConfig;
+
+/**
+ * Executes admin requests and maps the responses to the conventions of this library.
+ *
+ * <p>A 404 response is either reported as {@code null} or as a {@link RgwAdminException}, other
+ * non-2xx responses are always translated to {@link RgwAdminException}.
+ *
+ * <p>Reads are the GETs which change nothing, see {@link Idempotency#isRead(Request)}. If reads
+ * are coalesced, a read issued while an identical one, i.e., to the same URL, is in flight does
+ * not send a request but waits for the in-flight one and shares its outcome. If reads are hedged,
+ * blocking reads are executed by a {@link Hedger}. If there is a circuit breaker,
+ * requests are only sent while it is closed; otherwise they fail with {@link
+ * CircuitOpenException}.
+ */
+final class AdminTransport {
+
+  private final OkHttpClient client;
+
+  /*
+   * In-flight reads; null if reads are not coalesced.
+   */
+  private final ConcurrentMap<Flight, CompletableFuture<String>> inFlight;
+
+  /*
+   * Null if reads are not hedged.
+   */
+  private final Hedger hedger;
+
+  /*
+   * Null if there is no circuit breaker.
+   */
+  private final CircuitBreaker breaker;
+
+  AdminTransport(
+      OkHttpClient client, boolean coalesceReads, Hedger hedger, CircuitBreaker breaker) {
+    this.client = client;
+    this.inFlight = coalesceReads ? new ConcurrentHashMap<>() : null;
+    this.hedger = hedger;
+    this.breaker = breaker;
+  }
+
+  static AdminTransport create(RgwAdminConfig config) {
+    OkHttpClient client = HttpClientFactory.create(config);
+    Hedger hedger =
+        config.getHedgeDelay() != null
+            ? new Hedger(client, config.getHedgeDelay(), config.getHedgePercentile())
+            : null;
+    CircuitBreaker breaker =
+        config.getCircuitBreakerPolicy() != null
+            ? new CircuitBreaker(config.getCircuitBreakerPolicy())
+            : null;
+    return new AdminTransport(client, config.isCoalesceReads(), hedger, breaker);
+  }
+
+  OkHttpClient client() {
+    return client;
+  }
+
+  /**
+   * Read the response body as a string.
+   *
+   * @param response       response
+   * @param notFoundAsNull return null instead of throwing if the status code is 404
+   * @return resp body in str; null if no body
+   * @throws RgwAdminException if resp code is not successful
+   */
+  static String readBody(Response response, boolean notFoundAsNull) throws IOException {
+    if (response.code() == 404) {
+      if (notFoundAsNull) {
+        return null;
+      }
+      throw new RgwAdminException(404, "not found");
+    }
+    if (!response.isSuccessful()) {
+      throw ErrorUtils.parseError(response);
+    }
+    ResponseBody body = response.body();
+    if (body != null) {
+      return body.string();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Guarantee that the request is execute success and the connection is closed
+   *
+   * @param request        request
+   * @param notFoundAsNull return null instead of throwing if the status code is 404
+   * @return resp body in str; null if no body or status code == 404 and notFoundAsNull is set
+   * @throws RgwAdminException if resp code != (200||404)
+   */
+  String execute(Request request, boolean notFoundAsNull) {
+    if (!coalesces(request)) {
+      return executeNow(request, notFoundAsNull);
+    }
+    Flight key = new Flight(request.url(), notFoundAsNull);
+    CompletableFuture<String> flight = new CompletableFuture<>();
+    CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      try {
+        return existing.join();
+      } catch (CompletionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+    }
+    try {
+      String body = executeNow(request, notFoundAsNull);
+      flight.complete(body);
+      return body;
+    } catch (RuntimeException e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  private String executeNow(Request request, boolean notFoundAsNull) {
+    return guarded(() -> send(request, notFoundAsNull));
+  }
+
+  private String send(Request request, boolean notFoundAsNull) {
+    if (hedger != null && Idempotency.isRead(request)) {
+      return hedger.execute(request, notFoundAsNull);
+    }
+    try (Response response = client.newCall(request).execute()) {
+      return readBody(response, notFoundAsNull);
+    } catch (IOException e) {
+      throw new RgwAdminException(500, "IOException", e);
+    }
+  }
+
+  /**
+   * Execute the request and hand over the response without reading the body.
+   *
+   * <p>The caller is responsible for closing the response.
+   *
+   * @param request request
+   * @return the successful response; null if status code == 404
+   * @throws RgwAdminException if resp code != (200||404)
+   */
+  Response open(Request request) {
+    return guarded(() -> sendAndOpen(request));
+  }
+
+  private Response sendAndOpen(Request request) {
+    Response response = null;
+    try {
+      response = client.newCall(request).execute();
+      if (response.code() == 404) {
+        response.close();
+        return null;
+      }
+      if (!response.isSuccessful()) {
+        throw ErrorUtils.parseError(response);
+      }
+      return response;
+    } catch (IOException e) {
+      throw new RgwAdminException(500, "IOException", e);
+    } catch (RuntimeException e) {
+      if (response != null) {
+        response.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * The non-blocking flavor of {@link #execute(Request, boolean)}.
+   *
+   * <p>The request is enqueued to the dispatcher of the OkHttp client. Cancelling the returned
+   * future cancels the underlying call, unless the call is shared with other coalesced reads.
+   */
+  CompletableFuture<String> executeAsync(Request request, boolean notFoundAsNull) {
+    if (!coalesces(request)) {
+      return executeAsyncNow(request, notFoundAsNull);
+    }
+    Flight key = new Flight(request.url(), notFoundAsNull);
+    CompletableFuture<String> flight = new CompletableFuture<>();
+    CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+    if (existing == null) {
+      executeAsyncNow(request, notFoundAsNull)
+          .whenComplete(
+              (body, t) -> {
+                inFlight.remove(key, flight);
+                relay(body, t, flight);
+              });
+      existing = flight;
+    }
+    // A future of its own, so that a caller cancelling it does not fail the others.
+    CompletableFuture<String> future = new CompletableFuture<>();
+    existing.whenComplete((body, t) -> relay(body, t, future));
+    return future;
+  }
+
+  private static void relay(String body, Throwable t, CompletableFuture<String> to) {
+    if (t != null) {
+      to.completeExceptionally(t);
+    } else {
+      to.complete(body);
+    }
+  }
+
+  private boolean coalesces(Request request) {
+    return inFlight != null && Idempotency.isRead(request);
+  }
+
+  /*
+   * Run the request under the circuit breaker, if any.
+   */
+  private <T> T guarded(Supplier<T> call) {
+    if (breaker == null) {
+      return call.get();
+    }
+    long permit = breaker.acquire();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      T result = call.get();
+      failed = false;
+      return result;
+    } catch (RgwAdminException e) {
+      failed = isFailure(e);
+      throw e;
+    } finally {
+      breaker.record(permit, failed, System.nanoTime() - start);
+    }
+  }
+
+  /*
+   * Whether the failure tells that Radosgw is unhealthy, as opposed to a client error, e.g., 403.
+   */
+  private static boolean isFailure(Throwable t) {
+    return !(t instanceof RgwAdminException) || ((RgwAdminException) t).status() >= 500;
+  }
+
+  private CompletableFuture<String> executeAsyncNow(Request request, boolean notFoundAsNull) {
+    if (breaker == null) {
+      return sendAsync(request, notFoundAsNull);
+    }
+    long permit;
+    try {
+      permit = breaker.acquire();
+    } catch (CircuitOpenException e) {
+      CompletableFuture<String> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+    long start = System.nanoTime();
+    CompletableFuture<String> future = sendAsync(request, notFoundAsNull);
+    future.whenComplete(
+        (body, t) ->
+            breaker.record(
+                permit,
+                t != null && !future.isCancelled() && isFailure(t),
+                System.nanoTime() - start));
+    return future;
+  }
+
+  private CompletableFuture<String> sendAsync(Request request, boolean notFoundAsNull) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    Call call = client.newCall(request);
+    call.enqueue(
+        new Callback() {
+          @Override
+          public void onFailure(Call call, IOException e) {
+            future.completeExceptionally(new RgwAdminException(500, "IOException", e));
+          }
+
+          @Override
+          public void onResponse(Call call, Response response) {
+            try (Response r = response) {
+              future.complete(readBody(r, notFoundAsNull));
+            } catch (IOException e) {
+              future.completeExceptionally(new RgwAdminException(500, "IOException", e));
+            } catch (RuntimeException e) {
+              future.completeExceptionally(e);
+            }
+          }
+        });
+    future.whenComplete(
+        (r, t) -> {
+          if (future.isCancelled()) {
+            call.cancel();
+          }
+        });
+    return future;
+  }
+
+  private static final class Flight {
+
+    private final HttpUrl url;
+    private final boolean notFoundAsNull;
+
+    private Flight(HttpUrl url, boolean notFoundAsNull) {
+      this.url = url;
+      this.notFoundAsNull = notFoundAsNull;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Flight)) {
+        return false;
+      }
+      Flight flight = (Flight) o;
+      return notFoundAsNull == flight.notFoundAsNull && url.equals(flight.url);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(url, notFoundAsNull);
+    }
+  }
+}
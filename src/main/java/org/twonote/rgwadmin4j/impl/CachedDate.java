@@ -0,0 +1,51 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The current time formatted for a request header, recomputed at most once per second.
+ *
+ * <p>The formatted string has a resolution of one second, so all requests signed within the same
+ * second share it instead of formatting the time again. The cached value is immutable and
+ * published through a volatile field, a racing thread at worst formats the same second twice.
+ */
+final class CachedDate {
+
+  private final Clock clock;
+  private final DateTimeFormatter formatter;
+
+  private volatile Entry current;
+
+  /**
+   * @param clock     clock to read the current time from
+   * @param formatter formatter with a zone set, e.g., {@code withZone(ZoneOffset.UTC)}
+   */
+  CachedDate(Clock clock, DateTimeFormatter formatter) {
+    this.clock = clock;
+    this.formatter = formatter;
+  }
+
+  String now() {
+    Instant now = clock.instant();
+    long second = now.getEpochSecond();
+    Entry entry = current;
+    if (entry == null || entry.second != second) {
+      entry = new Entry(second, formatter.format(now));
+      current = entry;
+    }
+    return entry.text;
+  }
+
+  private static final class Entry {
+
+    private final long second;
+    private final String text;
+
+    private Entry(long second, String text) {
+      this.second = second;
+      this.text = text;
+    }
+  }
+}
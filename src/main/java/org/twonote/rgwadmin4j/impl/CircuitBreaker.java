@@ -0,0 +1,141 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Ticker;
+import org.twonote.rgwadmin4j.CircuitBreakerPolicy;
+
+/**
+ * The state machine of a circuit breaker following a {@link CircuitBreakerPolicy}.
+ *
+ * <p>Each request acquires a permit before it is sent, and records its outcome with the permit
+ * afterwards. Outcomes recorded with a permit acquired in a previous state are ignored, e.g., a
+ * slow request sent before the circuit opened does not count as a trial.
+ */
+final class CircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final CircuitBreakerPolicy policy;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final Ticker ticker;
+
+  /*
+   * All guarded by this. The outcomes of the recent requests in a ring while closed, of the trial
+   * requests while half-open.
+   */
+  private State state = State.CLOSED;
+  private long generation;
+  private long openedAt;
+  private final byte[] window;
+  private int size;
+  private int next;
+  private int failures;
+  private int slows;
+  private int permitted;
+
+  CircuitBreaker(CircuitBreakerPolicy policy) {
+    this(policy, Ticker.systemTicker());
+  }
+
+  CircuitBreaker(CircuitBreakerPolicy policy, Ticker ticker) {
+    this.policy = policy;
+    this.slowCallNanos = policy.getSlowCallDuration().toNanos();
+    this.openNanos = policy.getOpenDuration().toNanos();
+    this.ticker = ticker;
+    this.window = new byte[Math.max(policy.getWindowSize(), policy.getTrialCalls())];
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  /**
+   * Get a permit to send a request.
+   *
+   * @return The permit to record the outcome with.
+   * @throws CircuitOpenException if the request should not be sent.
+   */
+  synchronized long acquire() {
+    if (state == State.OPEN) {
+      if (ticker.read() - openedAt < openNanos) {
+        throw new CircuitOpenException();
+      }
+      transition(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (permitted >= policy.getTrialCalls()) {
+        throw new CircuitOpenException();
+      }
+      permitted++;
+    }
+    return generation;
+  }
+
+  /**
+   * Record the outcome of a request.
+   *
+   * @param permit       The permit the request was sent with.
+   * @param failed       Whether the request failed, i.e., with an I/O error or a 5xx response.
+   * @param elapsedNanos How long the request took.
+   */
+  synchronized void record(long permit, boolean failed, long elapsedNanos) {
+    if (permit != generation) {
+      return;
+    }
+    byte outcome = (byte) ((failed ? FAILED : 0) | (elapsedNanos >= slowCallNanos ? SLOW : 0));
+    if (state == State.CLOSED) {
+      if (size == policy.getWindowSize()) {
+        forget(window[next]);
+      } else {
+        size++;
+      }
+      window[next] = outcome;
+      next = (next + 1) % policy.getWindowSize();
+      count(outcome);
+      if (size >= policy.getMinimumCalls() && unhealthy()) {
+        transition(State.OPEN);
+      }
+    } else if (state == State.HALF_OPEN) {
+      size++;
+      count(outcome);
+      if (size == policy.getTrialCalls()) {
+        transition(unhealthy() ? State.OPEN : State.CLOSED);
+      }
+    }
+  }
+
+  private void count(byte outcome) {
+    failures += outcome & FAILED;
+    slows += (outcome & SLOW) >> 1;
+  }
+
+  private void forget(byte outcome) {
+    failures -= outcome & FAILED;
+    slows -= (outcome & SLOW) >> 1;
+  }
+
+  private boolean unhealthy() {
+    return failures >= policy.getFailureRateThreshold() * size
+        || slows >= policy.getSlowCallRateThreshold() * size;
+  }
+
+  private void transition(State to) {
+    state = to;
+    generation++;
+    size = 0;
+    next = 0;
+    failures = 0;
+    slows = 0;
+    permitted = 0;
+    if (to == State.OPEN) {
+      openedAt = ticker.read();
+    }
+  }
+}
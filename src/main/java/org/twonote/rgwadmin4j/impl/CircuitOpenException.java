@@ -0,0 +1,16 @@
+package org.twonote.rgwadmin4j.impl;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker considers Radosgw unhealthy, see
+ * {@link org.twonote.rgwadmin4j.CircuitBreakerPolicy}.
+ *
+ * <p>The request was not sent, so it is safe to retry it later.
+ */
+public class CircuitOpenException extends RgwAdminException {
+
+  private static final long serialVersionUID = 1L;
+
+  public CircuitOpenException() {
+    super(503, "CircuitOpen");
+  }
+}
@@ -0,0 +1,138 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import org.twonote.rgwadmin4j.ListOptions;
+
+/**
+ * Issues one request per key with at most {@link ListOptions#getParallelism()} of them in flight.
+ *
+ * <p>The results keep the order of the keys. A {@code null} result, e.g., the item is removed
+ * between listing and fetching, is left out. Failed keys are either reported to {@link
+ * ListOptions#getFailureHandler()} or abort the whole operation, in which case no more requests
+ * are issued. Cancelling the returned future cancels the requests in flight and issues no more.
+ */
+final class FanOut<V> {
+
+  private final List<String> keys;
+  private final Function<String, CompletableFuture<V>> call;
+  private final ListOptions options;
+
+  private final AtomicReferenceArray<V> results;
+  private final AtomicReferenceArray<CompletableFuture<V>> calls;
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicInteger remaining;
+  private final AtomicBoolean aborted = new AtomicBoolean();
+  private final CompletableFuture<List<V>> done = new CompletableFuture<>();
+
+  private FanOut(
+      List<String> keys, Function<String, CompletableFuture<V>> call, ListOptions options) {
+    this.keys = keys;
+    this.call = call;
+    this.options = options;
+    this.results = new AtomicReferenceArray<>(keys.size());
+    this.calls = new AtomicReferenceArray<>(keys.size());
+    this.remaining = new AtomicInteger(keys.size());
+  }
+
+  static <V> CompletableFuture<List<V>> run(
+      List<String> keys, Function<String, CompletableFuture<V>> call, ListOptions options) {
+    FanOut<V> fanOut = new FanOut<>(keys, call, options);
+    if (keys.isEmpty()) {
+      fanOut.done.complete(new ArrayList<>());
+    }
+    fanOut.done.whenComplete(
+        (list, t) -> {
+          if (fanOut.done.isCancelled()) {
+            fanOut.cancel();
+          }
+        });
+    for (int i = 0; i < Math.min(options.getParallelism(), keys.size()); i++) {
+      fanOut.pump();
+    }
+    return fanOut.done;
+  }
+
+  private void pump() {
+    while (!aborted.get()) {
+      int i = next.getAndIncrement();
+      if (i >= keys.size()) {
+        return;
+      }
+      CompletableFuture<V> future = issue(keys.get(i));
+      calls.set(i, future);
+      if (done.isCancelled()) {
+        // Cancelled while issuing, after cancel() looked at the calls.
+        future.cancel(true);
+        return;
+      }
+      if (future.isDone()) {
+        // Loop instead of recursion to keep the stack flat when calls complete immediately.
+        complete(i, future);
+        continue;
+      }
+      future.whenComplete((v, t) -> {
+        complete(i, future);
+        pump();
+      });
+      return;
+    }
+  }
+
+  private CompletableFuture<V> issue(String key) {
+    try {
+      return call.apply(key);
+    } catch (RuntimeException e) {
+      CompletableFuture<V> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  private void cancel() {
+    aborted.set(true);
+    for (int i = 0; i < calls.length(); i++) {
+      CompletableFuture<V> call = calls.get(i);
+      if (call != null) {
+        call.cancel(true);
+      }
+    }
+  }
+
+  private void complete(int i, CompletableFuture<V> future) {
+    if (done.isCancelled()) {
+      return;
+    }
+    try {
+      results.set(i, future.join());
+    } catch (CompletionException | CancellationException e) {
+      RuntimeException cause =
+          e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      if (options.getFailureHandler() == null) {
+        if (aborted.compareAndSet(false, true)) {
+          done.completeExceptionally(cause);
+        }
+        return;
+      }
+      options.getFailureHandler().accept(keys.get(i), cause);
+    }
+
+    if (remaining.decrementAndGet() == 0 && !aborted.get()) {
+      List<V> list = new ArrayList<>(keys.size());
+      for (int j = 0; j < results.length(); j++) {
+        V v = results.get(j);
+        if (v != null) {
+          list.add(v);
+        }
+      }
+      done.complete(list);
+    }
+  }
+}
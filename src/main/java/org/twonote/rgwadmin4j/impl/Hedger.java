@@ -0,0 +1,202 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.twonote.rgwadmin4j.impl.LoadBalancer.Placement;
+
+/**
+ * Executes reads with hedging: if a read is not answered within a delay, a duplicate is sent,
+ * preferably to another endpoint, and the first success wins. The loser is cancelled.
+ *
+ * <p>The delay is either fixed, or the given percentile of the latencies of recent reads, but no
+ * less than the given minimum. The latency of a read is the time to its first success, whichever
+ * request won, so that the hedged reads keep the slow tail in the sample. Hedging at the 95th
+ * percentile costs about 5% more requests and cuts the tail caused by a slow endpoint.
+ *
+ * <p>The first request is executed by the calling thread, the duplicate is enqueued to the
+ * dispatcher of the HTTP client.
+ */
+final class Hedger {
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("rgwadmin4j-hedge-timer-%d")
+              .setDaemon(true)
+              .build());
+
+  /*
+   * The number of recent latencies the percentile is computed from, and how often it is.
+   */
+  private static final int WINDOW = 512;
+  private static final int RECOMPUTE_EVERY = 64;
+
+  private final OkHttpClient client;
+  private final long minDelayNanos;
+  private final double percentile;
+
+  private final long[] latencies = new long[WINDOW];
+  private final AtomicInteger samples = new AtomicInteger();
+  private volatile long delayNanos;
+
+  /**
+   * @param minDelay   The delay, or its lower bound if a percentile is given.
+   * @param percentile The percentile of the latency to hedge at, e.g., 0.95; 0 for a fixed delay.
+   */
+  Hedger(OkHttpClient client, Duration minDelay, double percentile) {
+    if (percentile < 0 || percentile >= 1) {
+      throw new IllegalArgumentException("percentile should be in [0, 1)");
+    }
+    this.client = client;
+    this.minDelayNanos = minDelay.toNanos();
+    this.percentile = percentile;
+    this.delayNanos = minDelayNanos;
+  }
+
+  long delayNanos() {
+    return delayNanos;
+  }
+
+  void record(long latencyNanos) {
+    if (percentile == 0) {
+      return;
+    }
+    int n = samples.getAndIncrement();
+    // Racy writes may lose a sample, which does not matter.
+    latencies[n % WINDOW] = latencyNanos;
+    if ((n + 1) % RECOMPUTE_EVERY == 0) {
+      long[] sorted = Arrays.copyOf(latencies, Math.min(n + 1, WINDOW));
+      Arrays.sort(sorted);
+      long observed = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+      delayNanos = Math.max(minDelayNanos, observed);
+    }
+  }
+
+  /**
+   * Same as {@link AdminTransport#execute(Request, boolean)}, with hedging.
+   */
+  String execute(Request request, boolean notFoundAsNull) {
+    Placement placement = new Placement();
+    Call primary = client.newCall(request.newBuilder().tag(Placement.class, placement).build());
+    Hedge hedge = new Hedge(request.newBuilder(), placement, primary, notFoundAsNull);
+    try (Response response = primary.execute()) {
+      String body = AdminTransport.readBody(response, notFoundAsNull);
+      hedge.succeeded();
+      return body;
+    } catch (IOException e) {
+      return hedge.orElseThrow(new RgwAdminException(500, "IOException", e));
+    } catch (RgwAdminException e) {
+      return hedge.orElseThrow(e);
+    } finally {
+      hedge.finish();
+    }
+  }
+
+  private final class Hedge implements Callback {
+
+    private final Request.Builder request;
+    private final Placement primaryPlacement;
+    private final Call primary;
+    private final boolean notFoundAsNull;
+
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private final long start = System.nanoTime();
+    private final AtomicBoolean succeeded = new AtomicBoolean();
+    private final ScheduledFuture<?> timeout;
+
+    /*
+     * Guarded by this.
+     */
+    private Call secondary;
+    private boolean finished;
+
+    private Hedge(
+        Request.Builder request, Placement primaryPlacement, Call primary, boolean notFoundAsNull) {
+      this.request = request;
+      this.primaryPlacement = primaryPlacement;
+      this.primary = primary;
+      this.notFoundAsNull = notFoundAsNull;
+      this.timeout = timer.schedule(this::start, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void start() {
+      if (finished) {
+        return;
+      }
+      secondary =
+          client.newCall(request.tag(Placement.class, primaryPlacement.elsewhere()).build());
+      secondary.enqueue(this);
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+      result.completeExceptionally(e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) {
+      try (Response r = response) {
+        result.complete(AdminTransport.readBody(r, notFoundAsNull));
+        succeeded();
+        primary.cancel();
+      } catch (IOException | RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    /*
+     * Record the latency of the read, once, when either request succeeds.
+     */
+    private void succeeded() {
+      if (succeeded.compareAndSet(false, true)) {
+        record(System.nanoTime() - start);
+      }
+    }
+
+    /**
+     * The result of the duplicate if the first request failed, which is the case if the duplicate
+     * won and cancelled it.
+     */
+    private String orElseThrow(RgwAdminException primaryFailure) {
+      synchronized (this) {
+        if (secondary == null) {
+          throw primaryFailure;
+        }
+      }
+      try {
+        return result.get();
+      } catch (ExecutionException e) {
+        // Report the duplicate only if it saw a proper error response.
+        Throwables.throwIfInstanceOf(e.getCause(), RgwAdminException.class);
+        throw primaryFailure;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw primaryFailure;
+      }
+    }
+
+    private synchronized void finish() {
+      finished = true;
+      timeout.cancel(false);
+      if (secondary != null) {
+        secondary.cancel();
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package org.twonote.rgwadmin4j.impl;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import org.twonote.rgwadmin4j.RgwAdminConfig;
+
+/**
+ * Assembles the HTTP client of the admin API from the configuration.
+ */
+final class HttpClientFactory {
+
+  private HttpClientFactory() {
+  }
+
+  static OkHttpClient create(RgwAdminConfig config) {
+    OkHttpClient.Builder builder = config.getHttpClient().newBuilder();
+    // The interceptors run in the order they are added: each request is measured as a whole,
+    // each attempt is throttled, placed on an endpoint, and then signed for it.
+    OperationNames names = new OperationNames(HttpUrl.get(config.getEndpoint()));
+    if (config.getMetricsListener() != null) {
+      builder.addInterceptor(new MetricsInterceptor(config.getMetricsListener(), names));
+    }
+    if (config.getRetryPolicy().getMaxAttempts() > 1) {
+      builder.addInterceptor(
+          new RetryInterceptor(config.getRetryPolicy(), config.getMetricsListener(), names));
+    }
+    if (!config.getRateLimits().isEmpty() || !config.getConcurrencyLimits().isEmpty()) {
+      builder.addInterceptor(
+          new Throttle(config.getRateLimits(), config.getConcurrencyLimits()));
+    }
+    if (config.getEndpoints().size() > 1) {
+      // Sign the request for the chosen endpoint.
+      builder.addInterceptor(
+          new LoadBalancer(
+              config.getEndpoints(),
+              config.getLoadBalancing(),
+              config.getEjectionThreshold(),
+              config.getEjectionTime()));
+    }
+    return builder.addInterceptor(signer(config)).build();
+  }
+
+  private static Interceptor signer(RgwAdminConfig config) {
+    switch (config.getSignatureVersion()) {
+      case V4:
+        return new S3AuthV4(config.getAccessKey(), config.getSecretKey(), config.getRegion());
+      case V2:
+      default:
+        return new S3Auth(config.getAccessKey(), config.getSecretKey());
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.twonote.rgwadmin4j.impl;
+
+import okhttp3.Request;
+
+/**
+ * Whether an admin request has the same effect if sent more than once, i.e., whether it is safe to
+ * retry it.
+ *
+ * <p>Requests are classified by their method: POST, which modifies users, is not idempotent,
+ * others are. {@link AdminRequests} tags the exceptions, e.g., a PUT which generates a key, or a
+ * GET which fixes the bucket index.
+ */
+enum Idempotency {
+  IDEMPOTENT,
+  NOT_IDEMPOTENT;
+
+  static Idempotency of(Request request) {
+    Idempotency tagged = request.tag(Idempotency.class);
+    if (tagged != null) {
+      return tagged;
+    }
+    return "POST".equals(request.method()) ? NOT_IDEMPOTENT : IDEMPOTENT;
+  }
+
+  /**
+   * Whether the request only reads, so that it may be sent twice at once, or answered by an
+   * identical request in flight.
+   */
+  static boolean isRead(Request request) {
+    return "GET".equals(request.method()) && of(request) == IDEMPOTENT;
+  }
+}
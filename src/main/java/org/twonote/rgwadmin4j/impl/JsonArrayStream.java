@@ -0,0 +1,77 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import okhttp3.Response;
+
+/**
+ * Reads the elements of a JSON array response body one at a time.
+ *
+ * <p>The body is decoded from the socket as the stream is consumed, so the memory footprint does
+ * not grow with the size of the response. Closing the stream closes the response.
+ */
+final class JsonArrayStream {
+
+  private static final Gson gson = new Gson();
+
+  private JsonArrayStream() {
+  }
+
+  /**
+   * @param response A successful response whose body is a JSON array, or null for an empty
+   *                 stream.
+   * @param type     The element type.
+   */
+  static <T> Stream<T> of(Response response, Class<T> type) {
+    if (response == null) {
+      return Stream.empty();
+    }
+    JsonReader reader = new JsonReader(response.body().charStream());
+    Iterator<T> iterator =
+        new Iterator<T>() {
+          private boolean started;
+
+          @Override
+          public boolean hasNext() {
+            try {
+              if (!started) {
+                started = true;
+                if (reader.peek() == JsonToken.END_DOCUMENT) {
+                  return false;
+                }
+                reader.beginArray();
+              }
+              return reader.hasNext();
+            } catch (IOException | IllegalStateException e) {
+              throw new RgwAdminException(500, "IOException", e);
+            }
+          }
+
+          @Override
+          public T next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            try {
+              return gson.fromJson(reader, type);
+            } catch (JsonParseException e) {
+              throw new RgwAdminException(500, "IOException", e);
+            }
+          }
+        };
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(response::close);
+  }
+}
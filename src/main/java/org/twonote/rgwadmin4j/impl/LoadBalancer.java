@@ -0,0 +1,231 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Ticker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.twonote.rgwadmin4j.LoadBalancing;
+
+/**
+ * Sends each request to one of multiple equivalent Radosgw endpoints.
+ *
+ * <p>The requests are built against the first endpoint, this interceptor moves them to the chosen
+ * one, so it should run before the signer. An endpoint which fails the given number of requests
+ * in a row, i.e., with an I/O error or a 5xx response, is ejected for the given time. After that,
+ * the next request sent to it decides whether it is back or ejected again. If all endpoints are
+ * ejected, the one to come back first is used.
+ */
+final class LoadBalancer implements Interceptor {
+
+  /*
+   * The weight of the latest sample in the moving average of the latency.
+   */
+  private static final double EWMA_ALPHA = 0.3;
+
+  private final Node[] nodes;
+  private final LoadBalancing strategy;
+  private final int ejectionThreshold;
+  private final long ejectionNanos;
+  private final Ticker ticker;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  LoadBalancer(
+      List<String> endpoints, LoadBalancing strategy, int ejectionThreshold, Duration ejection) {
+    this(endpoints, strategy, ejectionThreshold, ejection, Ticker.systemTicker());
+  }
+
+  LoadBalancer(
+      List<String> endpoints,
+      LoadBalancing strategy,
+      int ejectionThreshold,
+      Duration ejection,
+      Ticker ticker) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("endpoints should not be empty");
+    }
+    this.nodes = new Node[endpoints.size()];
+    for (int i = 0; i < nodes.length; i++) {
+      HttpUrl base = HttpUrl.parse(endpoints.get(i));
+      if (base == null) {
+        throw new IllegalArgumentException("endpoint is invalid");
+      }
+      nodes[i] = new Node(base);
+    }
+    this.strategy = strategy;
+    this.ejectionThreshold = ejectionThreshold;
+    this.ejectionNanos = ejection.toNanos();
+    this.ticker = ticker;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    Placement placement = request.tag(Placement.class);
+    int index = select(placement != null ? placement.avoid : -1);
+    if (placement != null) {
+      placement.chosen = index;
+    }
+    Node node = nodes[index];
+    if (node != nodes[0]) {
+      request = request.newBuilder().url(node.rebase(request.url(), nodes[0])).build();
+    }
+    node.outstanding.incrementAndGet();
+    long start = ticker.read();
+    try {
+      Response response = chain.proceed(request);
+      record(node, response.code() < 500, ticker.read() - start);
+      return response;
+    } catch (IOException e) {
+      // A cancelled call, e.g., the loser of a hedged request, says nothing about the endpoint.
+      if (!chain.call().isCanceled()) {
+        record(node, false, ticker.read() - start);
+      }
+      throw e;
+    } finally {
+      node.outstanding.decrementAndGet();
+    }
+  }
+
+  private void record(Node node, boolean success, long elapsedNanos) {
+    if (success) {
+      node.consecutiveFailures.set(0);
+      node.ewmaNanos =
+          node.ewmaNanos == 0
+              ? elapsedNanos
+              : EWMA_ALPHA * elapsedNanos + (1 - EWMA_ALPHA) * node.ewmaNanos;
+    } else if (node.consecutiveFailures.incrementAndGet() >= ejectionThreshold) {
+      node.ejectedUntil = ticker.read() + ejectionNanos;
+    }
+  }
+
+  /*
+   * Index of the node to send to, other than the given one if possible.
+   */
+  private int select(int avoid) {
+    long now = ticker.read();
+    // Rotate the starting point, so that ties are broken in turn. Steered requests do not take a
+    // turn, so that they do not skew the rotation.
+    int start = Math.floorMod(avoid >= 0 ? next.get() : next.getAndIncrement(), nodes.length);
+    int best = -1;
+    double bestScore = Double.MAX_VALUE;
+    for (int i = 0; i < nodes.length; i++) {
+      int index = (start + i) % nodes.length;
+      Node node = nodes[index];
+      if (index == avoid || node.ejectedUntil - now > 0) {
+        continue;
+      }
+      if (strategy == LoadBalancing.ROUND_ROBIN) {
+        return index;
+      }
+      double score = score(node);
+      if (score < bestScore) {
+        best = index;
+        bestScore = score;
+      }
+    }
+    if (best >= 0) {
+      return best;
+    }
+    for (int index = 0; index < nodes.length; index++) {
+      if (best < 0 || nodes[index].ejectedUntil - nodes[best].ejectedUntil < 0) {
+        best = index;
+      }
+    }
+    return best;
+  }
+
+  private double score(Node node) {
+    int outstanding = node.outstanding.get();
+    if (strategy == LoadBalancing.LATENCY_EWMA) {
+      // Unmeasured endpoints score 0, so each of them is tried soon.
+      return node.ewmaNanos * (outstanding + 1);
+    }
+    return outstanding;
+  }
+
+  /**
+   * The number of endpoints which are not ejected.
+   */
+  int available() {
+    long now = ticker.read();
+    int available = 0;
+    for (Node node : nodes) {
+      if (node.ejectedUntil - now <= 0) {
+        available++;
+      }
+    }
+    return available;
+  }
+
+  /**
+   * Tag of a request to learn the endpoint chosen for it, or to steer it away from one, e.g., to
+   * send a hedged request elsewhere.
+   */
+  static final class Placement {
+
+    private final int avoid;
+    private volatile int chosen = -1;
+
+    Placement() {
+      this(-1);
+    }
+
+    private Placement(int avoid) {
+      this.avoid = avoid;
+    }
+
+    /**
+     * A placement avoiding the endpoint chosen for this one, if any.
+     */
+    Placement elsewhere() {
+      return new Placement(chosen);
+    }
+  }
+
+  private static final class Node {
+
+    private final HttpUrl base;
+    private final List<String> basePath;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    /*
+     * Updated without synchronization; a lost sample does not matter.
+     */
+    private volatile double ewmaNanos;
+    private volatile long ejectedUntil;
+
+    private Node(HttpUrl base) {
+      this.base = base;
+      this.basePath = pathOf(base);
+      // Not ejected, whatever the origin of the ticker is.
+      this.ejectedUntil = Long.MIN_VALUE / 2;
+    }
+
+    private static List<String> pathOf(HttpUrl url) {
+      List<String> path = url.encodedPathSegments();
+      return path.get(path.size() - 1).isEmpty() ? path.subList(0, path.size() - 1) : path;
+    }
+
+    /**
+     * Move the URL built against the given endpoint to this one.
+     */
+    private HttpUrl rebase(HttpUrl url, Node from) {
+      HttpUrl.Builder builder =
+          url.newBuilder().scheme(base.scheme()).host(base.host()).port(base.port());
+      if (!basePath.equals(from.basePath)) {
+        List<String> path = url.encodedPathSegments();
+        builder.encodedPath("/");
+        basePath.forEach(builder::addEncodedPathSegment);
+        path.subList(from.basePath.size(), path.size()).forEach(builder::addEncodedPathSegment);
+      }
+      return builder.build();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.twonote.rgwadmin4j.metrics.MetricsListener;
+import org.twonote.rgwadmin4j.metrics.RequestMetrics;
+
+/**
+ * Reports the requests to a {@link MetricsListener}.
+ *
+ * <p>A request completes once its response body is closed, so that the latency and the bytes
+ * received cover reading the body. It should run first, so that retries are part of the request.
+ */
+final class MetricsInterceptor implements Interceptor {
+
+  private final MetricsListener listener;
+  private final OperationNames names;
+
+  MetricsInterceptor(MetricsListener listener, OperationNames names) {
+    this.listener = listener;
+    this.names = names;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    String operation = names.of(request.url());
+    String method = request.method();
+    listener.requestStarted(operation, method);
+    long start = System.nanoTime();
+    Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      listener.requestCompleted(
+          new RequestMetrics(operation, method, 0, System.nanoTime() - start, 0, e));
+      throw e;
+    }
+    ResponseBody body = response.body();
+    Measured measured = new Measured(operation, method, response.code(), start);
+    if (body == null) {
+      measured.complete();
+      return response;
+    }
+    return response.newBuilder().body(new MeasuredBody(body, measured)).build();
+  }
+
+  private final class Measured {
+
+    private final String operation;
+    private final String method;
+    private final int status;
+    private final long start;
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private long bytesReceived;
+    private IOException failure;
+
+    private Measured(String operation, String method, int status, long start) {
+      this.operation = operation;
+      this.method = method;
+      this.status = status;
+      this.start = start;
+    }
+
+    private void complete() {
+      if (completed.compareAndSet(false, true)) {
+        listener.requestCompleted(
+            new RequestMetrics(
+                operation, method, status, System.nanoTime() - start, bytesReceived, failure));
+      }
+    }
+  }
+
+  private static final class MeasuredBody extends ResponseBody {
+
+    private final ResponseBody delegate;
+    private final BufferedSource source;
+
+    private MeasuredBody(ResponseBody delegate, Measured measured) {
+      this.delegate = delegate;
+      this.source =
+          Okio.buffer(
+              new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                  try {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                      measured.bytesReceived += read;
+                    }
+                    return read;
+                  } catch (IOException e) {
+                    measured.failure = e;
+                    throw e;
+                  }
+                }
+
+                @Override
+                public void close() throws IOException {
+                  try {
+                    super.close();
+                  } finally {
+                    measured.complete();
+                  }
+                }
+              });
+    }
+
+    @Override
+    public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+      return delegate.contentLength();
+    }
+
+    @Override
+    public BufferedSource source() {
+      return source;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.util.List;
+import okhttp3.HttpUrl;
+
+/**
+ * Names the admin requests for {@link org.twonote.rgwadmin4j.metrics.MetricsListener}, e.g.,
+ * {@code user} for /admin/user?uid=u or {@code user.quota} for /admin/user?quota&amp;uid=u.
+ */
+final class OperationNames {
+
+  private final int basePathSize;
+
+  /**
+   * @param endpoint The endpoint the requests are built against.
+   */
+  OperationNames(HttpUrl endpoint) {
+    List<String> path = endpoint.pathSegments();
+    this.basePathSize = path.get(path.size() - 1).isEmpty() ? path.size() - 1 : path.size();
+  }
+
+  String of(HttpUrl url) {
+    List<String> path = url.pathSegments();
+    if (path.size() <= basePathSize) {
+      return "";
+    }
+    String resource = path.get(basePathSize);
+    // The sub-resource is the leading query parameter without a value, e.g., ?quota&uid=u
+    if (url.querySize() > 0 && url.queryParameterValue(0) == null) {
+      return resource + "." + url.queryParameterName(0);
+    }
+    return resource;
+  }
+}
@@ -0,0 +1,57 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.twonote.rgwadmin4j.model.MetadataPage;
+
+/**
+ * Iterates metadata keys page by page, following the marker of the previous page.
+ *
+ * <p>A page is requested only when the keys of the previous one are consumed, so at most one page
+ * is held in memory. Each call of {@link #iterator()} starts over from the first page.
+ */
+final class PagedKeys implements Iterable<String> {
+
+  private final BiFunction<String, Integer, MetadataPage> pageFetcher;
+  private final int pageSize;
+
+  PagedKeys(BiFunction<String, Integer, MetadataPage> pageFetcher, int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize should be positive");
+    }
+    this.pageFetcher = pageFetcher;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private Iterator<String> keys = Collections.emptyIterator();
+      private String marker;
+      private boolean exhausted;
+
+      @Override
+      public boolean hasNext() {
+        while (!keys.hasNext() && !exhausted) {
+          MetadataPage page = pageFetcher.apply(marker, pageSize);
+          if (page.getKeys() != null) {
+            keys = page.getKeys().iterator();
+          }
+          marker = page.getMarker();
+          exhausted = !page.isTruncated() || marker == null;
+        }
+        return keys.hasNext();
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return keys.next();
+      }
+    };
+  }
+}
@@ -0,0 +1,113 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.twonote.rgwadmin4j.RetryPolicy;
+import org.twonote.rgwadmin4j.metrics.MetricsListener;
+
+/**
+ * Retries failed idempotent requests as told by a {@link RetryPolicy}.
+ *
+ * <p>The backoff sleeps in the calling thread, which is a dispatcher thread for asynchronous
+ * calls. The call timeout, if any, covers all attempts. It should run before the load balancer,
+ * so that a retry may go to another endpoint.
+ */
+final class RetryInterceptor implements Interceptor {
+
+  /*
+   * The budget is counted in thousandths of a retry.
+   */
+  private static final long RETRY = 1000;
+
+  private final RetryPolicy policy;
+  private final MetricsListener listener;
+  private final OperationNames names;
+  private final long deposit;
+  private final long maxBudget;
+  private final AtomicLong budget;
+
+  RetryInterceptor(RetryPolicy policy, MetricsListener listener, OperationNames names) {
+    this.policy = policy;
+    this.listener = listener;
+    this.names = names;
+    this.deposit = Math.round(policy.getBudgetRatio() * RETRY);
+    this.maxBudget = policy.getMaxBudget() * RETRY;
+    this.budget = new AtomicLong(maxBudget);
+  }
+
+  static boolean isRetryable(int code) {
+    switch (code) {
+      case 429:
+      case 500:
+      case 502:
+      case 503:
+      case 504:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    budget.accumulateAndGet(deposit, (b, d) -> Math.min(maxBudget, b + d));
+    int maxAttempts =
+        Idempotency.of(request) == Idempotency.IDEMPOTENT ? policy.getMaxAttempts() : 1;
+    for (int attempt = 1; ; attempt++) {
+      boolean last = attempt >= maxAttempts;
+      Response response;
+      try {
+        response = chain.proceed(request);
+      } catch (IOException e) {
+        if (last || chain.call().isCanceled() || !withdraw()) {
+          throw e;
+        }
+        backoff(request, attempt);
+        continue;
+      }
+      if (last || !isRetryable(response.code()) || !withdraw()) {
+        return response;
+      }
+      response.close();
+      backoff(request, attempt);
+    }
+  }
+
+  private boolean withdraw() {
+    while (true) {
+      long b = budget.get();
+      if (b < RETRY) {
+        return false;
+      }
+      if (budget.compareAndSet(b, b - RETRY)) {
+        return true;
+      }
+    }
+  }
+
+  private void backoff(Request request, int attempt) throws InterruptedIOException {
+    if (listener != null) {
+      listener.requestRetried(names.of(request.url()), request.method(), attempt + 1);
+    }
+    long cap = policy.getInitialBackoff().toNanos() << Math.min(attempt - 1, 30);
+    if (cap < 0 || cap > policy.getMaxBackoff().toNanos()) {
+      cap = policy.getMaxBackoff().toNanos();
+    }
+    if (cap == 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while backing off");
+    }
+  }
+}
@@ -0,0 +1,592 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.absSubUserId;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.capListType;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.filterByUserId;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.gson;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.parseBucketInfo;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.parseMetadata;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.requireUser;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.setModelAndGetCorrespondingList2;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.stringListType;
+import static org.twonote.rgwadmin4j.impl.RgwAdminImpl.subUserListType;
+
+import com.google.common.collect.ImmutableMap;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import okhttp3.Dispatcher;
+import okhttp3.Request;
+import org.twonote.rgwadmin4j.ListOptions;
+import org.twonote.rgwadmin4j.RgwAdminConfig;
+import org.twonote.rgwadmin4j.RgwAdminAsync;
+import org.twonote.rgwadmin4j.impl.RgwAdminImpl.MetadataType;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.Cap;
+import org.twonote.rgwadmin4j.model.ClusterInfo;
+import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
+import org.twonote.rgwadmin4j.model.Quota;
+import org.twonote.rgwadmin4j.model.S3Credential;
+import org.twonote.rgwadmin4j.model.SubUser;
+import org.twonote.rgwadmin4j.model.SwiftCredential;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * Radosgw administrator implementation, the non-blocking flavor.
+ *
+ * <p>Requests are enqueued to the dispatcher of the OkHttp client rather than executed on the
+ * calling thread, so the number of in-flight operations is not bound to the number of threads.
+ */
+public class RgwAdminAsyncImpl implements RgwAdminAsync {
+
+  private final AdminRequests requests;
+  private final AdminTransport transport;
+  private final Dispatcher dispatcher;
+
+  /**
+   * Create a non-blocking Radosgw administrator implementation
+   *
+   * @param accessKey Access key of the admin who have proper administrative capabilities.
+   * @param secretKey Secret key of the admin who have proper administrative capabilities.
+   * @param endpoint  Radosgw admin API endpoint, e.g., http://127.0.0.1:80/admin
+   */
+  public RgwAdminAsyncImpl(String accessKey, String secretKey, String endpoint) {
+    this(new RgwAdminConfig(accessKey, secretKey, endpoint));
+  }
+
+  /**
+   * Create a non-blocking Radosgw administrator implementation
+   *
+   * @param config The client settings, see {@link org.twonote.rgwadmin4j.RgwAdminBuilder}
+   */
+  public RgwAdminAsyncImpl(RgwAdminConfig config) {
+    this.requests = new AdminRequests(config.getEndpoint());
+    this.transport = AdminTransport.create(config);
+    this.dispatcher = config.getHttpClient().dispatcher();
+  }
+
+  private CompletableFuture<String> safeCall(Request request) {
+    return transport.executeAsync(request, true);
+  }
+
+  private CompletableFuture<String> call(Request request) {
+    return transport.executeAsync(request, false);
+  }
+
+  /*
+   * Like thenApply, except that cancelling the returned future cancels the source, and so the HTTP
+   * call under it. A bare thenApply would leave the call running to completion.
+   */
+  private static <T, R> CompletableFuture<R> transform(
+      CompletableFuture<T> source, Function<? super T, ? extends R> function) {
+    CompletableFuture<R> future = source.thenApply(function);
+    cancelOnCancel(future, source);
+    return future;
+  }
+
+  /*
+   * Like thenCompose, except that cancelling the returned future cancels the source, or the future
+   * of the function if the source is already done.
+   */
+  private static <T, R> CompletableFuture<R> transformAsync(
+      CompletableFuture<T> source, Function<? super T, CompletableFuture<R>> function) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    source.whenComplete(
+        (value, t) -> {
+          if (t != null) {
+            future.completeExceptionally(t);
+            return;
+          }
+          CompletableFuture<R> next;
+          try {
+            next = function.apply(value);
+          } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+          }
+          cancelOnCancel(future, next);
+          next.whenComplete(
+              (result, e) -> {
+                if (e != null) {
+                  future.completeExceptionally(e);
+                } else {
+                  future.complete(result);
+                }
+              });
+        });
+    cancelOnCancel(future, source);
+    return future;
+  }
+
+  private static void cancelOnCancel(CompletableFuture<?> future, CompletableFuture<?> source) {
+    future.whenComplete(
+        (r, t) -> {
+          if (future.isCancelled()) {
+            source.cancel(true);
+          }
+        });
+  }
+
+  @Override
+  public CompletableFuture<Void> trimUserUsage(String userId, Map<String, String> parameters) {
+    Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
+    params.put("uid", userId);
+    return trimUsage(params);
+  }
+
+  @Override
+  public CompletableFuture<Void> trimUsage(Map<String, String> parameters) {
+    Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
+    params.put("remove-all", "True");
+    return transform(safeCall(requests.trimUsage(params)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<UsageInfo>> getUserUsage(String userId) {
+    return getUserUsage(userId, null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<UsageInfo>> getUserUsage(
+      String userId, Map<String, String> parameters) {
+    Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
+    params.put("uid", userId);
+    return getUsage(params);
+  }
+
+  @Override
+  public CompletableFuture<Optional<UsageInfo>> getUsage() {
+    return getUsage(null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<UsageInfo>> getUsage(Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.getUsage(parameters)),
+        resp -> Optional.ofNullable(gson.fromJson(resp, UsageInfo.class)));
+  }
+
+  @Override
+  public CompletableFuture<List<Cap>> addUserCapability(String userId, List<Cap> userCaps) {
+    return transform(
+        safeCall(requests.addUserCapability(userId, userCaps)),
+        resp -> gson.fromJson(resp, capListType));
+  }
+
+  @Override
+  public CompletableFuture<List<Cap>> removeUserCapability(String userId, List<Cap> userCaps) {
+    return transform(
+        safeCall(requests.removeUserCapability(userId, userCaps)),
+        resp -> gson.fromJson(resp, capListType));
+  }
+
+  @Override
+  public CompletableFuture<List<SubUser>> createSubUser(
+      String userId, String subUserId, Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.createSubUser(userId, subUserId, parameters)),
+        resp -> gson.fromJson(resp, subUserListType));
+  }
+
+  @Override
+  public CompletableFuture<SubUser> createSubUser(
+      String userId,
+      String subUserId,
+      SubUser.Permission permission,
+      CredentialType credentialType) {
+    String absSubUserId = absSubUserId(userId, subUserId);
+    return transform(
+        createSubUser(
+            userId,
+            subUserId,
+            ImmutableMap.of(
+                "access",
+                permission.toString(),
+                "key-type",
+                credentialType.toString(),
+                "generate-secret",
+                "True")),
+        subUsers ->
+            subUsers.stream().filter(u -> absSubUserId.equals(u.getId())).findFirst().get());
+  }
+
+  @Override
+  public CompletableFuture<List<SubUser>> setSubUserPermission(
+      String userId, String subUserId, SubUser.Permission permission) {
+    return transform(
+        safeCall(
+            requests.modifySubUser(
+                userId, subUserId, ImmutableMap.of("access", permission.toString()))),
+        resp -> gson.fromJson(resp, subUserListType));
+  }
+
+  @Override
+  public CompletableFuture<List<SubUser>> listSubUserInfo(String userId) {
+    return transform(
+        getUserInfo(userId), userInfo -> userInfo.map(User::getSubusers).orElseGet(ArrayList::new));
+  }
+
+  @Override
+  public CompletableFuture<Optional<SubUser>> getSubUserInfo(String userId, String subUserId) {
+    String absSubUserId = absSubUserId(userId, subUserId);
+    return transform(
+        listSubUserInfo(userId),
+        subUsers -> subUsers.stream().filter(u -> absSubUserId.equals(u.getId())).findFirst());
+  }
+
+  @Override
+  public CompletableFuture<Void> removeSubUser(String userId, String subUserId) {
+    return transform(safeCall(requests.removeSubUser(userId, subUserId)), resp -> null);
+  }
+
+  private <T> CompletableFuture<List<T>> _createKey(
+      String uid, Map<String, String> parameters, Class<T> returnModel) {
+    Type type = setModelAndGetCorrespondingList2(returnModel);
+    return transform(
+        safeCall(requests.createKey(uid, parameters)),
+        resp -> gson.fromJson(requireUser(resp), type));
+  }
+
+  private CompletableFuture<Void> _removeKey(String uid, Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.removeKey(uid, parameters)),
+        resp -> {
+          requireUser(resp);
+          return null;
+        });
+  }
+
+  @Override
+  public CompletableFuture<List<S3Credential>> createS3Credential(
+      String userId, String accessKey, String secretKey) {
+    return _createKey(
+        userId,
+        ImmutableMap.of(
+            "access-key", accessKey,
+            "secret-key", secretKey),
+        S3Credential.class);
+  }
+
+  @Override
+  public CompletableFuture<List<S3Credential>> createS3Credential(String userId) {
+    return _createKey(userId, ImmutableMap.of("generate-key", "True"), S3Credential.class);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeS3Credential(String userId, String accessKey) {
+    return _removeKey(userId, ImmutableMap.of("access-key", accessKey));
+  }
+
+  @Override
+  public CompletableFuture<List<S3Credential>> createS3CredentialForSubUser(
+      String userId, String subUserId, String accessKey, String secretKey) {
+    return transform(
+        _createKey(
+            userId,
+            ImmutableMap.of(
+                "subuser", subUserId,
+                "access-key", accessKey,
+                "secret-key", secretKey,
+                "key-type", "s3"),
+            S3Credential.class),
+        s3Credentials ->
+            filterByUserId(
+                s3Credentials, S3Credential::getUserId, absSubUserId(userId, subUserId)));
+  }
+
+  @Override
+  public CompletableFuture<List<S3Credential>> createS3CredentialForSubUser(
+      String userId, String subUserId) {
+    return transform(
+        _createKey(
+            userId,
+            ImmutableMap.of(
+                "subuser", subUserId,
+                "key-type", "s3",
+                "generate-key", "True"),
+            S3Credential.class),
+        s3Credentials ->
+            filterByUserId(
+                s3Credentials, S3Credential::getUserId, absSubUserId(userId, subUserId)));
+  }
+
+  @Override
+  public CompletableFuture<Void> removeS3CredentialFromSubUser(
+      String userId, String subUserId, String accessKey) {
+    return _removeKey(
+        userId,
+        ImmutableMap.of(
+            "subuser", subUserId,
+            "key-type", "s3",
+            "access-key", accessKey));
+  }
+
+  @Override
+  public CompletableFuture<SwiftCredential> createSwiftCredentialForSubUser(
+      String userId, String subUserId, String password) {
+    return transform(
+        _createKey(
+            userId,
+            ImmutableMap.of(
+                "subuser", subUserId,
+                "secret-key", password,
+                "key-type", "swift"),
+            SwiftCredential.class),
+        swiftCredentials ->
+            filterByUserId(
+                swiftCredentials,
+                SwiftCredential::getUserId,
+                absSubUserId(userId, subUserId))
+                .get(0));
+  }
+
+  @Override
+  public CompletableFuture<SwiftCredential> createSwiftCredentialForSubUser(
+      String userId, String subUserId) {
+    return transform(
+        _createKey(
+            userId,
+            ImmutableMap.of(
+                "subuser", subUserId,
+                "key-type", "swift",
+                "generate-key", "True"),
+            SwiftCredential.class),
+        swiftCredentials ->
+            filterByUserId(
+                swiftCredentials,
+                SwiftCredential::getUserId,
+                absSubUserId(userId, subUserId))
+                .get(0));
+  }
+
+  @Override
+  public CompletableFuture<Void> removeSwiftCredentialFromSubUser(
+      String userId, String subUserId) {
+    return _removeKey(userId, ImmutableMap.of("subuser", subUserId, "key-type", "swift"));
+  }
+
+  @Override
+  public CompletableFuture<Void> removeBucket(String bucketName) {
+    return transform(safeCall(requests.removeBucket(bucketName)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> linkBucket(String bucketName, String bucketId, String userId) {
+    return transform(safeCall(requests.linkBucket(bucketName, bucketId, userId)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> unlinkBucket(String bucketName, String userId) {
+    return transform(safeCall(requests.unlinkBucket(bucketName, userId)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<String>> checkBucketIndex(
+      String bucketName, boolean isCheckObjects, boolean isFix) {
+    return transform(
+        safeCall(requests.checkBucketIndex(bucketName, isCheckObjects, isFix)),
+        Optional::ofNullable);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listBucket() {
+    return transform(
+        listBucketInfo(),
+        buckets -> buckets.stream().map(BucketInfo::getBucket).collect(Collectors.toList()));
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listBucket(String userId) {
+    return transform(
+        listBucketInfo(userId),
+        buckets -> buckets.stream().map(BucketInfo::getBucket).collect(Collectors.toList()));
+  }
+
+  @Override
+  public CompletableFuture<List<BucketInfo>> listBucketInfo() {
+    return _getBucketInfo(ImmutableMap.of("stats", "True"));
+  }
+
+  @Override
+  public CompletableFuture<List<BucketInfo>> listBucketInfo(String userId) {
+    return _getBucketInfo(ImmutableMap.of("uid", userId, "stats", "True"));
+  }
+
+  private CompletableFuture<List<BucketInfo>> _getBucketInfo(Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.getBucketInfo(parameters)), resp -> parseBucketInfo(parameters, resp));
+  }
+
+  @Override
+  public CompletableFuture<Optional<BucketInfo>> getBucketInfo(String bucketName) {
+    return transform(
+        _getBucketInfo(ImmutableMap.of("bucket", bucketName, "stats", "True")),
+        RgwAdminImpl::singleBucketInfo);
+  }
+
+  @Override
+  public CompletableFuture<User> createUser(String userId) {
+    return createUser(userId, null);
+  }
+
+  @Override
+  public CompletableFuture<User> createUser(String userId, Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.createUser(userId, parameters)), resp -> gson.fromJson(resp, User.class));
+  }
+
+  @Override
+  public CompletableFuture<Optional<User>> getUserInfo(String userId) {
+    return transform(
+        safeCall(requests.getUserInfo(userId)),
+        resp -> Optional.ofNullable(gson.fromJson(resp, User.class)));
+  }
+
+  @Override
+  public CompletableFuture<Optional<User>> getUserInfoByAccessKey(String accessKey) {
+    return transform(
+        safeCall(requests.getUserInfoByAccessKey(accessKey)),
+        resp -> Optional.ofNullable(gson.fromJson(resp, User.class)));
+  }
+
+  private CompletableFuture<List<String>> listMetadata(MetadataType metadataType) {
+    return transform(
+        safeCall(requests.listMetadata(metadataType)), resp -> gson.fromJson(resp, stringListType));
+  }
+
+  private <T> CompletableFuture<T> getMetadata(
+      MetadataType metadataType, String key, Class<T> returnType) {
+    return transform(
+        safeCall(requests.getMetadata(metadataType, key)), resp -> parseMetadata(resp, returnType));
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listUser() {
+    return listMetadata(MetadataType.USER);
+  }
+
+  @Override
+  public CompletableFuture<MetadataPage> listUserPage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.USER, marker, maxEntries);
+  }
+
+  @Override
+  public CompletableFuture<MetadataPage> listBucketPage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.BUCKET, marker, maxEntries);
+  }
+
+  @Override
+  public CompletableFuture<MetadataPage> listBucketInstancePage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.BUCKET_INSTANCE, marker, maxEntries);
+  }
+
+  private CompletableFuture<MetadataPage> listMetadata(
+      MetadataType metadataType, String marker, int maxEntries) {
+    return transform(
+        safeCall(requests.listMetadata(metadataType, marker, maxEntries)),
+        RgwAdminImpl::parseMetadataPage);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listSubUser(String userId) {
+    return transform(
+        listSubUserInfo(userId),
+        subUsers -> subUsers.stream().map(SubUser::getId).collect(Collectors.toList()));
+  }
+
+  @Override
+  public CompletableFuture<List<User>> listUserInfo() {
+    // Keep the queue of the dispatcher short, rather than enqueueing a read per user at once.
+    return listUserInfo(ListOptions.parallelism(dispatcher.getMaxRequestsPerHost()));
+  }
+
+  @Override
+  public CompletableFuture<List<User>> listUserInfo(ListOptions options) {
+    return transformAsync(
+        listMetadata(MetadataType.USER),
+        userIds ->
+            FanOut.run(userIds, i -> getMetadata(MetadataType.USER, i, User.class), options));
+  }
+
+  @Override
+  public CompletableFuture<User> modifyUser(String userId, Map<String, String> parameters) {
+    return transform(
+        safeCall(requests.modifyUser(userId, parameters)), resp -> gson.fromJson(resp, User.class));
+  }
+
+  @Override
+  public CompletableFuture<Void> suspendUser(String userId, boolean suspend) {
+    return transform(
+        modifyUser(userId, ImmutableMap.of("suspended", Boolean.toString(suspend))), user -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeUser(String userId) {
+    return transform(safeCall(requests.removeUser(userId)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<Quota>> getUserQuota(String userId) {
+    return getQuota(userId, "user");
+  }
+
+  @Override
+  public CompletableFuture<Optional<Quota>> getBucketQuota(String userId) {
+    return getQuota(userId, "bucket");
+  }
+
+  private CompletableFuture<Optional<Quota>> getQuota(String userId, String quotaType) {
+    return transform(
+        safeCall(requests.getQuota(userId, quotaType)),
+        resp -> Optional.ofNullable(gson.fromJson(requireUser(resp), Quota.class)));
+  }
+
+  @Override
+  public CompletableFuture<Void> setIndividualBucketQuota(
+      String userId, String bucket, long maxObjects, long maxSizeKB) {
+    return transform(
+        call(requests.setIndividualBucketQuota(userId, bucket, maxObjects, maxSizeKB)),
+        resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> setBucketQuota(String userId, long maxObjects, long maxSizeKB) {
+    return transform(
+        call(requests.setQuota(userId, "bucket", maxObjects, maxSizeKB)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> setUserQuota(String userId, long maxObjects, long maxSizeKB) {
+    return transform(call(requests.setQuota(userId, "user", maxObjects, maxSizeKB)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeObject(String bucketName, String objectKey) {
+    return transform(safeCall(requests.removeObject(bucketName, objectKey)), resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<String>> getObjectPolicy(String bucketName, String objectKey) {
+    return transform(safeCall(requests.getPolicy(bucketName, objectKey)), Optional::ofNullable);
+  }
+
+  @Override
+  public CompletableFuture<Optional<String>> getBucketPolicy(String bucketName) {
+    return transform(safeCall(requests.getPolicy(bucketName, null)), Optional::ofNullable);
+  }
+
+  @Override
+  public CompletableFuture<Optional<ClusterInfo>> getInfo() {
+    return transform(
+        safeCall(requests.getInfo()),
+        resp -> Optional.ofNullable(gson.fromJson(resp, ClusterInfo.class)));
+  }
+}
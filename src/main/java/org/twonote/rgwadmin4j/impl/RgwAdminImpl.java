@@ -1,38 +1,44 @@
 package org.twonote.rgwadmin4j.impl;
 
-import com.google.common.base.Joiner;
-import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
+import java.util.stream.Stream;
 import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
-import okhttp3.ResponseBody;
+import org.twonote.rgwadmin4j.ListOptions;
+import org.twonote.rgwadmin4j.RgwAdminConfig;
 import org.twonote.rgwadmin4j.RgwAdmin;
 import org.twonote.rgwadmin4j.model.BucketInfo;
 import org.twonote.rgwadmin4j.model.Cap;
 import org.twonote.rgwadmin4j.model.ClusterInfo;
 import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
 import org.twonote.rgwadmin4j.model.Quota;
 import org.twonote.rgwadmin4j.model.S3Credential;
 import org.twonote.rgwadmin4j.model.SubUser;
 import org.twonote.rgwadmin4j.model.SwiftCredential;
 import org.twonote.rgwadmin4j.model.UsageInfo;
 import org.twonote.rgwadmin4j.model.User;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
 
 /**
  * Radosgw administrator implementation
@@ -41,13 +47,23 @@ import org.twonote.rgwadmin4j.model.User;
  */
 public class RgwAdminImpl implements RgwAdmin {
 
-  private static final Gson gson = new Gson();
+  static final Gson gson = new Gson();
   private static final JsonParser jsonParser = new JsonParser();
 
-  private static final RequestBody emptyBody = RequestBody.create(null, new byte[]{});
+  static final Type capListType = new TypeToken<List<Cap>>() {
+  }.getType();
+  static final Type subUserListType = new TypeToken<List<SubUser>>() {
+  }.getType();
+  static final Type bucketInfoListType = new TypeToken<List<BucketInfo>>() {
+  }.getType();
+  static final Type stringListType = new TypeToken<List<String>>() {
+  }.getType();
 
-  private final String endpoint;
-  private final OkHttpClient client;
+  private static final ThreadFactory fanOutThreadFactory =
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("rgwadmin4j-fanout-%d").build();
+
+  private final AdminRequests requests;
+  private final AdminTransport transport;
 
   /**
    * Create a Radosgw administrator implementation
@@ -57,34 +73,88 @@ public class RgwAdminImpl implements RgwAdmin {
    * @param endpoint  Radosgw admin API endpoint, e.g., http://127.0.0.1:80/admin
    */
   public RgwAdminImpl(String accessKey, String secretKey, String endpoint) {
-    validEndpoint(endpoint);
-    this.client =
-        new OkHttpClient().newBuilder().addInterceptor(new S3Auth(accessKey, secretKey)).build();
-    this.endpoint = endpoint;
-  }
-
-  private static void validEndpoint(String endpoint) {
-    if (HttpUrl.parse(endpoint) == null) {
-      throw new IllegalArgumentException("endpoint is invalid");
-    }
+    this(new RgwAdminConfig(accessKey, secretKey, endpoint));
   }
 
-  private static void appendParameters(Map<String, String> parameters, HttpUrl.Builder urlBuilder) {
-    if (parameters != null) {
-      parameters.forEach(urlBuilder::addQueryParameter);
-    }
+  /**
+   * Create a Radosgw administrator implementation
+   *
+   * @param config The client settings, see {@link org.twonote.rgwadmin4j.RgwAdminBuilder}
+   */
+  public RgwAdminImpl(RgwAdminConfig config) {
+    this.requests = new AdminRequests(config.getEndpoint());
+    this.transport = AdminTransport.create(config);
   }
 
-  private static String absSubUserId(String userId, String subUserId) {
+  static String absSubUserId(String userId, String subUserId) {
     return String.join(":", userId, subUserId);
   }
 
-  private static <T> Type setModelAndGetCorrespondingList2(Class<T> type) {
+  static <T> Type setModelAndGetCorrespondingList2(Class<T> type) {
     return new TypeToken<ArrayList<T>>() {
     }.where(new TypeParameter<T>() {
     }, type).getType();
   }
 
+  /*
+   * Fit luminous behavior: the server responds 404 instead of an error code if the user does not
+   * exist.
+   */
+  static String requireUser(String resp) {
+    if (resp == null) {
+      throw new RgwAdminException(404, "NoSuchUser");
+    }
+    return resp;
+  }
+
+  static List<BucketInfo> parseBucketInfo(Map<String, String> parameters, String resp) {
+    // ugly part...
+    if (parameters.containsKey("bucket")) {
+      BucketInfo response = gson.fromJson(resp, BucketInfo.class);
+      List<BucketInfo> ret = new ArrayList<>();
+      if (response != null) {
+        ret.add(response);
+      }
+      return ret;
+    }
+
+    return gson.fromJson(resp, bucketInfoListType);
+  }
+
+  static Optional<BucketInfo> singleBucketInfo(List<BucketInfo> responses) {
+    if (responses.size() == 0) {
+      return Optional.empty();
+    } else if (responses.size() == 1) {
+      return Optional.of(responses.get(0));
+    }
+    throw new RuntimeException("Server should not return more than one bucket");
+  }
+
+  static <T> T parseMetadata(String resp, Class<T> returnType) {
+    if (resp == null) {
+      return null;
+    }
+    JsonObject jo = (JsonObject) jsonParser.parse(resp);
+    return gson.fromJson(jo.get("data").toString(), returnType);
+  }
+
+  static MetadataPage parseMetadataPage(String resp) {
+    MetadataPage page = gson.fromJson(resp, MetadataPage.class);
+    if (page == null) {
+      page = new MetadataPage();
+      page.setKeys(new ArrayList<>());
+    }
+    return page;
+  }
+
+  static <T> List<T> filterByUserId(
+      List<T> credentials, Function<T, String> userId, String expected) {
+    return credentials
+        .stream()
+        .filter(k -> expected.equals(userId.apply(k)))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public void trimUserUsage(String userId, Map<String, String> parameters) {
     Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
@@ -94,16 +164,10 @@ public class RgwAdminImpl implements RgwAdmin {
 
   @Override
   public void trimUsage(Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder = HttpUrl.parse(endpoint).newBuilder().addPathSegment("usage");
-
     Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
     params.put("remove-all", "True");
 
-    appendParameters(params, urlBuilder);
-
-    Request request = new Request.Builder().delete().url(urlBuilder.build()).build();
-
-    safeCall(request);
+    safeCall(requests.trimUsage(params));
   }
 
   @Override
@@ -125,77 +189,34 @@ public class RgwAdminImpl implements RgwAdmin {
 
   @Override
   public Optional<UsageInfo> getUsage(Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder = HttpUrl.parse(endpoint).newBuilder().addPathSegment("usage");
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.getUsage(parameters));
     return Optional.ofNullable(gson.fromJson(resp, UsageInfo.class));
   }
 
+  @Override
+  public Stream<UsageRecord> streamUsage(Map<String, String> parameters) {
+    Map<String, String> params = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
+    params.putIfAbsent("show-summary", "False");
+    return UsageRecordStream.of(transport.open(requests.getUsage(params)));
+  }
+
   @Override
   public List<Cap> addUserCapability(String userId, List<Cap> userCaps) {
-    Request request =
-        new Request.Builder()
-            .put(emptyBody)
-            .url(
-                HttpUrl.parse(endpoint)
-                    .newBuilder()
-                    .addPathSegment("user")
-                    .query("caps")
-                    .addQueryParameter("uid", userId)
-                    .addQueryParameter("user-caps", Joiner.on(";").join(userCaps))
-                    .build())
-            .build();
-
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<Cap>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+    String resp = safeCall(requests.addUserCapability(userId, userCaps));
+    return gson.fromJson(resp, capListType);
   }
 
   @Override
   public List<Cap> removeUserCapability(String userId, List<Cap> userCaps) {
-    Request request =
-        new Request.Builder()
-            .delete()
-            .url(
-                HttpUrl.parse(endpoint)
-                    .newBuilder()
-                    .addPathSegment("user")
-                    .query("caps")
-                    .addQueryParameter("uid", userId)
-                    .addQueryParameter("user-caps", Joiner.on(";").join(userCaps))
-                    .build())
-            .build();
-
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<Cap>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+    String resp = safeCall(requests.removeUserCapability(userId, userCaps));
+    return gson.fromJson(resp, capListType);
   }
 
   @Override
   public List<SubUser> createSubUser(
       String userId, String subUserId, Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("subuser")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("subuser", subUserId);
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().put(emptyBody).url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<SubUser>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+    String resp = safeCall(requests.createSubUser(userId, subUserId, parameters));
+    return gson.fromJson(resp, subUserListType);
   }
 
   @Override
@@ -221,22 +242,8 @@ public class RgwAdminImpl implements RgwAdmin {
 
   public List<SubUser> modifySubUser(
       String userId, String subUserId, Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("subuser")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("subuser", subUserId);
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().post(emptyBody).url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<SubUser>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+    String resp = safeCall(requests.modifySubUser(userId, subUserId, parameters));
+    return gson.fromJson(resp, subUserListType);
   }
 
   @Override
@@ -264,78 +271,17 @@ public class RgwAdminImpl implements RgwAdmin {
 
   @Override
   public void removeSubUser(String userId, String subUserId) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("subuser")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("subuser", subUserId);
-
-    Request request = new Request.Builder().delete().url(urlBuilder.build()).build();
-
-    safeCall(request);
+    safeCall(requests.removeSubUser(userId, subUserId));
   }
 
   private <T> List<T> _createKey(String uid, Map<String, String> parameters, Class<T> returnModel) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("key")
-            .addQueryParameter("uid", uid);
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().put(emptyBody).url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-
-    // Fit luminous behavior
-    if (resp == null) {
-      throw new RgwAdminException(404, "NoSuchUser");
-    }
-
+    String resp = requireUser(safeCall(requests.createKey(uid, parameters)));
     Type type = setModelAndGetCorrespondingList2(returnModel);
     return gson.fromJson(resp, type);
   }
 
-  private List<S3Credential> _createKey(String uid, Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("key")
-            .addQueryParameter("uid", uid);
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().put(emptyBody).url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<S3Credential>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
-  }
-
   private void _removeKey(String uid, Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("key")
-            .addQueryParameter("uid", uid);
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().delete().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-
-    // Fit luminous behavior
-    if (resp == null) {
-      throw new RgwAdminException(404, "NoSuchUser");
-    }
+    requireUser(safeCall(requests.removeKey(uid, parameters)));
   }
 
   @Override
@@ -371,10 +317,8 @@ public class RgwAdminImpl implements RgwAdmin {
                 "key-type", "s3"),
             S3Credential.class);
 
-    return s3Credentials
-        .stream()
-        .filter(k -> absSubUserId(userId, subUserId).equals(k.getUserId()))
-        .collect(Collectors.toList());
+    return filterByUserId(
+        s3Credentials, S3Credential::getUserId, absSubUserId(userId, subUserId));
   }
 
   @Override
@@ -388,10 +332,8 @@ public class RgwAdminImpl implements RgwAdmin {
                 "generate-key", "True"),
             S3Credential.class);
 
-    return s3Credentials
-        .stream()
-        .filter(k -> absSubUserId(userId, subUserId).equals(k.getUserId()))
-        .collect(Collectors.toList());
+    return filterByUserId(
+        s3Credentials, S3Credential::getUserId, absSubUserId(userId, subUserId));
   }
 
   @Override
@@ -415,10 +357,8 @@ public class RgwAdminImpl implements RgwAdmin {
                 "secret-key", password,
                 "key-type", "swift"),
             SwiftCredential.class);
-    return swiftCredentials
-        .stream()
-        .filter(k -> absSubUserId(userId, subUserId).equals(k.getUserId()))
-        .collect(Collectors.toList())
+    return filterByUserId(
+            swiftCredentials, SwiftCredential::getUserId, absSubUserId(userId, subUserId))
         .get(0);
   }
 
@@ -432,10 +372,8 @@ public class RgwAdminImpl implements RgwAdmin {
                 "key-type", "swift",
                 "generate-key", "True"),
             SwiftCredential.class);
-    return swiftCredentials
-        .stream()
-        .filter(k -> absSubUserId(userId, subUserId).equals(k.getUserId()))
-        .collect(Collectors.toList())
+    return filterByUserId(
+            swiftCredentials, SwiftCredential::getUserId, absSubUserId(userId, subUserId))
         .get(0);
   }
 
@@ -451,78 +389,23 @@ public class RgwAdminImpl implements RgwAdmin {
    */
   @Override
   public void removeBucket(String bucketName) {
-    Request request =
-        new Request.Builder()
-            .delete()
-            .url(
-                HttpUrl.parse(endpoint)
-                    .newBuilder()
-                    .addPathSegment("bucket")
-                    .addQueryParameter("bucket", bucketName)
-                    .addQueryParameter("purge-objects", "true")
-                    .build())
-            .build();
-
-    safeCall(request);
+    safeCall(requests.removeBucket(bucketName));
   }
 
   @Override
   public void linkBucket(String bucketName, String bucketId, String userId) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("bucket")
-            .addQueryParameter("bucket", bucketName);
-
-    if (bucketId != null) {
-      urlBuilder.addQueryParameter("bucket-id", bucketId);
-    }
-
-    urlBuilder.addQueryParameter("uid", userId);
-    Request request =
-        new Request.Builder()
-            .put(emptyBody)
-            .url(urlBuilder.build())
-            .build();
-
-    safeCall(request);
+    safeCall(requests.linkBucket(bucketName, bucketId, userId));
   }
 
   @Override
   public void unlinkBucket(String bucketName, String userId) {
-    Request request =
-        new Request.Builder()
-            .post(emptyBody)
-            .url(
-                HttpUrl.parse(endpoint)
-                    .newBuilder()
-                    .addPathSegment("bucket")
-                    .addQueryParameter("bucket", bucketName)
-                    .addQueryParameter("uid", userId)
-                    .build())
-            .build();
-
-    safeCall(request);
+    safeCall(requests.unlinkBucket(bucketName, userId));
   }
 
   @Override
   public Optional<String> checkBucketIndex(
       String bucketName, boolean isCheckObjects, boolean isFix) {
-    Request request =
-        new Request.Builder()
-            .get()
-            .url(
-                HttpUrl.parse(endpoint)
-                    .newBuilder()
-                    .addPathSegment("bucket")
-                    .query("index")
-                    .addQueryParameter("bucket", bucketName)
-                    .addQueryParameter("check-objects", Boolean.toString(isCheckObjects))
-                    .addQueryParameter("fix", Boolean.toString(isFix))
-                    .build())
-            .build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.checkBucketIndex(bucketName, isCheckObjects, isFix));
     return Optional.ofNullable(resp);
   }
 
@@ -549,59 +432,34 @@ public class RgwAdminImpl implements RgwAdmin {
     return _getBucketInfo(ImmutableMap.of("uid", userId, "stats", "True"));
   }
 
-  private List<BucketInfo> _getBucketInfo(Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder = HttpUrl.parse(endpoint).newBuilder().addPathSegment("bucket");
-
-    appendParameters(parameters, urlBuilder);
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
+  @Override
+  public Stream<BucketInfo> streamBucketInfo() {
+    return _streamBucketInfo(ImmutableMap.of("stats", "True"));
+  }
 
-    String resp = safeCall(request);
+  @Override
+  public Stream<BucketInfo> streamBucketInfo(String userId) {
+    return _streamBucketInfo(ImmutableMap.of("uid", userId, "stats", "True"));
+  }
 
-    // ugly part...
-    if (parameters.containsKey("bucket")) {
-      BucketInfo response = gson.fromJson(resp, BucketInfo.class);
-      List<BucketInfo> ret = new ArrayList<>();
-      if (response != null) {
-        ret.add(response);
-      }
-      return ret;
-    }
+  private Stream<BucketInfo> _streamBucketInfo(Map<String, String> parameters) {
+    return JsonArrayStream.of(
+        transport.open(requests.getBucketInfo(parameters)), BucketInfo.class);
+  }
 
-    Type type = new TypeToken<List<BucketInfo>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+  private List<BucketInfo> _getBucketInfo(Map<String, String> parameters) {
+    String resp = safeCall(requests.getBucketInfo(parameters));
+    return parseBucketInfo(parameters, resp);
   }
 
   @Override
   public Optional<BucketInfo> getBucketInfo(String bucketName) {
-    List<BucketInfo> responses =
-        _getBucketInfo(ImmutableMap.of("bucket", bucketName, "stats", "True"));
-    if (responses.size() == 0) {
-      return Optional.empty();
-    } else if (responses.size() == 1) {
-      return Optional.of(responses.get(0));
-    }
-    throw new RuntimeException("Server should not return more than one bucket");
+    return singleBucketInfo(
+        _getBucketInfo(ImmutableMap.of("bucket", bucketName, "stats", "True")));
   }
 
   private String call(Request request) {
-    try (Response response = client.newCall(request).execute()) {
-      if (response.code() == 404) {
-        throw new RgwAdminException(404, "not found");
-      }
-      if (!response.isSuccessful()) {
-        throw ErrorUtils.parseError(response);
-      }
-      ResponseBody body = response.body();
-      if (body != null) {
-        return response.body().string();
-      } else {
-        return null;
-      }
-    } catch (IOException e) {
-      throw new RgwAdminException(500, "IOException", e);
-    }
+    return transport.execute(request, false);
   }
 
   /**
@@ -612,22 +470,7 @@ public class RgwAdminImpl implements RgwAdmin {
    * @throws RgwAdminException if resp code != (200||404)
    */
   private String safeCall(Request request) {
-    try (Response response = client.newCall(request).execute()) {
-      if (response.code() == 404) {
-        return null;
-      }
-      if (!response.isSuccessful()) {
-        throw ErrorUtils.parseError(response);
-      }
-      ResponseBody body = response.body();
-      if (body != null) {
-        return response.body().string();
-      } else {
-        return null;
-      }
-    } catch (IOException e) {
-      throw new RgwAdminException(500, "IOException", e);
-    }
+    return transport.execute(request, true);
   }
 
   @Override
@@ -637,46 +480,19 @@ public class RgwAdminImpl implements RgwAdmin {
 
   @Override
   public User createUser(String userId, Map<String, String> options) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("display-name", userId);
-
-    appendParameters(options, urlBuilder);
-
-    Request request = new Request.Builder().put(emptyBody).url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.createUser(userId, options));
     return gson.fromJson(resp, User.class);
   }
 
   @Override
   public Optional<User> getUserInfo(String userId) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .addQueryParameter("uid", userId);
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.getUserInfo(userId));
     return Optional.ofNullable(gson.fromJson(resp, User.class));
   }
 
   @Override
   public Optional<User> getUserInfoByAccessKey(String accessKey) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .addQueryParameter("access-key", accessKey);
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.getUserInfoByAccessKey(accessKey));
     return Optional.ofNullable(gson.fromJson(resp, User.class));
   }
 
@@ -689,16 +505,24 @@ public class RgwAdminImpl implements RgwAdmin {
    * @return A list of radosgw internal metadata keys in the given metadata type.
    */
   private List<String> listMetadata(MetadataType metadataType) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("metadata")
-            .addPathSegment(metadataType.toString());
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-    String resp = safeCall(request);
-    Type type = new TypeToken<List<String>>() {
-    }.getType();
-    return gson.fromJson(resp, type);
+    String resp = safeCall(requests.listMetadata(metadataType));
+    return gson.fromJson(resp, stringListType);
+  }
+
+  /**
+   * Retrieve a page of keys in a given metadata type
+   *
+   * <p>Equivalent to radosgw-admin metadata list --metadata-key user --max-entries 1000 --marker
+   * foo
+   *
+   * @param metadataType Specify the metadata type.
+   * @param marker       Where to continue; null for the first page.
+   * @param maxEntries   Max number of keys in the page.
+   * @return A page of radosgw internal metadata keys in the given metadata type.
+   */
+  private MetadataPage listMetadata(MetadataType metadataType, String marker, int maxEntries) {
+    String resp = safeCall(requests.listMetadata(metadataType, marker, maxEntries));
+    return parseMetadataPage(resp);
   }
 
   /**
@@ -711,18 +535,8 @@ public class RgwAdminImpl implements RgwAdmin {
    * @return Content of metadata in a json string.
    */
   private <T> T getMetadata(MetadataType metadataType, String key, Class<T> returnType) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("metadata")
-            .addQueryParameter("key", String.join(":", metadataType.toString(), key));
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-    String resp = safeCall(request);
-
-    assert resp != null;
-    JsonObject jo = (JsonObject) jsonParser.parse(resp);
-    return gson.fromJson(jo.get("data").toString(), returnType);
+    String resp = safeCall(requests.getMetadata(metadataType, key));
+    return parseMetadata(resp, returnType);
   }
 
   @Override
@@ -730,6 +544,36 @@ public class RgwAdminImpl implements RgwAdmin {
     return listMetadata(MetadataType.USER);
   }
 
+  @Override
+  public MetadataPage listUserPage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.USER, marker, maxEntries);
+  }
+
+  @Override
+  public MetadataPage listBucketPage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.BUCKET, marker, maxEntries);
+  }
+
+  @Override
+  public MetadataPage listBucketInstancePage(String marker, int maxEntries) {
+    return listMetadata(MetadataType.BUCKET_INSTANCE, marker, maxEntries);
+  }
+
+  @Override
+  public Iterable<String> iterateUsers(int pageSize) {
+    return new PagedKeys(this::listUserPage, pageSize);
+  }
+
+  @Override
+  public Iterable<String> iterateBuckets(int pageSize) {
+    return new PagedKeys(this::listBucketPage, pageSize);
+  }
+
+  @Override
+  public Iterable<String> iterateBucketInstances(int pageSize) {
+    return new PagedKeys(this::listBucketInstancePage, pageSize);
+  }
+
   @Override
   public List<String> listSubUser(String userId) {
     return listSubUserInfo(userId).stream().map(SubUser::getId).collect(Collectors.toList());
@@ -737,26 +581,40 @@ public class RgwAdminImpl implements RgwAdmin {
 
   @Override
   public List<User> listUserInfo() {
-    List<String> userIds = listMetadata(MetadataType.USER);
-    return userIds
-        .stream()
-        .map(i -> getMetadata(MetadataType.USER, i, User.class))
-        .collect(Collectors.toList());
+    return listUserInfo(ListOptions.defaults());
   }
 
   @Override
-  public User modifyUser(String userId, Map<String, String> parameters) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .addQueryParameter("uid", userId);
-
-    parameters.forEach(urlBuilder::addQueryParameter);
+  public List<User> listUserInfo(ListOptions options) {
+    List<String> userIds = listMetadata(MetadataType.USER);
+    return fanOut(userIds, i -> getMetadata(MetadataType.USER, i, User.class), options);
+  }
 
-    Request request = new Request.Builder().post(emptyBody).url(urlBuilder.build()).build();
+  /*
+   * Blocking calls are spread over a dedicated thread pool sized to the parallelism, so the
+   * concurrency is not limited by the dispatcher of the HTTP client.
+   */
+  private static <V> List<V> fanOut(
+      List<String> keys, Function<String, V> call, ListOptions options) {
+    ExecutorService executor =
+        options.getParallelism() == 1
+            ? MoreExecutors.newDirectExecutorService()
+            : Executors.newFixedThreadPool(options.getParallelism(), fanOutThreadFactory);
+    try {
+      return FanOut.run(
+              keys, k -> CompletableFuture.supplyAsync(() -> call.apply(k), executor), options)
+          .join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-    String resp = safeCall(request);
+  @Override
+  public User modifyUser(String userId, Map<String, String> parameters) {
+    String resp = safeCall(requests.modifyUser(userId, parameters));
     return gson.fromJson(resp, User.class);
   }
 
@@ -772,16 +630,7 @@ public class RgwAdminImpl implements RgwAdmin {
    */
   @Override
   public void removeUser(String userId) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("purge-data", "true");
-
-    Request request = new Request.Builder().delete().url(urlBuilder.build()).build();
-
-    safeCall(request);
+    safeCall(requests.removeUser(userId));
   }
 
   @Override
@@ -795,44 +644,14 @@ public class RgwAdminImpl implements RgwAdmin {
   }
 
   public Optional<Quota> getQuota(String userId, String quotaType) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("quota")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("quota-type", quotaType);
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
-
-    // Fit luminous behavior
-    if (resp == null) {
-      throw new RgwAdminException(404, "NoSuchUser");
-    }
-
+    String resp = requireUser(safeCall(requests.getQuota(userId, quotaType)));
     return Optional.ofNullable(gson.fromJson(resp, Quota.class));
   }
 
   @Override
   public void setIndividualBucketQuota(String userId, String bucket, long maxObjects,
       long maxSizeKB) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("bucket")
-            .query("quota")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("bucket", bucket);
-
-    Request request =
-        new Request.Builder()
-            .put(RequestBody.create(null, buildQuotaConfig(maxObjects, maxSizeKB)))
-            .url(urlBuilder.build())
-            .build();
-
-    call(request);
+    call(requests.setIndividualBucketQuota(userId, bucket, maxObjects, maxSizeKB));
   }
 
   @Override
@@ -846,44 +665,12 @@ public class RgwAdminImpl implements RgwAdmin {
   }
 
   public void setUserQuota(String userId, String quotaType, long maxObjects, long maxSizeKB) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("user")
-            .query("quota")
-            .addQueryParameter("uid", userId)
-            .addQueryParameter("quota-type", quotaType);
-
-    Request request =
-        new Request.Builder()
-            .put(RequestBody.create(null, buildQuotaConfig(maxObjects, maxSizeKB)))
-            .url(urlBuilder.build())
-            .build();
-
-    call(request);
-  }
-
-  private String buildQuotaConfig(long maxObjects, long maxSizeKB) {
-    return gson.toJson(
-        ImmutableMap.of(
-            "max_objects", String.valueOf(maxObjects),
-            "max_size_kb", String.valueOf(maxSizeKB),
-            "enabled", "true"));
+    call(requests.setQuota(userId, quotaType, maxObjects, maxSizeKB));
   }
 
   @Override
   public void removeObject(String bucketName, String objectKey) {
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("bucket")
-            .query("object")
-            .addQueryParameter("bucket", bucketName)
-            .addQueryParameter("object", objectKey);
-
-    Request request = new Request.Builder().delete().url(urlBuilder.build()).build();
-
-    safeCall(request);
+    safeCall(requests.removeObject(bucketName, objectKey));
   }
 
   @Override
@@ -897,33 +684,12 @@ public class RgwAdminImpl implements RgwAdmin {
   }
 
   private Optional<String> _getPolicy(String bucketName, String objectKey) {
-    if (Strings.isNullOrEmpty(bucketName)) {
-      throw new IllegalArgumentException("no bucketName");
-    }
-
-    HttpUrl.Builder urlBuilder =
-        HttpUrl.parse(endpoint)
-            .newBuilder()
-            .addPathSegment("bucket")
-            .query("policy")
-            .addQueryParameter("bucket", bucketName);
-
-    if (!Strings.isNullOrEmpty(objectKey)) {
-      urlBuilder.addQueryParameter("object", objectKey);
-    }
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    return Optional.ofNullable(safeCall(request));
+    return Optional.ofNullable(safeCall(requests.getPolicy(bucketName, objectKey)));
   }
 
   @Override
   public Optional<ClusterInfo> getInfo() {
-    HttpUrl.Builder urlBuilder = HttpUrl.parse(endpoint).newBuilder().addPathSegment("info");
-
-    Request request = new Request.Builder().get().url(urlBuilder.build()).build();
-
-    String resp = safeCall(request);
+    String resp = safeCall(requests.getInfo());
     ClusterInfo clusterInfo = gson.fromJson(resp, ClusterInfo.class);
     
     return Optional.ofNullable(clusterInfo);
@@ -4,8 +4,8 @@ import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.Clock;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
 import java.util.Map;
@@ -38,15 +38,27 @@ import okhttp3.Response;
  */
 class S3Auth implements Interceptor {
 
+  private static final String HMAC_SHA1 = "HmacSHA1";
+
+  private static final DateTimeFormatter httpDateFormatter =
+      DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
   private final String accessKey;
-  private final String secretKey;
+  private final SecretKeySpec signingKey;
+  private final CachedDate date;
+
+  /*
+   * Mac is not thread-safe and expensive to look up and initialize, so each thread keeps one
+   * initialized with the signing key. doFinal() resets it for the next request.
+   */
+  private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
 
   /*
   The subResources that must be included when constructing the CanonicalizedResource Element are acl, lifecycle,
   location, logging, notification, partNumber, policy, requestPayment, torrent, uploadId, uploads, versionId,
   versioning, versions, and website.
    */
-  private final Set<String> subResources =
+  private static final Set<String> subResources =
       ImmutableSet.of(
           "acl",
           "lifecycle",
@@ -82,8 +94,23 @@ class S3Auth implements Interceptor {
           "response-content-encoding");
 
   public S3Auth(String accessKey, String secretKey) {
+    this(accessKey, secretKey, Clock.systemUTC());
+  }
+
+  S3Auth(String accessKey, String secretKey, Clock clock) {
     this.accessKey = accessKey;
-    this.secretKey = secretKey;
+    this.signingKey = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA1);
+    this.date = new CachedDate(clock, httpDateFormatter);
+  }
+
+  private Mac newMac() {
+    try {
+      Mac mac = Mac.getInstance(HMAC_SHA1);
+      mac.init(signingKey);
+      return mac;
+    } catch (Exception e) {
+      throw new RuntimeException("MAC CALC FAILED.", e);
+    }
   }
 
   private static String encodeBase64(byte[] data) {
@@ -102,16 +129,14 @@ class S3Auth implements Interceptor {
   public Response intercept(Interceptor.Chain chain) throws IOException {
     Request request = chain.request();
     String httpVerb = request.method();
-    String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneId.of("GMT")));
+    String date = this.date.now();
     String resource = request.url().encodedPath();
 
-    try {
+    if (request.url().querySize() > 0) {
       String subresource = request.url().queryParameterName(0);
       if (subResources.contains(subresource)) {
         resource += "?" + subresource;
       }
-    } catch (Exception e) {
-      // not match, do nothing here.
     }
 
     String sign = sign(httpVerb, date, resource);
@@ -121,7 +146,7 @@ class S3Auth implements Interceptor {
     return chain.proceed(request);
   }
 
-  private String sign(String httpVerb, String date, String resource) {
+  String sign(String httpVerb, String date, String resource) {
     return sign(httpVerb, "", "", date, resource, null);
   }
 
@@ -134,15 +159,15 @@ class S3Auth implements Interceptor {
       Map<String, String> metas) {
 
     StringBuilder stringToSign =
-        new StringBuilder(
-            httpVerb
-                + "\n"
-                + CharMatcher.whitespace().trimFrom(contentMD5)
-                + "\n"
-                + CharMatcher.whitespace().trimFrom(contentType)
-                + "\n"
-                + date
-                + "\n");
+        new StringBuilder(128)
+            .append(httpVerb)
+            .append('\n')
+            .append(CharMatcher.whitespace().trimFrom(contentMD5))
+            .append('\n')
+            .append(CharMatcher.whitespace().trimFrom(contentType))
+            .append('\n')
+            .append(date)
+            .append('\n');
     if (metas != null) {
       for (Map.Entry<String, String> entity : metas.entrySet()) {
         stringToSign
@@ -153,16 +178,8 @@ class S3Auth implements Interceptor {
       }
     }
     stringToSign.append(resource);
-    try {
-      Mac mac = Mac.getInstance("HmacSHA1");
-      byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-      SecretKeySpec signingKey = new SecretKeySpec(keyBytes, "HmacSHA1");
-      mac.init(signingKey);
-      byte[] signBytes = mac.doFinal(stringToSign.toString().getBytes(StandardCharsets.UTF_8));
-      String signature = encodeBase64(signBytes);
-      return "AWS" + " " + accessKey + ":" + signature;
-    } catch (Exception e) {
-      throw new RuntimeException("MAC CALC FAILED.");
-    }
+    byte[] signBytes = mac.get().doFinal(stringToSign.toString().getBytes(StandardCharsets.UTF_8));
+    String signature = encodeBase64(signBytes);
+    return "AWS " + accessKey + ":" + signature;
   }
 }
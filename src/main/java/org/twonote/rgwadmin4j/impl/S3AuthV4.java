@@ -0,0 +1,257 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+
+/**
+ * AWS signature version 4 for the wonderful java okhttp client
+ *
+ * <p>Works like {@link S3Auth}, but signs the request with AWS4-HMAC-SHA256. See <a
+ * href="https://docs.aws.amazon.com/AmazonS3/latest/API/sig-v4-header-based-auth.html">here</a>
+ * for the details.
+ *
+ * <p>The signing key is derived from the secret key by four chained HMACs over the date, region
+ * and service. Since the region and service are fixed per instance, the key only changes once a
+ * day; it is derived once and cached, so a request costs a single HMAC.
+ */
+class S3AuthV4 implements Interceptor {
+
+  private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+  private static final String HMAC_SHA256 = "HmacSHA256";
+  private static final String SERVICE = "s3";
+  private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+
+  private static final DateTimeFormatter amzDateFormatter =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+  private static final BaseEncoding hex = BaseEncoding.base16().lowerCase();
+
+  private final String accessKey;
+  private final byte[] secretKey;
+  private final String region;
+  private final CachedDate amzDate;
+
+  private final AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+
+  private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(() -> newMac(null));
+
+  public S3AuthV4(String accessKey, String secretKey, String region) {
+    this(accessKey, secretKey, region, Clock.systemUTC());
+  }
+
+  S3AuthV4(String accessKey, String secretKey, String region, Clock clock) {
+    this.accessKey = accessKey;
+    this.secretKey = ("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8);
+    this.region = region;
+    this.amzDate = new CachedDate(clock, amzDateFormatter);
+  }
+
+  private static Mac newMac(byte[] key) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_SHA256);
+      if (key != null) {
+        mac.init(new SecretKeySpec(key, HMAC_SHA256));
+      }
+      return mac;
+    } catch (Exception e) {
+      throw new RuntimeException("MAC CALC FAILED.", e);
+    }
+  }
+
+  private static byte[] hmac(byte[] key, String data) {
+    return newMac(key).doFinal(data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] sha256(byte[] data) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 CALC FAILED.", e);
+    }
+  }
+
+  /*
+   * URI encode every byte except the unreserved characters: 'A'-'Z', 'a'-'z', '0'-'9', '-', '.',
+   * '_', and '~'.
+   */
+  static String uriEncode(String s, boolean encodeSlash) {
+    StringBuilder sb = new StringBuilder(s.length() + 16);
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      char c = (char) (b & 0xff);
+      if ((c >= 'A' && c <= 'Z')
+          || (c >= 'a' && c <= 'z')
+          || (c >= '0' && c <= '9')
+          || c == '-'
+          || c == '.'
+          || c == '_'
+          || c == '~'
+          || (c == '/' && !encodeSlash)) {
+        sb.append(c);
+      } else {
+        sb.append('%').append(hex.encode(new byte[]{b}).toUpperCase());
+      }
+    }
+    return sb.toString();
+  }
+
+  /*
+   * The query parameters, sorted by encoded name, then by encoded value. The pairs must be sorted
+   * before they are joined, as '-' sorts before '=', e.g., "quota-type" comes before "quota".
+   */
+  static String canonicalQuery(HttpUrl url) {
+    List<String[]> params = new ArrayList<>(url.querySize());
+    for (int i = 0; i < url.querySize(); i++) {
+      String value = url.queryParameterValue(i);
+      params.add(
+          new String[] {
+            uriEncode(url.queryParameterName(i), true), uriEncode(value == null ? "" : value, true)
+          });
+    }
+    params.sort(Comparator.<String[], String>comparing(p -> p[0]).thenComparing(p -> p[1]));
+    StringJoiner query = new StringJoiner("&");
+    for (String[] param : params) {
+      query.add(param[0] + "=" + param[1]);
+    }
+    return query.toString();
+  }
+
+  private static String hostHeader(HttpUrl url) {
+    String host = url.host().contains(":") ? "[" + url.host() + "]" : url.host();
+    return url.port() == HttpUrl.defaultPort(url.scheme()) ? host : host + ":" + url.port();
+  }
+
+  private static byte[] payload(Request request) throws IOException {
+    RequestBody body = request.body();
+    if (body == null) {
+      return new byte[0];
+    }
+    Buffer buffer = new Buffer();
+    body.writeTo(buffer);
+    return buffer.readByteArray();
+  }
+
+  @Override
+  public Response intercept(Interceptor.Chain chain) throws IOException {
+    return chain.proceed(sign(chain.request()));
+  }
+
+  Request sign(Request request) throws IOException {
+    String amzDate = this.amzDate.now();
+    String dateStamp = amzDate.substring(0, 8);
+    String scope = dateStamp + "/" + region + "/" + SERVICE + "/aws4_request";
+
+    HttpUrl url = request.url();
+    String host = hostHeader(url);
+    String payloadHash = hex.encode(sha256(payload(request)));
+
+    String canonicalRequest =
+        request.method()
+            + '\n'
+            + uriEncode(url.encodedPath().isEmpty() ? "/" : decodedPath(url), false)
+            + '\n'
+            + canonicalQuery(url)
+            + '\n'
+            + "host:"
+            + host
+            + '\n'
+            + "x-amz-content-sha256:"
+            + payloadHash
+            + '\n'
+            + "x-amz-date:"
+            + amzDate
+            + '\n'
+            + '\n'
+            + SIGNED_HEADERS
+            + '\n'
+            + payloadHash;
+
+    String stringToSign =
+        ALGORITHM
+            + '\n'
+            + amzDate
+            + '\n'
+            + scope
+            + '\n'
+            + hex.encode(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+    String signature =
+        hex.encode(signWithKey(dateStamp, stringToSign.getBytes(StandardCharsets.UTF_8)));
+
+    String authorization =
+        ALGORITHM
+            + " Credential="
+            + accessKey
+            + "/"
+            + scope
+            + ", SignedHeaders="
+            + SIGNED_HEADERS
+            + ", Signature="
+            + signature;
+
+    return request
+        .newBuilder()
+        .header("Host", host)
+        .header("x-amz-date", amzDate)
+        .header("x-amz-content-sha256", payloadHash)
+        .header("Authorization", authorization)
+        .build();
+  }
+
+  private static String decodedPath(HttpUrl url) {
+    StringBuilder sb = new StringBuilder();
+    for (String segment : url.pathSegments()) {
+      sb.append('/').append(segment);
+    }
+    return sb.toString();
+  }
+
+  private byte[] signWithKey(String dateStamp, byte[] data) {
+    SigningKey key = signingKey.get();
+    if (key == null || !key.dateStamp.equals(dateStamp)) {
+      byte[] kDate = hmac(secretKey, dateStamp);
+      byte[] kRegion = hmac(kDate, region);
+      byte[] kService = hmac(kRegion, SERVICE);
+      byte[] kSigning = hmac(kService, "aws4_request");
+      key = new SigningKey(dateStamp, new SecretKeySpec(kSigning, HMAC_SHA256));
+      signingKey.set(key);
+    }
+
+    Mac mac = this.mac.get();
+    try {
+      mac.init(key.key);
+    } catch (Exception e) {
+      throw new RuntimeException("MAC CALC FAILED.", e);
+    }
+    return mac.doFinal(data);
+  }
+
+  private static final class SigningKey {
+
+    private final String dateStamp;
+    private final SecretKeySpec key;
+
+    private SigningKey(String dateStamp, SecretKeySpec key) {
+      this.dateStamp = dateStamp;
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.util.concurrent.RateLimiter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.twonote.rgwadmin4j.OperationClass;
+
+/**
+ * Limits the rate and the concurrency of the requests, separately per {@link OperationClass}.
+ *
+ * <p>The rate is limited by a token bucket holding up to one second of tokens, the concurrency by
+ * a fair semaphore held until the response body is closed, so that a streamed body, e.g., of
+ * {@code streamUsage}, holds its slot while it is read. Requests over the limits wait in the
+ * calling thread, which is a dispatcher thread for asynchronous calls. It should run after the
+ * retries, so that each attempt takes its share of the budgets.
+ *
+ * <p>A GET which modifies, e.g., a bucket index check with fix, counts as a write.
+ */
+final class Throttle implements Interceptor {
+
+  private final Map<OperationClass, RateLimiter> rates = new EnumMap<>(OperationClass.class);
+  private final Map<OperationClass, Semaphore> slots = new EnumMap<>(OperationClass.class);
+
+  Throttle(Map<OperationClass, Double> rateLimits, Map<OperationClass, Integer> concurrencyLimits) {
+    rateLimits.forEach((c, rate) -> rates.put(c, RateLimiter.create(rate)));
+    concurrencyLimits.forEach((c, max) -> slots.put(c, new Semaphore(max, true)));
+  }
+
+  static OperationClass classify(Request request) {
+    switch (request.method()) {
+      case "GET":
+      case "HEAD":
+        return Idempotency.of(request) == Idempotency.IDEMPOTENT
+            ? OperationClass.READ
+            : OperationClass.WRITE;
+      case "DELETE":
+        List<String> path = request.url().pathSegments();
+        return "usage".equals(path.get(path.size() - 1))
+            ? OperationClass.USAGE_TRIM
+            : OperationClass.DELETE;
+      default:
+        return OperationClass.WRITE;
+    }
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    OperationClass operationClass = classify(chain.request());
+    RateLimiter rate = rates.get(operationClass);
+    if (rate != null) {
+      rate.acquire();
+    }
+    Semaphore semaphore = slots.get(operationClass);
+    if (semaphore == null) {
+      return chain.proceed(chain.request());
+    }
+    try {
+      semaphore.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for a request slot");
+    }
+    Response response;
+    try {
+      response = chain.proceed(chain.request());
+    } catch (IOException | RuntimeException e) {
+      semaphore.release();
+      throw e;
+    }
+    ResponseBody body = response.body();
+    if (body == null) {
+      semaphore.release();
+      return response;
+    }
+    return response.newBuilder().body(new SlotBody(body, semaphore)).build();
+  }
+
+  /*
+   * Releases the slot once the body is closed.
+   */
+  private static final class SlotBody extends ResponseBody {
+
+    private final ResponseBody delegate;
+    private final BufferedSource source;
+
+    private SlotBody(ResponseBody delegate, Semaphore semaphore) {
+      this.delegate = delegate;
+      AtomicBoolean released = new AtomicBoolean();
+      this.source =
+          Okio.buffer(
+              new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                  try {
+                    super.close();
+                  } finally {
+                    if (released.compareAndSet(false, true)) {
+                      semaphore.release();
+                    }
+                  }
+                }
+              });
+    }
+
+    @Override
+    public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+      return delegate.contentLength();
+    }
+
+    @Override
+    public BufferedSource source() {
+      return source;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import okhttp3.Response;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+/**
+ * Reads the entries of a usage response body as flat {@link UsageRecord}s, one bucket usage at a
+ * time.
+ *
+ * <p>Like {@link JsonArrayStream}, the body is decoded from the socket as the stream is consumed
+ * and no {@link org.twonote.rgwadmin4j.model.UsageInfo} is built. The summary, if any, is
+ * skipped. Closing the stream closes the response.
+ */
+final class UsageRecordStream {
+
+  private UsageRecordStream() {
+  }
+
+  /**
+   * @param response A successful usage response, or null for an empty stream.
+   */
+  static Stream<UsageRecord> of(Response response) {
+    if (response == null) {
+      return Stream.empty();
+    }
+    Iterator<UsageRecord> iterator =
+        new RecordIterator(new JsonReader(response.body().charStream()));
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(response::close);
+  }
+
+  /*
+   * Walks {"entries": [{"user": ..., "buckets": [{..., "categories": [...]}]}], ...} one bucket
+   * usage per step, keeping the position in the nesting between the steps.
+   */
+  private static final class RecordIterator implements Iterator<UsageRecord> {
+
+    private final JsonReader reader;
+    private final Deque<UsageRecord> pending = new ArrayDeque<>();
+
+    private boolean started;
+    private boolean done;
+    private boolean inEntries;
+    private boolean inBuckets;
+    private String user;
+
+    private RecordIterator(JsonReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (pending.isEmpty() && !done) {
+          advance();
+        }
+        return !pending.isEmpty();
+      } catch (IOException
+          | IllegalStateException
+          | NumberFormatException
+          | JsonParseException e) {
+        throw new RgwAdminException(500, "IOException", e);
+      }
+    }
+
+    @Override
+    public UsageRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return pending.poll();
+    }
+
+    private void advance() throws IOException {
+      if (!started) {
+        started = true;
+        if (reader.peek() == JsonToken.END_DOCUMENT) {
+          done = true;
+          return;
+        }
+        reader.beginObject();
+      }
+      if (inBuckets) {
+        if (reader.hasNext()) {
+          readBucket();
+        } else {
+          reader.endArray();
+          inBuckets = false;
+          // Fields of the entry after the buckets, if any.
+          enterBuckets();
+        }
+      } else if (inEntries) {
+        if (reader.hasNext()) {
+          reader.beginObject();
+          user = null;
+          enterBuckets();
+        } else {
+          reader.endArray();
+          inEntries = false;
+        }
+      } else {
+        while (reader.hasNext()) {
+          if ("entries".equals(reader.nextName())) {
+            reader.beginArray();
+            inEntries = true;
+            return;
+          }
+          reader.skipValue();
+        }
+        reader.endObject();
+        done = true;
+      }
+    }
+
+    /*
+     * Reads the fields of an entry up to its buckets, or to its end.
+     */
+    private void enterBuckets() throws IOException {
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if ("user".equals(name)) {
+          user = reader.nextString();
+        } else if ("buckets".equals(name)) {
+          reader.beginArray();
+          inBuckets = true;
+          return;
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+
+    private void readBucket() throws IOException {
+      String bucket = null;
+      String owner = null;
+      long epoch = 0;
+      boolean categoriesRead = false;
+      boolean late = false;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "bucket":
+            bucket = reader.nextString();
+            late |= categoriesRead;
+            break;
+          case "epoch":
+            epoch = reader.nextLong();
+            late |= categoriesRead;
+            break;
+          case "owner":
+            owner = reader.nextString();
+            late |= categoriesRead;
+            break;
+          case "categories":
+            readCategories(bucket, epoch, owner);
+            categoriesRead = true;
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (late) {
+        // Radosgw writes the categories last, but be lenient to any other order.
+        fillIn(bucket, epoch, owner);
+      }
+    }
+
+    private void readCategories(String bucket, long epoch, String owner) throws IOException {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        String category = null;
+        long bytesSent = 0;
+        long bytesReceived = 0;
+        long ops = 0;
+        long successfulOps = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+          switch (reader.nextName()) {
+            case "category":
+              category = reader.nextString();
+              break;
+            case "bytes_sent":
+              bytesSent = reader.nextLong();
+              break;
+            case "bytes_received":
+              bytesReceived = reader.nextLong();
+              break;
+            case "ops":
+              ops = reader.nextLong();
+              break;
+            case "successful_ops":
+              successfulOps = reader.nextLong();
+              break;
+            default:
+              reader.skipValue();
+          }
+        }
+        reader.endObject();
+        pending.add(
+            new UsageRecord(
+                user != null ? user : owner,
+                bucket,
+                owner,
+                epoch,
+                category,
+                bytesSent,
+                bytesReceived,
+                ops,
+                successfulOps));
+      }
+      reader.endArray();
+    }
+
+    /*
+     * Only the records of the current bucket usage are pending.
+     */
+    private void fillIn(String bucket, long epoch, String owner) {
+      int count = pending.size();
+      for (int i = 0; i < count; i++) {
+        UsageRecord r = pending.poll();
+        pending.add(
+            new UsageRecord(
+                user != null ? user : owner,
+                bucket,
+                owner,
+                epoch,
+                r.getCategory(),
+                r.getBytesSent(),
+                r.getBytesReceived(),
+                r.getOps(),
+                r.getSuccessfulOps()));
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.twonote.rgwadmin4j.metrics;
+
+/**
+ * Receives the measurements of the HTTP requests made by a client, e.g., to feed a monitoring
+ * system. Register it with {@link org.twonote.rgwadmin4j.RgwAdminBuilder#metricsListener(
+ * MetricsListener)}.
+ *
+ * <p>Requests are named by their operation, derived from the resource of the admin API, e.g.,
+ * {@code user}, {@code bucket}, {@code usage} or {@code metadata}, followed by the sub-resource,
+ * if any, e.g., {@code user.quota} or {@code user.key}. Together with the HTTP method, it tells
+ * the admin operation apart, e.g., GET user is {@link org.twonote.rgwadmin4j.RgwAdmin#getUserInfo(
+ * String)}.
+ *
+ * <p>The methods are called by the threads making the requests, concurrently, and should return
+ * quickly. All of them do nothing by default.
+ */
+public interface MetricsListener {
+
+  /**
+   * A request is about to be sent, e.g., to count the requests in flight.
+   *
+   * @param operation The operation, e.g., {@code user}.
+   * @param method    The HTTP method, e.g., {@code GET}.
+   */
+  default void requestStarted(String operation, String method) {
+  }
+
+  /**
+   * A request started by {@link #requestStarted(String, String)} completed, i.e., its response
+   * was read, or it failed.
+   *
+   * @param metrics The measurements of the request.
+   */
+  default void requestCompleted(RequestMetrics metrics) {
+  }
+
+  /**
+   * A failed request is sent again, see {@link org.twonote.rgwadmin4j.RetryPolicy}. Retries are
+   * part of the request; they are not reported as requests of their own.
+   *
+   * @param operation The operation, e.g., {@code user}.
+   * @param method    The HTTP method, e.g., {@code GET}.
+   * @param attempt   The number of the attempt about to be made, starting from 2.
+   */
+  default void requestRetried(String operation, String method, int attempt) {
+  }
+}
@@ -0,0 +1,87 @@
+package org.twonote.rgwadmin4j.metrics;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The measurements of a completed request, see {@link MetricsListener#requestCompleted(
+ * RequestMetrics)}.
+ */
+public final class RequestMetrics {
+
+  private final String operation;
+  private final String method;
+  private final int status;
+  private final long latencyNanos;
+  private final long bytesReceived;
+  private final Throwable failure;
+
+  public RequestMetrics(
+      String operation,
+      String method,
+      int status,
+      long latencyNanos,
+      long bytesReceived,
+      Throwable failure) {
+    this.operation = operation;
+    this.method = method;
+    this.status = status;
+    this.latencyNanos = latencyNanos;
+    this.bytesReceived = bytesReceived;
+    this.failure = failure;
+  }
+
+  /**
+   * @return The operation, e.g., {@code user} or {@code user.quota}.
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * @return The HTTP method, e.g., {@code GET}.
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * @return The HTTP status code of the last attempt; 0 if no response was received.
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * @return The time from sending the request until the response body was read, including
+   * retries.
+   */
+  public long getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  /**
+   * @return The number of bytes of the response body read.
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * @return The I/O error which failed the request; null if a response was read completely.
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("operation", operation)
+        .add("method", method)
+        .add("status", status)
+        .add("latencyNanos", latencyNanos)
+        .add("bytesReceived", bytesReceived)
+        .add("failure", failure)
+        .toString();
+  }
+}
@@ -0,0 +1,87 @@
+package org.twonote.rgwadmin4j.model;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+/**
+ * Represents a page of radosgw metadata keys, e.g., user IDs or bucket names.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ * {
+ *   "keys": ["foo", "bar"],
+ *   "truncated": true,
+ *   "count": 2,
+ *   "marker": "1_1491379200.123456_42.1"
+ * }
+ * </pre>
+ *
+ * <p>If the page is truncated, pass {@link #getMarker()} to the next request to continue.
+ */
+public class MetadataPage {
+
+  @SerializedName("keys")
+  @Expose
+  private List<String> keys;
+
+  @SerializedName("truncated")
+  @Expose
+  private boolean truncated;
+
+  @SerializedName("count")
+  @Expose
+  private int count;
+
+  @SerializedName("marker")
+  @Expose
+  private String marker;
+
+  public List<String> getKeys() {
+    return keys;
+  }
+
+  public void setKeys(List<String> keys) {
+    this.keys = keys;
+  }
+
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  public void setTruncated(boolean truncated) {
+    this.truncated = truncated;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  public String getMarker() {
+    return marker;
+  }
+
+  public void setMarker(String marker) {
+    this.marker = marker;
+  }
+
+  @Override
+  public String toString() {
+    return "MetadataPage{"
+        + "keys="
+        + keys
+        + ", truncated="
+        + truncated
+        + ", count="
+        + count
+        + ", marker='"
+        + marker
+        + '\''
+        + '}';
+  }
+}
@@ -0,0 +1,110 @@
+package org.twonote.rgwadmin4j.model.usage;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The usage of a bucket in a category during an hour, as streamed by {@link
+ * org.twonote.rgwadmin4j.RgwAdmin#streamUsage(java.util.Map)}.
+ *
+ * <p>It is a flattened {@link BucketUsage} with one of its categories.
+ */
+public final class UsageRecord {
+
+  private final String user;
+  private final String bucket;
+  private final String owner;
+  private final long epoch;
+  private final String category;
+  private final long bytesSent;
+  private final long bytesReceived;
+  private final long ops;
+  private final long successfulOps;
+
+  public UsageRecord(
+      String user,
+      String bucket,
+      String owner,
+      long epoch,
+      String category,
+      long bytesSent,
+      long bytesReceived,
+      long ops,
+      long successfulOps) {
+    this.user = user;
+    this.bucket = bucket;
+    this.owner = owner;
+    this.epoch = epoch;
+    this.category = category;
+    this.bytesSent = bytesSent;
+    this.bytesReceived = bytesReceived;
+    this.ops = ops;
+    this.successfulOps = successfulOps;
+  }
+
+  /**
+   * @return The user who made the requests.
+   */
+  public String getUser() {
+    return user;
+  }
+
+  /**
+   * @return The bucket; empty for requests not on a bucket, e.g., list_buckets.
+   */
+  public String getBucket() {
+    return bucket;
+  }
+
+  /**
+   * @return The owner of the bucket, which may differ from the user, e.g., for requests to a
+   * public bucket.
+   */
+  public String getOwner() {
+    return owner;
+  }
+
+  /**
+   * @return The start of the hour, in seconds since the epoch.
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * @return The category of the requests, e.g., {@code put_obj}.
+   */
+  public String getCategory() {
+    return category;
+  }
+
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  public long getOps() {
+    return ops;
+  }
+
+  public long getSuccessfulOps() {
+    return successfulOps;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("user", user)
+        .add("bucket", bucket)
+        .add("owner", owner)
+        .add("epoch", epoch)
+        .add("category", category)
+        .add("bytesSent", bytesSent)
+        .add("bytesReceived", bytesReceived)
+        .add("ops", ops)
+        .add("successfulOps", successfulOps)
+        .toString();
+  }
+}
@@ -0,0 +1,156 @@
+package org.twonote.rgwadmin4j.usage;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from non-negative long group keys to the row count, and the sums
+ * and maxima of the metrics of the rows, kept in primitive arrays.
+ */
+final class GroupMap {
+
+  private static final long EMPTY = -1;
+
+  private final int metrics;
+
+  private long[] keys;
+  private long[] counts;
+  private long[] sums;
+  private long[] maxima;
+  private int size;
+
+  GroupMap(int metrics) {
+    this.metrics = metrics;
+    allocate(16);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    counts = new long[capacity];
+    sums = new long[capacity * metrics];
+    maxima = new long[capacity * metrics];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return The slot of the key, added if absent.
+   */
+  int slot(long key) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != key) {
+      if (keys[slot] == EMPTY) {
+        if (size * 2 >= keys.length) {
+          grow();
+          return slot(key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * @return The slot of the key; -1 if absent.
+   */
+  int find(long key) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != key) {
+      if (keys[slot] == EMPTY) {
+        return -1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Account a row with the given metrics to the slot.
+   */
+  void add(int slot, long[][] columns, int row) {
+    counts[slot]++;
+    int base = slot * metrics;
+    for (int m = 0; m < metrics; m++) {
+      long value = columns[m][row];
+      sums[base + m] += value;
+      if (value > maxima[base + m]) {
+        maxima[base + m] = value;
+      }
+    }
+  }
+
+  /**
+   * Add up the groups of the other map into this one.
+   */
+  void merge(GroupMap other) {
+    for (int from = 0; from < other.keys.length; from++) {
+      if (other.keys[from] == EMPTY) {
+        continue;
+      }
+      int to = slot(other.keys[from]);
+      counts[to] += other.counts[from];
+      for (int m = 0; m < metrics; m++) {
+        sums[to * metrics + m] += other.sums[from * metrics + m];
+        maxima[to * metrics + m] =
+            Math.max(maxima[to * metrics + m], other.maxima[from * metrics + m]);
+      }
+    }
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldCounts = counts;
+    long[] oldSums = sums;
+    long[] oldMaxima = maxima;
+    allocate(oldKeys.length * 2);
+    size = 0;
+    for (int from = 0; from < oldKeys.length; from++) {
+      if (oldKeys[from] == EMPTY) {
+        continue;
+      }
+      int to = slot(oldKeys[from]);
+      counts[to] = oldCounts[from];
+      System.arraycopy(oldSums, from * metrics, sums, to * metrics, metrics);
+      System.arraycopy(oldMaxima, from * metrics, maxima, to * metrics, metrics);
+    }
+  }
+
+  /**
+   * @return The keys of the groups, in ascending order.
+   */
+  long[] sortedKeys() {
+    long[] sorted = new long[size];
+    int i = 0;
+    for (long key : keys) {
+      if (key != EMPTY) {
+        sorted[i++] = key;
+      }
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  long count(int slot) {
+    return counts[slot];
+  }
+
+  long sum(int slot, int metric) {
+    return sums[slot * metrics + metric];
+  }
+
+  long max(int slot, int metric) {
+    return maxima[slot * metrics + metric];
+  }
+}
@@ -0,0 +1,428 @@
+package org.twonote.rgwadmin4j.usage;
+
+import com.google.common.base.MoreObjects;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import org.twonote.rgwadmin4j.usage.UsageTable.Dimension;
+import org.twonote.rgwadmin4j.usage.UsageTable.Metric;
+
+/**
+ * Rolls up the rows of a {@link UsageTable} into groups, e.g., the daily usage of each bucket, or
+ * the usage of each user and category.
+ *
+ * <p>The rows are grouped by any of the dictionary encoded columns and, optionally, by time
+ * buckets of whole hours. For each group the aggregate holds the number of rows, and the sum, max
+ * and rate of each metric.
+ *
+ * <p>The groups are accounted in primitive hash maps. Large tables are split into chunks which
+ * are aggregated in parallel in a {@link ForkJoinPool} and then merged.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * UsageAggregator daily =
+ *     UsageAggregator.builder().groupBy(Dimension.BUCKET).timeBucket(Duration.ofDays(1)).build();
+ * UsageAggregator.Result result = daily.aggregate(table);
+ * for (int group = 0; group < result.size(); group++) {
+ *   System.out.println(
+ *       result.name(Dimension.BUCKET, group)
+ *           + " " + result.timeBucket(group)
+ *           + " " + result.sum(group, Metric.BYTES_SENT));
+ * }
+ * }</pre>
+ */
+public final class UsageAggregator {
+
+  private static final long HOUR = 3600;
+
+  /*
+   * Rows aggregated by a single task, large enough to amortize merging its groups.
+   */
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  private static final Metric[] METRICS = Metric.values();
+
+  private final Dimension[] dimensions;
+  private final long timeBucket;
+  private final IntPredicate filter;
+  private final ForkJoinPool pool;
+
+  private UsageAggregator(Builder builder) {
+    this.dimensions = builder.dimensions.toArray(new Dimension[0]);
+    this.timeBucket = builder.timeBucket;
+    this.filter = builder.filter;
+    this.pool = builder.pool;
+  }
+
+  /**
+   * Start an aggregator with the defaults: all rows in a single group, in the common pool.
+   *
+   * @return The builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Aggregate the rows of the table.
+   *
+   * @param table The table.
+   * @return The groups.
+   * @throws IllegalArgumentException if there are too many possible groups to number them by a
+   *                                  long.
+   */
+  public Result aggregate(UsageTable table) {
+    long[] epochs = table.epochs();
+    long firstEpoch = Long.MAX_VALUE;
+    long lastEpoch = Long.MIN_VALUE;
+    for (long epoch : epochs) {
+      firstEpoch = Math.min(firstEpoch, epoch);
+      lastEpoch = Math.max(lastEpoch, epoch);
+    }
+
+    long[] radices = new long[dimensions.length + 1];
+    long groups = 1;
+    try {
+      for (int d = 0; d < dimensions.length; d++) {
+        radices[d] = Math.max(1, table.names(dimensions[d]).size());
+        groups = Math.multiplyExact(groups, radices[d]);
+      }
+      radices[dimensions.length] =
+          timeBucket == 0 || table.size() == 0
+              ? 1
+              : Math.floorDiv(lastEpoch, timeBucket) - Math.floorDiv(firstEpoch, timeBucket) + 1;
+      Math.multiplyExact(groups, radices[dimensions.length]);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("too many groups", e);
+    }
+
+    Scan scan = new Scan(table, radices, table.size() == 0 ? 0 : firstEpoch);
+    GroupMap map = table.size() <= CHUNK_SIZE ? scan.compute() : pool.invoke(scan);
+    long seconds =
+        timeBucket != 0
+            ? timeBucket
+            : table.size() == 0 ? HOUR : lastEpoch - firstEpoch + HOUR;
+    return new Result(table, map, dimensions, radices, timeBucket, scan.firstBucket, seconds);
+  }
+
+  private final class Scan extends RecursiveTask<GroupMap> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UsageTable table;
+    private final long[] radices;
+    private final long firstBucket;
+    private final int from;
+    private final int to;
+
+    private Scan(UsageTable table, long[] radices, long firstEpoch) {
+      this(
+          table,
+          radices,
+          timeBucket == 0 ? 0 : Math.floorDiv(firstEpoch, timeBucket),
+          0,
+          table.size());
+    }
+
+    private Scan(UsageTable table, long[] radices, long firstBucket, int from, int to) {
+      this.table = table;
+      this.radices = radices;
+      this.firstBucket = firstBucket;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected GroupMap compute() {
+      if (to - from <= CHUNK_SIZE) {
+        return scan();
+      }
+      int middle = (from + to) >>> 1;
+      Scan left = new Scan(table, radices, firstBucket, from, middle);
+      Scan right = new Scan(table, radices, firstBucket, middle, to);
+      left.fork();
+      GroupMap r = right.compute();
+      GroupMap l = left.join();
+      if (l.size() >= r.size()) {
+        l.merge(r);
+        return l;
+      }
+      r.merge(l);
+      return r;
+    }
+
+    private GroupMap scan() {
+      int[][] ids = new int[dimensions.length][];
+      for (int d = 0; d < dimensions.length; d++) {
+        ids[d] = table.ids(dimensions[d]);
+      }
+      long[][] columns = new long[METRICS.length][];
+      for (int m = 0; m < METRICS.length; m++) {
+        columns[m] = table.values(METRICS[m]);
+      }
+      long[] epochs = table.epochs();
+
+      GroupMap map = new GroupMap(METRICS.length);
+      for (int row = from; row < to; row++) {
+        if (filter != null && !filter.test(row)) {
+          continue;
+        }
+        long key = 0;
+        for (int d = 0; d < ids.length; d++) {
+          key = key * radices[d] + ids[d][row];
+        }
+        if (timeBucket != 0) {
+          key = key * radices[ids.length] + Math.floorDiv(epochs[row], timeBucket) - firstBucket;
+        }
+        map.add(map.slot(key), columns, row);
+      }
+      return map;
+    }
+  }
+
+  /**
+   * The groups of an aggregation, in ascending order of the IDs of their names, column by column
+   * in the order of {@link Dimension}, and then of their time buckets.
+   */
+  public static final class Result {
+
+    private final UsageTable table;
+    private final Dimension[] dimensions;
+    private final long[] radices;
+    private final long timeBucket;
+    private final long firstBucket;
+    private final long seconds;
+
+    private final long[] keys;
+    private final long[] counts;
+    private final long[][] sums;
+    private final long[][] maxima;
+
+    private Result(
+        UsageTable table,
+        GroupMap map,
+        Dimension[] dimensions,
+        long[] radices,
+        long timeBucket,
+        long firstBucket,
+        long seconds) {
+      this.table = table;
+      this.dimensions = dimensions;
+      this.radices = radices;
+      this.timeBucket = timeBucket;
+      this.firstBucket = firstBucket;
+      this.seconds = seconds;
+
+      this.keys = map.sortedKeys();
+      this.counts = new long[keys.length];
+      this.sums = new long[METRICS.length][keys.length];
+      this.maxima = new long[METRICS.length][keys.length];
+      for (int group = 0; group < keys.length; group++) {
+        int slot = map.find(keys[group]);
+        counts[group] = map.count(slot);
+        for (int m = 0; m < METRICS.length; m++) {
+          sums[m][group] = map.sum(slot, m);
+          maxima[m][group] = map.max(slot, m);
+        }
+      }
+    }
+
+    /**
+     * @return The number of groups.
+     */
+    public int size() {
+      return keys.length;
+    }
+
+    /**
+     * @param dimension One of the grouping columns.
+     * @param group     The group.
+     * @return The ID of the name of the group in the column.
+     */
+    public int id(Dimension dimension, int group) {
+      long key = keys[group];
+      if (timeBucket != 0) {
+        key /= radices[dimensions.length];
+      }
+      for (int d = dimensions.length - 1; d >= 0; d--) {
+        if (dimensions[d] == dimension) {
+          return (int) (key % radices[d]);
+        }
+        key /= radices[d];
+      }
+      throw new IllegalArgumentException("not grouped by " + dimension);
+    }
+
+    /**
+     * @param dimension One of the grouping columns.
+     * @param group     The group.
+     * @return The name of the group in the column, e.g., the user.
+     */
+    public String name(Dimension dimension, int group) {
+      return table.name(dimension, id(dimension, group));
+    }
+
+    /**
+     * @param group The group.
+     * @return The start of the time bucket of the group; null if not grouped by time.
+     */
+    public Instant timeBucket(int group) {
+      if (timeBucket == 0) {
+        return null;
+      }
+      long index = keys[group] % radices[dimensions.length];
+      return Instant.ofEpochSecond((firstBucket + index) * timeBucket);
+    }
+
+    /**
+     * @param group The group.
+     * @return The number of rows in the group.
+     */
+    public long count(int group) {
+      return counts[group];
+    }
+
+    /**
+     * @param group  The group.
+     * @param metric The metric.
+     * @return The sum of the metric over the rows of the group.
+     */
+    public long sum(int group, Metric metric) {
+      return sums[metric.ordinal()][group];
+    }
+
+    /**
+     * @param group  The group.
+     * @param metric The metric.
+     * @return The max of the metric over the rows of the group, e.g., the busiest hour of a bucket
+     * in a category.
+     */
+    public long max(int group, Metric metric) {
+      return maxima[metric.ordinal()][group];
+    }
+
+    /**
+     * The average rate of the metric, e.g., bytes sent per second.
+     *
+     * @param group  The group.
+     * @param metric The metric.
+     * @return The sum of the metric divided by the length of the time bucket, or of the time range
+     * of the table if not grouped by time, in seconds.
+     */
+    public double rate(int group, Metric metric) {
+      return (double) sum(group, metric) / seconds;
+    }
+
+    /**
+     * The groups with the largest sums of the metric, e.g., the top tenants by bytes sent.
+     *
+     * @param metric The metric.
+     * @param n      Max number of groups.
+     * @return The groups, the largest sum first.
+     */
+    public int[] top(Metric metric, int n) {
+      long[] values = sums[metric.ordinal()];
+      PriorityQueue<Integer> smallest =
+          new PriorityQueue<>(
+              (a, b) -> values[a] != values[b] ? Long.compare(values[a], values[b]) : b - a);
+      for (int group = 0; group < values.length; group++) {
+        smallest.add(group);
+        if (smallest.size() > n) {
+          smallest.poll();
+        }
+      }
+      int[] top = new int[smallest.size()];
+      for (int i = top.length - 1; i >= 0; i--) {
+        top[i] = smallest.poll();
+      }
+      return top;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("groups", size())
+          .add("by", Arrays.toString(dimensions))
+          .add("timeBucket", timeBucket != 0 ? Duration.ofSeconds(timeBucket) : null)
+          .toString();
+    }
+  }
+
+  /**
+   * Builds a {@link UsageAggregator}.
+   */
+  public static final class Builder {
+
+    private final Set<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+    private long timeBucket;
+    private IntPredicate filter;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the columns to group the rows by. By default, all rows are in a single group, or one
+     * per time bucket.
+     *
+     * @param dimensions The columns, e.g., {@code USER} and {@code CATEGORY}.
+     * @return The builder.
+     */
+    public Builder groupBy(Dimension... dimensions) {
+      this.dimensions.clear();
+      this.dimensions.addAll(Arrays.asList(dimensions));
+      return this;
+    }
+
+    /**
+     * Sets the length of the time buckets to group the rows by, e.g., {@code Duration.ofDays(1)}.
+     * The time buckets are aligned to the epoch, so days start at midnight UTC.
+     *
+     * @param timeBucket The length of the time buckets, in whole hours.
+     * @return The builder.
+     */
+    public Builder timeBucket(Duration timeBucket) {
+      if (timeBucket.getSeconds() <= 0
+          || timeBucket.getSeconds() % HOUR != 0
+          || timeBucket.getNano() != 0) {
+        throw new IllegalArgumentException("timeBucket should be a positive number of hours");
+      }
+      this.timeBucket = timeBucket.getSeconds();
+      return this;
+    }
+
+    /**
+     * Sets the rows to aggregate, e.g., {@code row -> table.id(Dimension.CATEGORY, row) == put}.
+     * The filter is called concurrently.
+     *
+     * @param filter The rows to aggregate, by their index in the table.
+     * @return The builder.
+     */
+    public Builder filter(IntPredicate filter) {
+      this.filter = filter;
+      return this;
+    }
+
+    /**
+     * Sets the pool to aggregate large tables in.
+     *
+     * @param pool The pool.
+     * @return The builder.
+     */
+    public Builder pool(ForkJoinPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    public UsageAggregator build() {
+      return new UsageAggregator(this);
+    }
+  }
+}
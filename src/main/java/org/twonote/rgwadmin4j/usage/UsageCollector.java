@@ -0,0 +1,285 @@
+package org.twonote.rgwadmin4j.usage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+/**
+ * Collects the usage log incrementally, e.g., for periodic billing runs, so that each run only
+ * reads the usage logged since the previous one.
+ *
+ * <p>The collector remembers the last hour processed, its high-water mark, in a local file: one
+ * mark for all users, advanced by {@link #collect(Instant, Consumer)}, and one per user which was
+ * collected separately by {@link #collectUser(String, Instant, Consumer)}. A run reads the usage
+ * from the hour after the mark up to the given end, passes it to the consumer as {@link
+ * UsageRecord}s, and then advances the mark. Records at or behind the mark of their user are
+ * never passed again.
+ *
+ * <p>Radosgw keeps adding to the usage of the current hour, so only complete hours are collected:
+ * the end is rounded down to the hour. Radosgw also writes its usage log with a delay, see {@code
+ * rgw usage log tick interval}, so the end should be some time behind now.
+ *
+ * <p>The mark is saved only after the consumer accepted all records of the run, so a failed run
+ * is repeated as a whole by the next one; the consumer may see a record more than once, never
+ * zero times. Optionally, the usage behind the mark is trimmed from Radosgw after it was saved.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * UsageCollector collector =
+ *     UsageCollector.builder(rgwAdmin, Paths.get("/var/lib/billing/usage-marks")).build();
+ * collector.collect(Instant.now().minus(Duration.ofMinutes(30)), billing::charge);
+ * }</pre>
+ */
+public final class UsageCollector {
+
+  private static final long HOUR = 3600;
+
+  private static final String ALL_USERS = "all";
+  private static final String USER_PREFIX = "user.";
+
+  private final RgwAdmin rgwAdmin;
+  private final Path file;
+  private final Instant initialStart;
+  private final boolean trim;
+
+  private UsageCollector(Builder builder) {
+    this.rgwAdmin = builder.rgwAdmin;
+    this.file = builder.file;
+    this.initialStart = builder.initialStart;
+    this.trim = builder.trim;
+  }
+
+  /**
+   * Start a collector with the defaults: the first run collects the whole usage log, and nothing
+   * is trimmed.
+   *
+   * @param rgwAdmin The client to read the usage with.
+   * @param file     The file to keep the high-water marks in. Created by the first run.
+   * @return The builder.
+   */
+  public static Builder builder(RgwAdmin rgwAdmin, Path file) {
+    return new Builder(rgwAdmin, file);
+  }
+
+  /**
+   * Pass the usage of all users from the mark up to the end to the consumer, and advance the mark
+   * of all users to the end.
+   *
+   * @param end      End of the usage to collect, exclusive. Rounded down to the hour.
+   * @param consumer The consumer of the records.
+   * @return The number of records passed to the consumer.
+   */
+  public synchronized long collect(Instant end, Consumer<UsageRecord> consumer) {
+    Properties marks = load();
+    long to = end.truncatedTo(ChronoUnit.HOURS).getEpochSecond();
+    long from = start(marks, ALL_USERS);
+    if (from >= to) {
+      return 0;
+    }
+
+    Map<String, Long> userMarks = new HashMap<>();
+    for (String name : marks.stringPropertyNames()) {
+      if (name.startsWith(USER_PREFIX)) {
+        userMarks.put(
+            name.substring(USER_PREFIX.length()), Long.valueOf(marks.getProperty(name)));
+      }
+    }
+    long count = read(usageParameters(from, to), userMarks, consumer);
+
+    // Users collected separately beyond the end keep their own mark.
+    long mark = to - HOUR;
+    userMarks.forEach(
+        (user, m) -> {
+          if (m <= mark) {
+            marks.remove(USER_PREFIX + user);
+          }
+        });
+    marks.setProperty(ALL_USERS, String.valueOf(mark));
+    save(marks);
+
+    if (trim) {
+      rgwAdmin.trimUsage(endParameter(to));
+    }
+    return count;
+  }
+
+  /**
+   * Pass the usage of a user from its mark up to the end to the consumer, and advance the mark of
+   * the user to the end.
+   *
+   * @param userId   The user.
+   * @param end      End of the usage to collect, exclusive. Rounded down to the hour.
+   * @param consumer The consumer of the records.
+   * @return The number of records passed to the consumer.
+   */
+  public synchronized long collectUser(
+      String userId, Instant end, Consumer<UsageRecord> consumer) {
+    Properties marks = load();
+    long to = end.truncatedTo(ChronoUnit.HOURS).getEpochSecond();
+    long from = start(marks, USER_PREFIX + userId);
+    if (from >= to) {
+      return 0;
+    }
+
+    Map<String, String> parameters = usageParameters(from, to);
+    parameters.put("uid", userId);
+    long count = read(parameters, new HashMap<>(), consumer);
+
+    marks.setProperty(USER_PREFIX + userId, String.valueOf(to - HOUR));
+    save(marks);
+
+    if (trim) {
+      rgwAdmin.trimUserUsage(userId, endParameter(to));
+    }
+    return count;
+  }
+
+  /**
+   * The high-water mark of a user, e.g., to report how far the billing is.
+   *
+   * @param userId The user.
+   * @return The start of the last hour collected; empty if none was.
+   */
+  public synchronized Optional<Instant> highWaterMark(String userId) {
+    Properties marks = load();
+    String mark = marks.getProperty(USER_PREFIX + userId, marks.getProperty(ALL_USERS));
+    return Optional.ofNullable(mark).map(m -> Instant.ofEpochSecond(Long.parseLong(m)));
+  }
+
+  private long read(
+      Map<String, String> parameters, Map<String, Long> userMarks, Consumer<UsageRecord> consumer) {
+    long count = 0;
+    try (Stream<UsageRecord> records = rgwAdmin.streamUsage(parameters)) {
+      for (UsageRecord record : (Iterable<UsageRecord>) records::iterator) {
+        Long mark = userMarks.get(record.getUser());
+        if (mark == null || record.getEpoch() > mark) {
+          consumer.accept(record);
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /*
+   * The start of the hour after the mark of the key, falling back to the mark of all users.
+   */
+  private long start(Properties marks, String key) {
+    String mark = marks.getProperty(key, marks.getProperty(ALL_USERS));
+    if (mark != null) {
+      return Long.parseLong(mark) + HOUR;
+    }
+    return initialStart == null ? 0 : initialStart.truncatedTo(ChronoUnit.HOURS).getEpochSecond();
+  }
+
+  private static Map<String, String> usageParameters(long from, long to) {
+    Map<String, String> parameters = endParameter(to);
+    if (from > 0) {
+      parameters.put("start", format(from));
+    }
+    return parameters;
+  }
+
+  private static Map<String, String> endParameter(long to) {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("end", format(to));
+    return parameters;
+  }
+
+  private static String format(long epoch) {
+    return UsageFetcher.timeFormatter.format(Instant.ofEpochSecond(epoch));
+  }
+
+  private Properties load() {
+    Properties marks = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      marks.load(in);
+    } catch (NoSuchFileException e) {
+      // No run yet.
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return marks;
+  }
+
+  /*
+   * Replace the file as a whole, so that a crash never leaves a partially written one.
+   */
+  private void save(Properties marks) {
+    Path absolute = file.toAbsolutePath();
+    try {
+      Path temp =
+          Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), null);
+      try {
+        try (OutputStream out = Files.newOutputStream(temp)) {
+          marks.store(out, "Usage high-water marks, in seconds since the epoch");
+        }
+        Files.move(
+            temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Builds a {@link UsageCollector}.
+   */
+  public static final class Builder {
+
+    private final RgwAdmin rgwAdmin;
+    private final Path file;
+    private Instant initialStart;
+    private boolean trim;
+
+    private Builder(RgwAdmin rgwAdmin, Path file) {
+      this.rgwAdmin = rgwAdmin;
+      this.file = file;
+    }
+
+    /**
+     * Sets where the first run starts, e.g., to skip the usage billed by another system.
+     *
+     * @param initialStart The start of the usage to collect when there is no mark yet.
+     * @return The builder.
+     */
+    public Builder initialStart(Instant initialStart) {
+      this.initialStart = initialStart;
+      return this;
+    }
+
+    /**
+     * Sets whether to trim the usage behind the mark from Radosgw after each run, keeping the
+     * usage log small.
+     *
+     * @param trim Whether to trim the collected usage.
+     * @return The builder.
+     */
+    public Builder trim(boolean trim) {
+      this.trim = trim;
+      return this;
+    }
+
+    public UsageCollector build() {
+      return new UsageCollector(this);
+    }
+  }
+}
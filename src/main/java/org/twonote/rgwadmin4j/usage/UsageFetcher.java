@@ -0,0 +1,297 @@
+package org.twonote.rgwadmin4j.usage;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.usage.Entries;
+import org.twonote.rgwadmin4j.model.usage.Summary;
+import org.twonote.rgwadmin4j.model.usage.Usage;
+
+/**
+ * Fetches the usage of a long time range, e.g., a month of usage of all users for billing, which
+ * is too large to be returned by a single {@link RgwAdmin#getUsage(Map)} in time.
+ *
+ * <p>The range is split into consecutive windows of the given length, and optionally by user, and
+ * the pieces are fetched concurrently. Their results are merged into one {@link UsageInfo}: the
+ * bucket usages of each user in chronological order, and the summaries of each user added up.
+ *
+ * <p>Radosgw logs usage by the hour, so the windows are whole hours.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * UsageFetcher fetcher =
+ *     UsageFetcher.builder(rgwAdmin).window(Duration.ofDays(1)).parallelism(8).build();
+ * UsageInfo usage =
+ *     fetcher.fetch(Instant.parse("2017-04-01T00:00:00Z"), Instant.parse("2017-05-01T00:00:00Z"));
+ * }</pre>
+ */
+public final class UsageFetcher {
+
+  static final DateTimeFormatter timeFormatter =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+  private final RgwAdmin rgwAdmin;
+  private final Duration window;
+  private final boolean splitByUser;
+  private final int parallelism;
+
+  private UsageFetcher(Builder builder) {
+    this.rgwAdmin = builder.rgwAdmin;
+    this.window = builder.window;
+    this.splitByUser = builder.splitByUser;
+    this.parallelism = builder.parallelism;
+  }
+
+  /**
+   * Start a fetcher with the defaults: daily windows, not split by user, 4 requests in flight.
+   *
+   * @param rgwAdmin The client to fetch the usage with.
+   * @return The builder.
+   */
+  public static Builder builder(RgwAdmin rgwAdmin) {
+    return new Builder(rgwAdmin);
+  }
+
+  /**
+   * Fetch the usage of all users in the time range.
+   *
+   * @param start Start of the range, inclusive.
+   * @param end   End of the range, exclusive.
+   * @return The merged usage.
+   * @see #fetch(Instant, Instant, Map)
+   */
+  public UsageInfo fetch(Instant start, Instant end) {
+    return fetch(start, end, Collections.emptyMap());
+  }
+
+  /**
+   * Fetch the usage in the time range.
+   *
+   * <p>The parameters are passed to each request, e.g., {@code uid} to fetch the usage of a single
+   * user, {@code show-entries} or {@code categories}. See {@link RgwAdmin#getUsage(Map)}. The time
+   * range replaces {@code start} and {@code end}.
+   *
+   * @param start      Start of the range, inclusive.
+   * @param end        End of the range, exclusive.
+   * @param parameters The parameters of the requests.
+   * @return The merged usage.
+   */
+  public UsageInfo fetch(Instant start, Instant end, Map<String, String> parameters) {
+    if (!start.isBefore(end)) {
+      throw new IllegalArgumentException("start should be before end");
+    }
+    List<String> userIds =
+        splitByUser && !parameters.containsKey("uid")
+            ? rgwAdmin.listUser()
+            : Collections.singletonList(parameters.get("uid"));
+
+    List<Map<String, String>> pieces = new ArrayList<>();
+    for (Instant from = start; from.isBefore(end); from = from.plus(window)) {
+      Instant to = from.plus(window).isBefore(end) ? from.plus(window) : end;
+      for (String userId : userIds) {
+        Map<String, String> piece = new HashMap<>(parameters);
+        piece.put("start", timeFormatter.format(from));
+        piece.put("end", timeFormatter.format(to));
+        if (userId != null) {
+          piece.put("uid", userId);
+        }
+        pieces.add(piece);
+      }
+    }
+    if (pieces.isEmpty()) {
+      // No users to split by.
+      UsageInfo empty = new UsageInfo();
+      empty.setEntries(new ArrayList<>());
+      empty.setSummary(new ArrayList<>());
+      return empty;
+    }
+    return merge(fetchAll(pieces));
+  }
+
+  private List<UsageInfo> fetchAll(List<Map<String, String>> pieces) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(parallelism, pieces.size()),
+            new ThreadFactoryBuilder()
+                .setNameFormat("rgwadmin4j-usage-fetch-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      List<CompletableFuture<Optional<UsageInfo>>> futures =
+          pieces
+              .stream()
+              .map(p -> CompletableFuture.supplyAsync(() -> rgwAdmin.getUsage(p), executor))
+              .collect(Collectors.toList());
+      return futures
+          .stream()
+          .map(CompletableFuture::join)
+          .filter(Optional::isPresent)
+          .map(Optional::get)
+          .collect(Collectors.toList());
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /*
+   * The parts are in chronological order, so appending the bucket usages keeps them in order.
+   */
+  static UsageInfo merge(List<UsageInfo> parts) {
+    Map<String, Entries> entries = new LinkedHashMap<>();
+    Map<String, Summary> summaries = new LinkedHashMap<>();
+    Map<String, Map<String, Usage>> categories = new HashMap<>();
+    boolean hasEntries = false;
+    boolean hasSummary = false;
+
+    for (UsageInfo part : parts) {
+      if (part.getEntries() != null) {
+        hasEntries = true;
+        for (Entries e : part.getEntries()) {
+          Entries merged =
+              entries.computeIfAbsent(
+                  e.getUser(),
+                  user -> {
+                    Entries m = new Entries();
+                    m.setUser(user);
+                    m.setBuckets(new ArrayList<>());
+                    return m;
+                  });
+          if (e.getBuckets() != null) {
+            merged.getBuckets().addAll(e.getBuckets());
+          }
+        }
+      }
+      if (part.getSummary() != null) {
+        hasSummary = true;
+        for (Summary s : part.getSummary()) {
+          Summary merged =
+              summaries.computeIfAbsent(
+                  s.getUser(),
+                  user -> {
+                    Summary m = new Summary();
+                    m.setUser(user);
+                    m.setTotal(new Usage());
+                    m.setCategories(new ArrayList<>());
+                    return m;
+                  });
+          add(merged.getTotal(), s.getTotal());
+          if (s.getCategories() != null) {
+            Map<String, Usage> byCategory =
+                categories.computeIfAbsent(s.getUser(), user -> new HashMap<>());
+            for (Usage u : s.getCategories()) {
+              Usage sum =
+                  byCategory.computeIfAbsent(
+                      u.getCategory(),
+                      category -> {
+                        Usage m = new Usage();
+                        m.setCategory(category);
+                        merged.getCategories().add(m);
+                        return m;
+                      });
+              add(sum, u);
+            }
+          }
+        }
+      }
+    }
+
+    UsageInfo result = new UsageInfo();
+    result.setEntries(hasEntries ? new ArrayList<>(entries.values()) : null);
+    result.setSummary(hasSummary ? new ArrayList<>(summaries.values()) : null);
+    return result;
+  }
+
+  private static void add(Usage sum, Usage usage) {
+    if (usage == null) {
+      return;
+    }
+    sum.setBytes_sent(sum.getBytes_sent() + usage.getBytes_sent());
+    sum.setBytes_received(sum.getBytes_received() + usage.getBytes_received());
+    sum.setOps(sum.getOps() + usage.getOps());
+    sum.setSuccessful_ops(sum.getSuccessful_ops() + usage.getSuccessful_ops());
+  }
+
+  /**
+   * Builds a {@link UsageFetcher}.
+   */
+  public static final class Builder {
+
+    private final RgwAdmin rgwAdmin;
+    private Duration window = Duration.ofDays(1);
+    private boolean splitByUser;
+    private int parallelism = 4;
+
+    private Builder(RgwAdmin rgwAdmin) {
+      this.rgwAdmin = rgwAdmin;
+    }
+
+    /**
+     * Sets the length of the windows, e.g., {@code Duration.ofHours(1)} for a usage log too large
+     * to fetch a day at a time.
+     *
+     * @param window The length of the windows, in whole hours.
+     * @return The builder.
+     */
+    public Builder window(Duration window) {
+      if (window.getSeconds() <= 0 || window.getSeconds() % 3600 != 0 || window.getNano() != 0) {
+        throw new IllegalArgumentException("window should be a positive number of hours");
+      }
+      this.window = window;
+      return this;
+    }
+
+    /**
+     * Sets whether to fetch the usage of each user separately.
+     *
+     * <p>The users are listed once per {@link #fetch(Instant, Instant, Map)}. It makes the
+     * responses smaller when a few users account for most of the usage log, at the cost of one
+     * request per user and window.
+     *
+     * @param splitByUser Whether to split the windows by user.
+     * @return The builder.
+     */
+    public Builder splitByUser(boolean splitByUser) {
+      this.splitByUser = splitByUser;
+      return this;
+    }
+
+    /**
+     * Sets the max number of requests in flight at the same time.
+     *
+     * @param parallelism Max number of concurrent requests, should be positive.
+     * @return The builder.
+     */
+    public Builder parallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("parallelism should be positive");
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public UsageFetcher build() {
+      return new UsageFetcher(this);
+    }
+  }
+}
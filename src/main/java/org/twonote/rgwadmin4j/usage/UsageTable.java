@@ -0,0 +1,358 @@
+package org.twonote.rgwadmin4j.usage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.usage.BucketUsage;
+import org.twonote.rgwadmin4j.model.usage.Entries;
+import org.twonote.rgwadmin4j.model.usage.Usage;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+/**
+ * Usage records in a compact, column-oriented form, e.g., to keep months of usage in memory for
+ * analytics.
+ *
+ * <p>Each row is a {@link UsageRecord}: the usage of a bucket in a category during an hour. The
+ * epochs and the measurements are kept in primitive arrays, one per column. The user, bucket,
+ * owner and category are dictionary encoded: each distinct name is kept once and the rows refer
+ * to it by an int ID, see {@link #id(Dimension, int)} and {@link #name(Dimension, int)}. A row
+ * takes 56 bytes, regardless of the length of the names.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * UsageTable table = UsageTable.load(rgwAdmin, ImmutableMap.of("start", "2017-01-01"));
+ * long[] bytesSent = table.sumBy(Dimension.USER, Metric.BYTES_SENT);
+ * for (int user = 0; user < bytesSent.length; user++) {
+ *   System.out.println(table.name(Dimension.USER, user) + ": " + bytesSent[user]);
+ * }
+ * }</pre>
+ *
+ * <p>A table is immutable and may be read concurrently.
+ */
+public final class UsageTable {
+
+  /**
+   * The dictionary encoded columns of a {@link UsageTable}.
+   */
+  public enum Dimension {
+    USER,
+    BUCKET,
+    OWNER,
+    CATEGORY
+  }
+
+  /**
+   * The measurement columns of a {@link UsageTable}.
+   */
+  public enum Metric {
+    BYTES_SENT,
+    BYTES_RECEIVED,
+    OPS,
+    SUCCESSFUL_OPS
+  }
+
+  private final int size;
+  private final long[] epochs;
+  private final int[][] ids;
+  private final long[][] metrics;
+  private final List<List<String>> names;
+
+  private UsageTable(Builder builder) {
+    this.size = builder.size;
+    this.epochs = Arrays.copyOf(builder.epochs, size);
+    this.ids = new int[Dimension.values().length][];
+    for (int d = 0; d < ids.length; d++) {
+      ids[d] = Arrays.copyOf(builder.ids[d], size);
+    }
+    this.metrics = new long[Metric.values().length][];
+    for (int m = 0; m < metrics.length; m++) {
+      metrics[m] = Arrays.copyOf(builder.metrics[m], size);
+    }
+    this.names = new ArrayList<>();
+    for (Dictionary dictionary : builder.dictionaries) {
+      names.add(Collections.unmodifiableList(new ArrayList<>(dictionary.names)));
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Load the usage into a table, without building a {@link UsageInfo} in between.
+   *
+   * @param rgwAdmin   The client to read the usage with.
+   * @param parameters optional parameters to filter the usage, see {@link RgwAdmin#getUsage(Map)}.
+   * @return The table.
+   */
+  public static UsageTable load(RgwAdmin rgwAdmin, Map<String, String> parameters) {
+    Builder builder = builder();
+    try (Stream<UsageRecord> records = rgwAdmin.streamUsage(parameters)) {
+      records.forEach(builder::add);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The number of rows.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param row The row.
+   * @return The start of the hour of the row, in seconds since the epoch.
+   */
+  public long epoch(int row) {
+    return epochs[row];
+  }
+
+  /**
+   * @param dimension The column.
+   * @param row       The row.
+   * @return The ID of the name in the column of the row.
+   */
+  public int id(Dimension dimension, int row) {
+    return ids[dimension.ordinal()][row];
+  }
+
+  /**
+   * @param dimension The column.
+   * @param id        The ID of a name in the column.
+   * @return The name.
+   */
+  public String name(Dimension dimension, int id) {
+    return names.get(dimension.ordinal()).get(id);
+  }
+
+  /**
+   * The distinct names of a column, indexed by their IDs.
+   *
+   * @param dimension The column.
+   * @return The names.
+   */
+  public List<String> names(Dimension dimension) {
+    return names.get(dimension.ordinal());
+  }
+
+  /**
+   * @param metric The column.
+   * @param row    The row.
+   * @return The measurement in the column of the row.
+   */
+  public long value(Metric metric, int row) {
+    return metrics[metric.ordinal()][row];
+  }
+
+  /**
+   * @param metric The column.
+   * @return The sum of the column.
+   */
+  public long sum(Metric metric) {
+    long sum = 0;
+    for (long value : metrics[metric.ordinal()]) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  /**
+   * Sum a measurement by the names of a column, e.g., the bytes sent to each user.
+   *
+   * @param dimension The column to group by.
+   * @param metric    The column to sum.
+   * @return The sums, indexed by the IDs of the names.
+   */
+  public long[] sumBy(Dimension dimension, Metric metric) {
+    return sumBy(dimension, metric, row -> true);
+  }
+
+  /**
+   * Sum a measurement of the matching rows by the names of a column, e.g., the bytes sent to each
+   * user in an hour.
+   *
+   * @param dimension The column to group by.
+   * @param metric    The column to sum.
+   * @param filter    The rows to sum.
+   * @return The sums, indexed by the IDs of the names.
+   */
+  public long[] sumBy(Dimension dimension, Metric metric, IntPredicate filter) {
+    int[] keys = ids[dimension.ordinal()];
+    long[] values = metrics[metric.ordinal()];
+    long[] sums = new long[names(dimension).size()];
+    for (int row = 0; row < size; row++) {
+      if (filter.test(row)) {
+        sums[keys[row]] += values[row];
+      }
+    }
+    return sums;
+  }
+
+  /**
+   * The max of a measurement by the names of a column, e.g., the most operations of each user in
+   * an hour, of a bucket and category.
+   *
+   * @param dimension The column to group by.
+   * @param metric    The column to take the max of.
+   * @return The maxima, indexed by the IDs of the names; 0 for names without rows.
+   */
+  public long[] maxBy(Dimension dimension, Metric metric) {
+    int[] keys = ids[dimension.ordinal()];
+    long[] values = metrics[metric.ordinal()];
+    long[] maxima = new long[names(dimension).size()];
+    for (int row = 0; row < size; row++) {
+      maxima[keys[row]] = Math.max(maxima[keys[row]], values[row]);
+    }
+    return maxima;
+  }
+
+  long[] epochs() {
+    return epochs;
+  }
+
+  int[] ids(Dimension dimension) {
+    return ids[dimension.ordinal()];
+  }
+
+  long[] values(Metric metric) {
+    return metrics[metric.ordinal()];
+  }
+
+  /**
+   * Builds a {@link UsageTable} row by row.
+   */
+  public static final class Builder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] epochs = new long[INITIAL_CAPACITY];
+    private final int[][] ids = new int[Dimension.values().length][INITIAL_CAPACITY];
+    private final long[][] metrics = new long[Metric.values().length][INITIAL_CAPACITY];
+    private final Dictionary[] dictionaries = new Dictionary[Dimension.values().length];
+
+    private Builder() {
+      for (int d = 0; d < dictionaries.length; d++) {
+        dictionaries[d] = new Dictionary();
+      }
+    }
+
+    public Builder add(UsageRecord record) {
+      return add(
+          record.getUser(),
+          record.getBucket(),
+          record.getOwner(),
+          record.getEpoch(),
+          record.getCategory(),
+          record.getBytesSent(),
+          record.getBytesReceived(),
+          record.getOps(),
+          record.getSuccessfulOps());
+    }
+
+    /**
+     * Add the entries of a usage. The summary is ignored.
+     *
+     * @param usage The usage.
+     * @return The builder.
+     */
+    public Builder add(UsageInfo usage) {
+      if (usage.getEntries() == null) {
+        return this;
+      }
+      for (Entries entries : usage.getEntries()) {
+        if (entries.getBuckets() == null) {
+          continue;
+        }
+        for (BucketUsage bucket : entries.getBuckets()) {
+          if (bucket.getCategories() == null) {
+            continue;
+          }
+          for (Usage u : bucket.getCategories()) {
+            add(
+                entries.getUser(),
+                bucket.getBucket(),
+                bucket.getOwner(),
+                bucket.getEpoch(),
+                u.getCategory(),
+                u.getBytes_sent(),
+                u.getBytes_received(),
+                u.getOps(),
+                u.getSuccessful_ops());
+          }
+        }
+      }
+      return this;
+    }
+
+    public Builder add(
+        String user,
+        String bucket,
+        String owner,
+        long epoch,
+        String category,
+        long bytesSent,
+        long bytesReceived,
+        long ops,
+        long successfulOps) {
+      if (size == epochs.length) {
+        grow();
+      }
+      epochs[size] = epoch;
+      ids[Dimension.USER.ordinal()][size] = dictionaries[Dimension.USER.ordinal()].id(user);
+      ids[Dimension.BUCKET.ordinal()][size] = dictionaries[Dimension.BUCKET.ordinal()].id(bucket);
+      ids[Dimension.OWNER.ordinal()][size] = dictionaries[Dimension.OWNER.ordinal()].id(owner);
+      ids[Dimension.CATEGORY.ordinal()][size] =
+          dictionaries[Dimension.CATEGORY.ordinal()].id(category);
+      metrics[Metric.BYTES_SENT.ordinal()][size] = bytesSent;
+      metrics[Metric.BYTES_RECEIVED.ordinal()][size] = bytesReceived;
+      metrics[Metric.OPS.ordinal()][size] = ops;
+      metrics[Metric.SUCCESSFUL_OPS.ordinal()][size] = successfulOps;
+      size++;
+      return this;
+    }
+
+    private void grow() {
+      int capacity = epochs.length * 2;
+      epochs = Arrays.copyOf(epochs, capacity);
+      for (int d = 0; d < ids.length; d++) {
+        ids[d] = Arrays.copyOf(ids[d], capacity);
+      }
+      for (int m = 0; m < metrics.length; m++) {
+        metrics[m] = Arrays.copyOf(metrics[m], capacity);
+      }
+    }
+
+    public UsageTable build() {
+      return new UsageTable(this);
+    }
+  }
+
+  /*
+   * Assigns consecutive IDs to the distinct names. Null is a name of its own.
+   */
+  private static final class Dictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private int id(String name) {
+      Integer id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+  }
+}
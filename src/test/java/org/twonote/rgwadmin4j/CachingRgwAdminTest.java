@@ -0,0 +1,107 @@
+package org.twonote.rgwadmin4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.model.User;
+
+public class CachingRgwAdminTest {
+
+  private FakeRgwServer rgw;
+  private CachingRgwAdmin admin;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).start();
+    admin =
+        (CachingRgwAdmin)
+            new RgwAdminBuilder()
+                .accessKey("admin")
+                .secretKey("secret")
+                .endpoint(rgw.endpoint())
+                .userInfoCache(100, Duration.ofMinutes(1))
+                .build();
+  }
+
+  @After
+  public void stop() throws IOException {
+    rgw.close();
+  }
+
+  @Test
+  public void cacheUsers() {
+    User user = admin.getUserInfo("user-0000001").get();
+    int requests = rgw.requestCount();
+
+    assertSame(user, admin.getUserInfo("user-0000001").get());
+    String accessKey = user.getS3Credentials().get(0).getAccessKey();
+    assertSame(user, admin.getUserInfoByAccessKey(accessKey).get());
+    assertEquals(requests, rgw.requestCount());
+    assertEquals(2, admin.stats().hitCount());
+  }
+
+  @Test
+  public void invalidateOnMutation() {
+    String userId = "user-0000002";
+    assertEquals(Integer.valueOf(0), admin.getUserInfo(userId).get().getSuspended());
+
+    admin.suspendUser(userId, true);
+    assertEquals(Integer.valueOf(1), admin.getUserInfo(userId).get().getSuspended());
+
+    admin.createS3Credential(userId, "NEWKEY", "secret");
+    assertEquals(userId, admin.getUserInfoByAccessKey("NEWKEY").get().getUserId());
+
+    admin.removeS3Credential(userId, "NEWKEY");
+    assertFalse(admin.getUserInfoByAccessKey("NEWKEY").isPresent());
+
+    admin.removeUser(userId);
+    assertFalse(admin.getUserInfo(userId).isPresent());
+  }
+
+  @Test
+  public void doNotCacheUserChangedDuringLoad() {
+    RgwAdmin impl = admin.delegate();
+    AtomicReference<CachingRgwAdmin> racing = new AtomicReference<>();
+    racing.set(
+        new CachingRgwAdmin(
+            new ForwardingRgwAdmin() {
+              @Override
+              protected RgwAdmin delegate() {
+                return impl;
+              }
+
+              @Override
+              public Optional<User> getUserInfo(String userId) {
+                Optional<User> user = super.getUserInfo(userId);
+                racing.get().suspendUser(userId, true);
+                return user;
+              }
+            },
+            100,
+            Duration.ofMinutes(1)));
+
+    assertEquals(Integer.valueOf(0), racing.get().getUserInfo("user-0000004").get().getSuspended());
+    assertEquals(Integer.valueOf(1), racing.get().getUserInfo("user-0000004").get().getSuspended());
+  }
+
+  @Test
+  public void expire() throws InterruptedException {
+    CachingRgwAdmin shortLived =
+        new CachingRgwAdmin(admin.delegate(), 100, Duration.ofMillis(50));
+    shortLived.getUserInfo("user-0000003");
+    Thread.sleep(100);
+    int requests = rgw.requestCount();
+    assertTrue(shortLived.getUserInfo("user-0000003").isPresent());
+    assertEquals(requests + 1, rgw.requestCount());
+  }
+}
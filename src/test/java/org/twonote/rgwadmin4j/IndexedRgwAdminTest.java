@@ -0,0 +1,147 @@
+package org.twonote.rgwadmin4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.impl.RgwAdminImpl;
+import org.twonote.rgwadmin4j.model.User;
+
+public class IndexedRgwAdminTest {
+
+  private FakeRgwServer rgw;
+  private RgwAdmin other;
+  private CountingRgwAdmin counting;
+  private IndexedRgwAdmin admin;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(1500).start();
+    other = new RgwAdminImpl("admin", "secret", rgw.endpoint());
+    counting = new CountingRgwAdmin(other);
+    admin = new IndexedRgwAdmin(counting, Duration.ofHours(1), 8);
+    admin.refresh();
+  }
+
+  @After
+  public void stop() throws IOException {
+    admin.close();
+    rgw.close();
+  }
+
+  @Test
+  public void lookupWithoutRequest() {
+    assertEquals(1500, admin.size());
+    String accessKey = other.getUserInfo("user-0001042").get().getS3Credentials().get(0)
+        .getAccessKey();
+    assertEquals("user-0001042", admin.getUserInfoByAccessKey(accessKey).get().getUserId());
+    assertEquals(0, counting.lookups.get());
+  }
+
+  @Test
+  public void fallBackToAdminApi() {
+    other.createS3Credential("user-0000001", "CREATEDBYOTHERS", "secret");
+    assertEquals("user-0000001", admin.getUserInfoByAccessKey("CREATEDBYOTHERS").get()
+        .getUserId());
+    assertFalse(admin.getUserInfoByAccessKey("NOSUCHKEY").isPresent());
+
+    int lookups = counting.lookups.get();
+    assertTrue(admin.getUserInfoByAccessKey("CREATEDBYOTHERS").isPresent());
+    assertEquals(lookups, counting.lookups.get());
+  }
+
+  @Test
+  public void dropChangedUsers() {
+    admin.createS3Credential("user-0000002", "NEWKEY", "secret");
+    assertTrue(admin.getUserInfoByAccessKey("NEWKEY").isPresent());
+
+    admin.removeS3Credential("user-0000002", "NEWKEY");
+    assertFalse(admin.getUserInfoByAccessKey("NEWKEY").isPresent());
+
+    admin.suspendUser("user-0000003", true);
+    String accessKey = other.getUserInfo("user-0000003").get().getS3Credentials().get(0)
+        .getAccessKey();
+    assertEquals(
+        Integer.valueOf(1), admin.getUserInfoByAccessKey(accessKey).get().getSuspended());
+  }
+
+  @Test
+  public void doNotIndexUserChangedDuringLookup() {
+    other.createS3Credential("user-0000005", "REMOVEDDURINGLOOKUP", "secret");
+    counting.afterLookup = () -> admin.removeS3Credential("user-0000005", "REMOVEDDURINGLOOKUP");
+    assertTrue(admin.getUserInfoByAccessKey("REMOVEDDURINGLOOKUP").isPresent());
+
+    counting.afterLookup = () -> {};
+    assertFalse(admin.getUserInfoByAccessKey("REMOVEDDURINGLOOKUP").isPresent());
+  }
+
+  @Test
+  public void refreshInBackground() throws InterruptedException {
+    try (IndexedRgwAdmin background = new IndexedRgwAdmin(counting, Duration.ofMillis(10), 4)) {
+      other.createS3Credential("user-0000004", "FOUNDBYWALK", "secret");
+      long refreshes = background.refreshCount();
+      while (background.refreshCount() < refreshes + 2) {
+        Thread.sleep(10);
+      }
+      assertTrue(background.getUserInfoByAccessKey("FOUNDBYWALK").isPresent());
+      assertEquals(0, counting.lookups.get());
+      assertFalse(background.lastRefreshFailure().isPresent());
+    }
+  }
+
+  @Test
+  public void buildIndexed() throws InterruptedException {
+    RgwAdminBuilder builder =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .accessKeyIndex(Duration.ofHours(1), 2);
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    try (IndexedRgwAdmin built = builder.buildIndexed()) {
+      while (built.refreshCount() == 0) {
+        Thread.sleep(10);
+      }
+      assertEquals(1500, built.size());
+    }
+  }
+
+  private static class CountingRgwAdmin extends ForwardingRgwAdmin {
+
+    private final RgwAdmin delegate;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile Runnable afterLookup = () -> {};
+
+    private CountingRgwAdmin(RgwAdmin delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected RgwAdmin delegate() {
+      return delegate;
+    }
+
+    @Override
+    public Optional<User> getUserInfoByAccessKey(String accessKey) {
+      lookups.incrementAndGet();
+      Optional<User> user = super.getUserInfoByAccessKey(accessKey);
+      afterLookup.run();
+      return user;
+    }
+  }
+}
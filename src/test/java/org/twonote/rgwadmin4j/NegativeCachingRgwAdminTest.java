@@ -0,0 +1,106 @@
+package org.twonote.rgwadmin4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.impl.RgwAdminException;
+
+public class NegativeCachingRgwAdminTest {
+
+  private FakeRgwServer rgw;
+  private RgwAdmin admin;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .notFoundCache(100, Duration.ofMinutes(1))
+            .build();
+  }
+
+  @After
+  public void stop() throws IOException {
+    rgw.close();
+  }
+
+  @Test
+  public void answerMissesLocally() {
+    assertFalse(admin.getUserInfo("nobody").isPresent());
+    assertFalse(admin.getBucketInfo("no-such-bucket").isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("NOSUCHKEY").isPresent());
+    int requests = rgw.requestCount();
+
+    assertFalse(admin.getUserInfo("nobody").isPresent());
+    assertNoSuchUser(() -> admin.getUserQuota("nobody"));
+    assertNoSuchUser(() -> admin.getBucketQuota("nobody"));
+    assertFalse(admin.getBucketInfo("no-such-bucket").isPresent());
+    assertFalse(admin.getBucketPolicy("no-such-bucket").isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("NOSUCHKEY").isPresent());
+    assertEquals(requests, rgw.requestCount());
+
+    // hits are not cached
+    assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    assertEquals(requests + 2, rgw.requestCount());
+  }
+
+  @Test
+  public void quotaMissAnswersUserInfo() {
+    assertNoSuchUser(() -> admin.getUserQuota("nobody"));
+    int requests = rgw.requestCount();
+
+    assertNoSuchUser(() -> admin.getBucketQuota("nobody"));
+    assertFalse(admin.getUserInfo("nobody").isPresent());
+    assertEquals(requests, rgw.requestCount());
+  }
+
+  private static void assertNoSuchUser(Runnable lookup) {
+    try {
+      lookup.run();
+      fail();
+    } catch (RgwAdminException e) {
+      assertEquals(404, e.status());
+      assertEquals("NoSuchUser", e.getMessage());
+    }
+  }
+
+  @Test
+  public void forgetOnlyTheCreatedKey() {
+    assertFalse(admin.getUserInfoByAccessKey("CREATEDKEY").isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("OTHERKEY").isPresent());
+
+    admin.createS3Credential("user-0000001", "CREATEDKEY", "secret");
+    int requests = rgw.requestCount();
+    assertTrue(admin.getUserInfoByAccessKey("CREATEDKEY").isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("OTHERKEY").isPresent());
+    assertEquals(requests + 1, rgw.requestCount());
+  }
+
+  @Test
+  public void forgetMissesOnCreation() {
+    assertFalse(admin.getUserInfo("newcomer").isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("NEWCOMERKEY").isPresent());
+    assertFalse(admin.getBucketInfo("newcomer-bucket").isPresent());
+
+    admin.createUser("newcomer");
+    assertTrue(admin.getUserInfo("newcomer").isPresent());
+
+    admin.createS3Credential("newcomer", "NEWCOMERKEY", "secret");
+    assertTrue(admin.getUserInfoByAccessKey("NEWCOMERKEY").isPresent());
+
+    admin.linkBucket("newcomer-bucket", "newcomer");
+    assertTrue(admin.getBucketInfo("newcomer-bucket").isPresent());
+  }
+}
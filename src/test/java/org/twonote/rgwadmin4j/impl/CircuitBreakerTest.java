@@ -0,0 +1,169 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Ticker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.CircuitBreakerPolicy;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.impl.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final AtomicLong now = new AtomicLong();
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return now.get();
+        }
+      };
+
+  private static CircuitBreakerPolicy.Builder policy() {
+    return CircuitBreakerPolicy.builder()
+        .failureRateThreshold(0.5)
+        .window(10, 4)
+        .openDuration(Duration.ofSeconds(1))
+        .trialCalls(2);
+  }
+
+  private static void call(CircuitBreaker breaker, boolean failed, long elapsedNanos) {
+    breaker.record(breaker.acquire(), failed, elapsedNanos);
+  }
+
+  private static void assertRejected(CircuitBreaker breaker) {
+    try {
+      breaker.acquire();
+      fail();
+    } catch (CircuitOpenException e) {
+      assertEquals(503, e.status());
+    }
+  }
+
+  @Test
+  public void openOnFailureRate() {
+    CircuitBreaker breaker = new CircuitBreaker(policy().build(), ticker);
+    // too few calls to judge
+    call(breaker, true, MS);
+    call(breaker, true, MS);
+    call(breaker, true, MS);
+    assertEquals(State.CLOSED, breaker.state());
+
+    call(breaker, false, MS);
+    assertEquals(State.OPEN, breaker.state());
+    assertRejected(breaker);
+  }
+
+  @Test
+  public void slideWindow() {
+    CircuitBreaker breaker = new CircuitBreaker(policy().build(), ticker);
+    for (int i = 0; i < 10; i++) {
+      call(breaker, i >= 6, MS);
+    }
+    assertEquals(State.CLOSED, breaker.state());
+    // the early failures slide out
+    for (int i = 0; i < 10; i++) {
+      call(breaker, false, MS);
+    }
+    call(breaker, true, MS);
+    call(breaker, true, MS);
+    call(breaker, true, MS);
+    call(breaker, true, MS);
+    assertEquals(State.CLOSED, breaker.state());
+    call(breaker, true, MS);
+    assertEquals(State.OPEN, breaker.state());
+  }
+
+  @Test
+  public void openOnSlowCalls() {
+    CircuitBreaker breaker =
+        new CircuitBreaker(policy().slowCalls(Duration.ofMillis(100), 0.75).build(), ticker);
+    call(breaker, false, 200 * MS);
+    call(breaker, false, 200 * MS);
+    call(breaker, false, 200 * MS);
+    call(breaker, false, MS);
+    assertEquals(State.OPEN, breaker.state());
+  }
+
+  @Test
+  public void closeAfterHealthyTrials() {
+    CircuitBreaker breaker = new CircuitBreaker(policy().window(4, 4).build(), ticker);
+    for (int i = 0; i < 4; i++) {
+      call(breaker, true, MS);
+    }
+    now.addAndGet(999 * MS);
+    assertRejected(breaker);
+
+    now.addAndGet(MS);
+    long first = breaker.acquire();
+    long second = breaker.acquire();
+    assertEquals(State.HALF_OPEN, breaker.state());
+    // only the trials are let through
+    assertRejected(breaker);
+    breaker.record(first, false, MS);
+    breaker.record(second, true, MS);
+    // 1 of 2 failed, which reaches the threshold
+    assertEquals(State.OPEN, breaker.state());
+
+    now.addAndGet(1000 * MS);
+    call(breaker, false, MS);
+    call(breaker, false, MS);
+    assertEquals(State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void ignoreOutcomesOfStalePermits() {
+    CircuitBreaker breaker = new CircuitBreaker(policy().window(4, 4).build(), ticker);
+    long stale = breaker.acquire();
+    for (int i = 0; i < 4; i++) {
+      call(breaker, true, MS);
+    }
+    now.addAndGet(1000 * MS);
+    breaker.acquire();
+    breaker.record(stale, false, MS);
+    breaker.record(stale, false, MS);
+    assertEquals(State.HALF_OPEN, breaker.state());
+  }
+
+  @Test
+  public void failFastWithoutRequests() throws IOException {
+    try (FakeRgwServer rgw = FakeRgwServer.builder().users(1).start()) {
+      RgwAdmin admin =
+          new RgwAdminBuilder()
+              .accessKey("admin")
+              .secretKey("secret")
+              .endpoint(rgw.endpoint())
+              .circuitBreaker(policy().build())
+              .build();
+      // client errors do not count
+      for (int i = 0; i < 4; i++) {
+        assertFalse(admin.getUserInfo("nobody").isPresent());
+      }
+      for (int i = 0; i < 4; i++) {
+        rgw.failNext(503);
+        try {
+          admin.getUserInfo("user-0000000");
+          fail();
+        } catch (RgwAdminException e) {
+          assertEquals(503, e.status());
+        }
+      }
+      int requests = rgw.requestCount();
+      try {
+        admin.getUserInfo("user-0000000");
+        fail();
+      } catch (CircuitOpenException e) {
+        assertEquals(requests, rgw.requestCount());
+      }
+    }
+  }
+}
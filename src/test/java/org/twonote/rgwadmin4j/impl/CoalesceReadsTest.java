@@ -0,0 +1,110 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminAsync;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+
+public class CoalesceReadsTest {
+
+  private static final int CALLERS = 16;
+
+  private FakeRgwServer rgw;
+  private ExecutorService executor;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).latency(Duration.ofMillis(300)).start();
+    executor = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @After
+  public void stop() throws IOException {
+    executor.shutdownNow();
+    rgw.close();
+  }
+
+  private RgwAdminBuilder builder() {
+    return new RgwAdminBuilder()
+        .accessKey("admin")
+        .secretKey("secret")
+        .endpoint(rgw.endpoint())
+        .coalesceReads(true);
+  }
+
+  private <T> List<T> concurrently(Supplier<T> read) {
+    List<CompletableFuture<T>> futures =
+        IntStream.range(0, CALLERS)
+            .mapToObj(i -> CompletableFuture.supplyAsync(read, executor))
+            .collect(Collectors.toList());
+    return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+  }
+
+  @Test
+  public void shareIdenticalReads() {
+    RgwAdmin admin = builder().build();
+    List<Optional<BucketInfo>> results =
+        concurrently(() -> admin.getBucketInfo("user-0000001-bucket-0"));
+
+    assertTrue(results.stream().allMatch(Optional::isPresent));
+    assertTrue(rgw.requestCount() < CALLERS);
+  }
+
+  @Test
+  public void doNotShareDifferentReads() {
+    RgwAdmin admin = builder().build();
+    concurrently(() -> admin.getUserInfo("user-0000001"));
+    int requests = rgw.requestCount();
+
+    admin.getUserInfo("user-0000002");
+    admin.getUserQuota("user-0000002");
+    assertEquals(requests + 2, rgw.requestCount());
+  }
+
+  @Test
+  public void doNotShareIndexFix() {
+    RgwAdmin admin = builder().build();
+    concurrently(() -> admin.checkBucketIndex("user-0000001-bucket-0", false, true));
+    assertEquals(CALLERS, rgw.requestCount());
+  }
+
+  @Test
+  public void shareNotFound() {
+    RgwAdmin admin = builder().build();
+    List<Boolean> results = concurrently(() -> admin.getUserInfo("nobody").isPresent());
+
+    assertFalse(results.contains(true));
+    assertTrue(rgw.requestCount() < CALLERS);
+  }
+
+  @Test
+  public void shareAsyncReads() {
+    RgwAdminAsync admin = builder().buildAsync();
+    List<CompletableFuture<Optional<BucketInfo>>> futures =
+        IntStream.range(0, CALLERS)
+            .mapToObj(i -> admin.getBucketInfo("user-0000001-bucket-0"))
+            .collect(Collectors.toList());
+    // cancelling one caller does not fail the others
+    futures.get(0).cancel(true);
+
+    futures.stream().skip(1).map(CompletableFuture::join).forEach(r -> assertTrue(r.isPresent()));
+    assertEquals(1, rgw.requestCount());
+  }
+}
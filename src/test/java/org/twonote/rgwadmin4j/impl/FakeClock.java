@@ -0,0 +1,37 @@
+package org.twonote.rgwadmin4j.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A UTC clock that stands still until the test sets it.
+ */
+final class FakeClock extends Clock {
+
+  private volatile Instant now;
+
+  FakeClock(Instant now) {
+    this.now = now;
+  }
+
+  void set(Instant now) {
+    this.now = now;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return Clock.fixed(now, zone);
+  }
+
+  @Override
+  public Instant instant() {
+    return now;
+  }
+}
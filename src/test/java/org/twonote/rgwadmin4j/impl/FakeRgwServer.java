@@ -0,0 +1,876 @@
+package org.twonote.rgwadmin4j.impl;
+
+import com.google.common.base.Strings;
+import com.google.gson.stream.JsonWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.net.ServerSocketFactory;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * An in-process stand-in of the Radosgw admin API, to run the client without a Ceph cluster.
+ *
+ * <p>It serves /admin/user, /admin/bucket, /admin/usage, /admin/metadata and /admin/info from an
+ * in-memory state populated with synthetic users, buckets and hourly usage records. The responses
+ * follow the format of Radosgw closely enough for the client, the signature is not verified.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * try (FakeRgwServer rgw =
+ *     FakeRgwServer.builder().users(10000).latency(Duration.ofMillis(2)).start()) {
+ *   RgwAdmin admin = new RgwAdminImpl("ak", "sk", rgw.endpoint());
+ *   admin.listUserInfo(ListOptions.parallelism(32));
+ * }
+ * }</pre>
+ */
+public class FakeRgwServer implements Closeable {
+
+  private static final DateTimeFormatter timeFormatter =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+  /**
+   * The epoch of the first usage record: 2017-04-01 00:00:00 UTC.
+   */
+  public static final long USAGE_START = 1491004800L;
+
+  private static final String[] categories = {"get_obj", "put_obj", "list_bucket", "delete_obj"};
+
+  private final MockWebServer server = new MockWebServer();
+  private final Duration latency;
+  private final int usageHours;
+
+  private final NavigableMap<String, FakeUser> users = new ConcurrentSkipListMap<>();
+  private final NavigableMap<String, FakeBucket> buckets = new ConcurrentSkipListMap<>();
+  private final Map<String, String> accessKeys = new ConcurrentHashMap<>();
+  private final Queue<Integer> failures = new ConcurrentLinkedQueue<>();
+
+  private FakeRgwServer(Builder builder) {
+    this.latency = builder.latency;
+    this.usageHours = builder.usageHours;
+    for (int u = 0; u < builder.users; u++) {
+      FakeUser user = addUser(String.format("user-%07d", u));
+      addKey(user, String.format("AK%018d", u), "SK" + u);
+      for (int b = 0; b < builder.bucketsPerUser; b++) {
+        FakeBucket bucket = new FakeBucket(user.uid + "-bucket-" + b, user.uid);
+        bucket.numObjects = b;
+        bucket.size = 4096L * b;
+        buckets.put(bucket.name, bucket);
+      }
+    }
+    server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    server.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            return respond(request);
+          }
+        });
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The admin API endpoint to give to the client, e.g., http://127.0.0.1:12345/admin
+   */
+  public String endpoint() {
+    return server.url("/admin").toString();
+  }
+
+  /**
+   * The underlying server, e.g., to inspect the recorded requests.
+   */
+  public MockWebServer server() {
+    return server;
+  }
+
+  /**
+   * The number of requests received so far.
+   */
+  public int requestCount() {
+    return server.getRequestCount();
+  }
+
+  /**
+   * Respond to the next request with the given status code instead of serving it. Calling this
+   * repeatedly fails the following requests in turn.
+   */
+  public void failNext(int code) {
+    failures.add(code);
+  }
+
+  @Override
+  public void close() throws IOException {
+    server.shutdown();
+  }
+
+  private FakeUser addUser(String uid) {
+    FakeUser user = new FakeUser(uid);
+    users.put(uid, user);
+    return user;
+  }
+
+  private void addKey(FakeUser user, String accessKey, String secretKey) {
+    user.keys.add(new String[]{user.uid, accessKey, secretKey});
+    accessKeys.put(accessKey, user.uid);
+  }
+
+  private MockResponse respond(RecordedRequest request) {
+    MockResponse response;
+    Integer failure = failures.poll();
+    if (failure != null) {
+      response = error(failure, "ServiceUnavailable");
+    } else if (request.getHeader("Authorization") == null) {
+      response = error(403, "AccessDenied");
+    } else {
+      try {
+        response = route(request.getMethod(), request.getRequestUrl());
+      } catch (RuntimeException e) {
+        response = error(500, "InternalError");
+      }
+    }
+    if (!latency.isZero()) {
+      response.setHeadersDelay(latency.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    return response;
+  }
+
+  private MockResponse route(String method, HttpUrl url) {
+    List<String> path = url.pathSegments();
+    if (path.size() < 2 || !"admin".equals(path.get(0))) {
+      return error(404, "NoSuchKey");
+    }
+    switch (path.get(1)) {
+      case "user":
+        return user(method, url);
+      case "bucket":
+        return bucket(method, url);
+      case "usage":
+        return usage(method, url);
+      case "metadata":
+        return metadata(method, url, path.size() > 2 ? path.get(2) : null);
+      case "info":
+        return json(
+            w ->
+                w.beginObject()
+                    .name("info")
+                    .beginObject()
+                    .name("storage_backends")
+                    .beginArray()
+                    .beginObject()
+                    .name("name")
+                    .value("rados")
+                    .name("cluster_id")
+                    .value("75d4e1a4-0f08-4bb2-8a3c-0e1f6a3ae8e5")
+                    .endObject()
+                    .endArray()
+                    .endObject()
+                    .endObject());
+      default:
+        return error(404, "NoSuchKey");
+    }
+  }
+
+  private MockResponse user(String method, HttpUrl url) {
+    String uid = url.queryParameter("uid");
+    if (uid == null && "GET".equals(method) && url.queryParameter("access-key") != null) {
+      uid = accessKeys.get(url.queryParameter("access-key"));
+      if (uid == null) {
+        return error(404, "NoSuchKey");
+      }
+    }
+    FakeUser user = uid == null ? null : users.get(uid);
+
+    if (url.queryParameterNames().contains("quota")) {
+      if (user == null) {
+        return error(404, "NoSuchUser");
+      }
+      return "GET".equals(method)
+          ? json(w -> w.beginObject().name("enabled").value(false).name("max_size_kb").value(-1)
+          .name("max_objects").value(-1).endObject())
+          : ok();
+    }
+
+    if ("PUT".equals(method) && user == null && !isSubResource(url)) {
+      if (Strings.isNullOrEmpty(uid)) {
+        return error(400, "InvalidArgument");
+      }
+      FakeUser created = addUser(uid);
+      String displayName = url.queryParameter("display-name");
+      created.displayName = displayName == null ? uid : displayName;
+      return userResponse(created);
+    }
+
+    if (user == null) {
+      return error(404, "NoSuchUser");
+    }
+
+    if (url.queryParameterNames().contains("key")) {
+      return key(method, url, user);
+    }
+    if (url.queryParameterNames().contains("subuser")) {
+      return subUser(method, url, user);
+    }
+    if (url.queryParameterNames().contains("caps")) {
+      return caps(method, url, user);
+    }
+
+    switch (method) {
+      case "GET":
+        return userResponse(user);
+      case "PUT":
+        return error(409, "UserAlreadyExists");
+      case "POST":
+        synchronized (user) {
+          if (url.queryParameter("suspended") != null) {
+            user.suspended = Boolean.parseBoolean(url.queryParameter("suspended")) ? 1 : 0;
+          }
+          if (url.queryParameter("max-buckets") != null) {
+            user.maxBuckets = Integer.parseInt(url.queryParameter("max-buckets"));
+          }
+          if (url.queryParameter("display-name") != null) {
+            user.displayName = url.queryParameter("display-name");
+          }
+          if (url.queryParameter("email") != null) {
+            user.email = url.queryParameter("email");
+          }
+        }
+        return userResponse(user);
+      case "DELETE":
+        users.remove(user.uid);
+        user.keys.forEach(k -> accessKeys.remove(k[1]));
+        buckets.values().removeIf(b -> b.owner.equals(user.uid));
+        return ok();
+      default:
+        return error(405, "MethodNotAllowed");
+    }
+  }
+
+  private static boolean isSubResource(HttpUrl url) {
+    return url.queryParameterNames().contains("key")
+        || url.queryParameterNames().contains("subuser")
+        || url.queryParameterNames().contains("caps");
+  }
+
+  private MockResponse key(String method, HttpUrl url, FakeUser user) {
+    String owner = url.queryParameter("subuser") != null
+        ? user.uid + ":" + url.queryParameter("subuser")
+        : user.uid;
+    String accessKey = url.queryParameter("access-key");
+    if ("PUT".equals(method)) {
+      String secretKey = url.queryParameter("secret-key");
+      String newAccessKey =
+          accessKey != null
+              ? accessKey
+              : UUID.randomUUID().toString().replace("-", "").substring(0, 20).toUpperCase();
+      user.keys.removeIf(k -> k[1].equals(newAccessKey));
+      user.keys.add(
+          new String[]{
+              owner, newAccessKey, secretKey != null ? secretKey : UUID.randomUUID().toString()
+          });
+      accessKeys.put(newAccessKey, user.uid);
+      return json(w -> writeKeys(w, user));
+    }
+    if ("DELETE".equals(method)) {
+      user.keys.removeIf(k -> k[1].equals(accessKey));
+      accessKeys.remove(accessKey);
+      return ok();
+    }
+    return error(405, "MethodNotAllowed");
+  }
+
+  private MockResponse subUser(String method, HttpUrl url, FakeUser user) {
+    String id = user.uid + ":" + url.queryParameter("subuser");
+    switch (method) {
+      case "PUT":
+      case "POST":
+        String access = url.queryParameter("access");
+        user.subUsers.put(id, access == null ? "<none>" : access.replace("readwrite", "read-write")
+            .replace("full", "full-control"));
+        return json(w -> writeSubUsers(w, user));
+      case "DELETE":
+        user.subUsers.remove(id);
+        user.keys.removeIf(k -> k[0].equals(id) && accessKeys.remove(k[1]) != null);
+        return ok();
+      default:
+        return error(405, "MethodNotAllowed");
+    }
+  }
+
+  private MockResponse caps(String method, HttpUrl url, FakeUser user) {
+    String caps = Strings.nullToEmpty(url.queryParameter("user-caps"));
+    for (String cap : caps.split(";")) {
+      String[] typeAndPerm = cap.split("=");
+      if (typeAndPerm.length != 2) {
+        continue;
+      }
+      if ("PUT".equals(method)) {
+        user.caps.put(typeAndPerm[0].trim(), typeAndPerm[1].trim());
+      } else if ("DELETE".equals(method)) {
+        user.caps.remove(typeAndPerm[0].trim());
+      }
+    }
+    return json(w -> writeCaps(w, user));
+  }
+
+  private MockResponse bucket(String method, HttpUrl url) {
+    String name = url.queryParameter("bucket");
+    FakeBucket bucket = name == null ? null : buckets.get(name);
+    if (url.queryParameterNames().contains("quota")) {
+      return ok();
+    }
+    if (url.queryParameterNames().contains("index")) {
+      return bucket == null ? error(404, "NoSuchBucket") : json(w -> w.value(""));
+    }
+    if (url.queryParameterNames().contains("policy")) {
+      return bucket == null
+          ? error(404, "NoSuchBucket")
+          : json(w -> w.beginObject().name("acl").beginObject().name("acl_user_map")
+          .beginArray().endArray().endObject().name("owner").beginObject().name("id")
+          .value(bucket.owner).name("display_name").value(bucket.owner).endObject().endObject());
+    }
+    if (url.queryParameterNames().contains("object")) {
+      return bucket == null ? error(404, "NoSuchBucket") : ok();
+    }
+
+    switch (method) {
+      case "GET":
+        boolean stats = url.queryParameter("stats") != null;
+        if (name != null) {
+          return bucket == null
+              ? error(404, "NoSuchBucket")
+              : json(w -> writeBucket(w, bucket, stats));
+        }
+        String uid = url.queryParameter("uid");
+        if (uid != null && !users.containsKey(uid)) {
+          return error(404, "NoSuchUser");
+        }
+        Collection<FakeBucket> selected =
+            uid == null
+                ? buckets.values()
+                : buckets.values().stream().filter(b -> b.owner.equals(uid))
+                    .collect(Collectors.toList());
+        return json(
+            w -> {
+              w.beginArray();
+              for (FakeBucket b : selected) {
+                writeBucket(w, b, stats);
+              }
+              w.endArray();
+            });
+      case "PUT":
+        String owner = url.queryParameter("uid");
+        if (!users.containsKey(owner)) {
+          return error(404, "NoSuchUser");
+        }
+        if (bucket == null) {
+          buckets.put(name, new FakeBucket(name, owner));
+        } else {
+          bucket.owner = owner;
+        }
+        return ok();
+      case "POST":
+        return bucket == null ? error(404, "NoSuchBucket") : ok();
+      case "DELETE":
+        return buckets.remove(name) == null ? error(404, "NoSuchBucket") : ok();
+      default:
+        return error(405, "MethodNotAllowed");
+    }
+  }
+
+  private MockResponse usage(String method, HttpUrl url) {
+    if ("DELETE".equals(method)) {
+      return ok();
+    }
+    String uid = url.queryParameter("uid");
+    long start = epoch(url.queryParameter("start"), Long.MIN_VALUE);
+    long end = epoch(url.queryParameter("end"), Long.MAX_VALUE);
+    boolean showEntries = !"false".equalsIgnoreCase(url.queryParameter("show-entries"));
+    boolean showSummary = !"false".equalsIgnoreCase(url.queryParameter("show-summary"));
+    Collection<FakeUser> selected =
+        uid == null
+            ? users.values()
+            : users.containsKey(uid)
+                ? Collections.singletonList(users.get(uid))
+                : Collections.<FakeUser>emptyList();
+    Map<String, List<FakeBucket>> owned =
+        buckets.values().stream().collect(Collectors.groupingBy(b -> b.owner));
+
+    return json(
+        w -> {
+          w.beginObject();
+          if (showEntries) {
+            w.name("entries").beginArray();
+            for (FakeUser user : selected) {
+              w.beginObject().name("user").value(user.uid).name("buckets").beginArray();
+              for (FakeBucket bucket : owned.getOrDefault(user.uid, Collections.emptyList())) {
+                for (int h = 0; h < usageHours; h++) {
+                  long epoch = USAGE_START + 3600L * h;
+                  if (epoch < start || epoch >= end) {
+                    continue;
+                  }
+                  w.beginObject()
+                      .name("bucket")
+                      .value(bucket.name)
+                      .name("time")
+                      .value(timeFormatter.format(Instant.ofEpochSecond(epoch)) + ".000000Z")
+                      .name("epoch")
+                      .value(epoch)
+                      .name("owner")
+                      .value(user.uid)
+                      .name("categories")
+                      .beginArray();
+                  for (String category : categories) {
+                    writeUsage(w, category, 1);
+                  }
+                  w.endArray().endObject();
+                }
+              }
+              w.endArray().endObject();
+            }
+            w.endArray();
+          }
+          if (showSummary) {
+            w.name("summary").beginArray();
+            for (FakeUser user : selected) {
+              long records = 0;
+              for (int h = 0; h < usageHours; h++) {
+                long epoch = USAGE_START + 3600L * h;
+                if (epoch >= start && epoch < end) {
+                  records++;
+                }
+              }
+              records *= owned.getOrDefault(user.uid, Collections.emptyList()).size();
+              w.beginObject().name("user").value(user.uid).name("categories").beginArray();
+              for (String category : categories) {
+                writeUsage(w, category, records);
+              }
+              w.endArray().name("total");
+              writeUsage(w, null, records * categories.length);
+              w.endObject();
+            }
+            w.endArray();
+          }
+          w.endObject();
+        });
+  }
+
+  private static long epoch(String time, long defaultValue) {
+    if (Strings.isNullOrEmpty(time)) {
+      return defaultValue;
+    }
+    if (time.matches("\\d+")) {
+      return Long.parseLong(time);
+    }
+    String normalized = time.length() == 10 ? time + " 00:00:00" : time.substring(0, 19);
+    return LocalDateTime.parse(normalized, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+        .toEpochSecond(ZoneOffset.UTC);
+  }
+
+  private MockResponse metadata(String method, HttpUrl url, String type) {
+    if (!"GET".equals(method)) {
+      return error(405, "MethodNotAllowed");
+    }
+    if (type == null) {
+      String key = Strings.nullToEmpty(url.queryParameter("key"));
+      int colon = key.indexOf(':');
+      if (colon < 0) {
+        return error(404, "NoSuchKey");
+      }
+      String name = key.substring(colon + 1);
+      switch (key.substring(0, colon)) {
+        case "user":
+          FakeUser user = users.get(name);
+          return user == null
+              ? error(404, "NoSuchKey")
+              : json(w -> {
+                w.beginObject().name("key").value(key).name("data");
+                writeUser(w, user);
+                w.endObject();
+              });
+        case "bucket":
+          FakeBucket bucket = buckets.get(name);
+          return bucket == null
+              ? error(404, "NoSuchKey")
+              : json(w -> w.beginObject().name("key").value(key).name("data").beginObject()
+                  .name("bucket").beginObject().name("name").value(bucket.name)
+                  .name("bucket_id").value(bucket.id).endObject().name("owner").value(bucket.owner)
+                  .endObject().endObject());
+        default:
+          return error(404, "NoSuchKey");
+      }
+    }
+
+    NavigableMap<String, ?> source;
+    boolean instance = false;
+    switch (type) {
+      case "user":
+        source = users;
+        break;
+      case "bucket":
+        source = buckets;
+        break;
+      case "bucket.instance":
+        source = buckets;
+        instance = true;
+        break;
+      default:
+        return error(404, "NoSuchKey");
+    }
+    String maxEntries = url.queryParameter("max-entries");
+    String marker = url.queryParameter("marker");
+    NavigableMap<String, ?> from =
+        marker == null ? source : source.tailMap(instance ? marker.split(":")[0] : marker, false);
+    int limit = maxEntries == null ? Integer.MAX_VALUE : Integer.parseInt(maxEntries);
+
+    List<String> keys = new ArrayList<>();
+    boolean truncated = false;
+    for (String key : from.keySet()) {
+      if (keys.size() == limit) {
+        truncated = true;
+        break;
+      }
+      keys.add(instance ? key + ":" + buckets.get(key).id : key);
+    }
+    if (maxEntries == null) {
+      return json(
+          w -> {
+            w.beginArray();
+            for (String key : keys) {
+              w.value(key);
+            }
+            w.endArray();
+          });
+    }
+    boolean isTruncated = truncated;
+    return json(
+        w -> {
+          w.beginObject().name("keys").beginArray();
+          for (String key : keys) {
+            w.value(key);
+          }
+          w.endArray().name("truncated").value(isTruncated).name("count").value(keys.size());
+          if (isTruncated) {
+            w.name("marker").value(keys.get(keys.size() - 1));
+          }
+          w.endObject();
+        });
+  }
+
+  private MockResponse userResponse(FakeUser user) {
+    return json(w -> writeUser(w, user));
+  }
+
+  private static void writeUser(JsonWriter w, FakeUser user) throws IOException {
+    w.beginObject()
+        .name("user_id")
+        .value(user.uid)
+        .name("display_name")
+        .value(user.displayName)
+        .name("email")
+        .value(user.email)
+        .name("suspended")
+        .value(user.suspended)
+        .name("max_buckets")
+        .value(user.maxBuckets)
+        .name("subusers");
+    writeSubUsers(w, user);
+    w.name("keys");
+    writeKeys(w, user);
+    w.name("swift_keys").beginArray().endArray().name("caps");
+    writeCaps(w, user);
+    w.name("op_mask").value("read, write, delete").endObject();
+  }
+
+  private static void writeSubUsers(JsonWriter w, FakeUser user) throws IOException {
+    w.beginArray();
+    for (Map.Entry<String, String> subUser : user.subUsers.entrySet()) {
+      w.beginObject()
+          .name("id")
+          .value(subUser.getKey())
+          .name("permissions")
+          .value(subUser.getValue())
+          .endObject();
+    }
+    w.endArray();
+  }
+
+  private static void writeKeys(JsonWriter w, FakeUser user) throws IOException {
+    w.beginArray();
+    for (String[] key : user.keys) {
+      w.beginObject()
+          .name("user")
+          .value(key[0])
+          .name("access_key")
+          .value(key[1])
+          .name("secret_key")
+          .value(key[2])
+          .endObject();
+    }
+    w.endArray();
+  }
+
+  private static void writeCaps(JsonWriter w, FakeUser user) throws IOException {
+    w.beginArray();
+    for (Map.Entry<String, String> cap : user.caps.entrySet()) {
+      w.beginObject().name("type").value(cap.getKey()).name("perm").value(cap.getValue())
+          .endObject();
+    }
+    w.endArray();
+  }
+
+  private static void writeBucket(JsonWriter w, FakeBucket bucket, boolean stats)
+      throws IOException {
+    if (!stats) {
+      w.value(bucket.name);
+      return;
+    }
+    w.beginObject()
+        .name("bucket")
+        .value(bucket.name)
+        .name("pool")
+        .value("default.rgw.buckets.data")
+        .name("index_pool")
+        .value("default.rgw.buckets.index")
+        .name("id")
+        .value(bucket.id)
+        .name("marker")
+        .value(bucket.id)
+        .name("owner")
+        .value(bucket.owner)
+        .name("ver")
+        .value("0#1")
+        .name("master_ver")
+        .value("0#0")
+        .name("mtime")
+        .value("2017-04-01 00:00:00.000000")
+        .name("max_marker")
+        .value("0#")
+        .name("usage")
+        .beginObject()
+        .name("rgw.main")
+        .beginObject()
+        .name("size")
+        .value(bucket.size)
+        .name("size_actual")
+        .value(bucket.size)
+        .name("size_utilized")
+        .value(bucket.size)
+        .name("size_kb")
+        .value(bucket.size / 1024)
+        .name("size_kb_actual")
+        .value(bucket.size / 1024)
+        .name("size_kb_utilized")
+        .value(bucket.size / 1024)
+        .name("num_objects")
+        .value(bucket.numObjects)
+        .endObject()
+        .endObject()
+        .name("bucket_quota")
+        .beginObject()
+        .name("enabled")
+        .value(false)
+        .name("check_on_raw")
+        .value(false)
+        .name("max_size")
+        .value(-1)
+        .name("max_size_kb")
+        .value(0)
+        .name("max_objects")
+        .value(-1)
+        .endObject()
+        .endObject();
+  }
+
+  private static void writeUsage(JsonWriter w, String category, long records) throws IOException {
+    w.beginObject();
+    if (category != null) {
+      w.name("category").value(category);
+    }
+    w.name("bytes_sent")
+        .value(1024 * records)
+        .name("bytes_received")
+        .value(512 * records)
+        .name("ops")
+        .value(2 * records)
+        .name("successful_ops")
+        .value(2 * records)
+        .endObject();
+  }
+
+  private static MockResponse json(JsonBody body) {
+    StringWriter out = new StringWriter();
+    try (JsonWriter w = new JsonWriter(out)) {
+      body.write(w);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody(out.toString());
+  }
+
+  private static MockResponse ok() {
+    return new MockResponse().setResponseCode(200);
+  }
+
+  private static MockResponse error(int code, String errorCode) {
+    return new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"Code\":\"" + errorCode + "\"}");
+  }
+
+  /*
+   * MockWebServer writes the headers and the body of a response separately. With Nagle's algorithm
+   * the body then waits for the delayed ACK of the client, adding ~40ms to each request on a
+   * reused connection.
+   */
+  private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return new ServerSocket() {
+        @Override
+        public Socket accept() throws IOException {
+          Socket socket = super.accept();
+          socket.setTcpNoDelay(true);
+          return socket;
+        }
+      };
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private interface JsonBody {
+
+    void write(JsonWriter writer) throws IOException;
+  }
+
+  private static final class FakeUser {
+
+    private final String uid;
+    private volatile String displayName;
+    private volatile String email = "";
+    private volatile int suspended;
+    private volatile int maxBuckets = 1000;
+    private final List<String[]> keys = new CopyOnWriteArrayList<>();
+    private final Map<String, String> subUsers = new ConcurrentSkipListMap<>();
+    private final Map<String, String> caps = new ConcurrentSkipListMap<>();
+
+    private FakeUser(String uid) {
+      this.uid = uid;
+      this.displayName = uid;
+    }
+  }
+
+  private static final class FakeBucket {
+
+    private final String name;
+    private final String id;
+    private volatile String owner;
+    private volatile long numObjects;
+    private volatile long size;
+
+    private FakeBucket(String name, String owner) {
+      this.name = name;
+      this.id = "fake." + Integer.toHexString(name.hashCode());
+      this.owner = owner;
+    }
+  }
+
+  public static class Builder {
+
+    private int users = 100;
+    private int bucketsPerUser = 2;
+    private int usageHours = 24;
+    private Duration latency = Duration.ZERO;
+
+    /**
+     * Number of synthetic users, named user-0000000, user-0000001, ... Default: 100
+     */
+    public Builder users(int users) {
+      this.users = users;
+      return this;
+    }
+
+    /**
+     * Number of buckets owned by each synthetic user. Default: 2
+     */
+    public Builder bucketsPerUser(int bucketsPerUser) {
+      this.bucketsPerUser = bucketsPerUser;
+      return this;
+    }
+
+    /**
+     * Number of hourly usage records of each bucket, starting from {@link #USAGE_START}. Default:
+     * 24
+     */
+    public Builder usageHours(int usageHours) {
+      this.usageHours = usageHours;
+      return this;
+    }
+
+    /**
+     * Delay before every response. Default: none
+     */
+    public Builder latency(Duration latency) {
+      this.latency = latency;
+      return this;
+    }
+
+    public FakeRgwServer start() {
+      FakeRgwServer rgw = new FakeRgwServer(this);
+      try {
+        rgw.server.start();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return rgw;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.ListOptions;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.User;
+
+/**
+ * Runs the client against {@link FakeRgwServer}, no Radosgw needed.
+ */
+public class FakeRgwServerTest {
+
+  private static FakeRgwServer rgw;
+  private static RgwAdmin admin;
+
+  @BeforeClass
+  public static void start() {
+    rgw = FakeRgwServer.builder().users(500).bucketsPerUser(2).usageHours(3).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .build();
+  }
+
+  @AfterClass
+  public static void stop() throws IOException {
+    rgw.close();
+  }
+
+  @Test
+  public void userInfo() {
+    User user = admin.getUserInfo("user-0000042").get();
+    assertEquals("user-0000042", user.getUserId());
+    assertEquals(1, user.getS3Credentials().size());
+
+    String accessKey = user.getS3Credentials().get(0).getAccessKey();
+    assertEquals("user-0000042", admin.getUserInfoByAccessKey(accessKey).get().getUserId());
+
+    assertFalse(admin.getUserInfo("nobody").isPresent());
+  }
+
+  @Test
+  public void userLifecycle() {
+    String userId = "fake-lifecycle";
+    admin.createUser(userId);
+    admin.suspendUser(userId, true);
+    assertEquals(Integer.valueOf(1), admin.getUserInfo(userId).get().getSuspended());
+
+    admin.createS3Credential(userId, "LIFECYCLEKEY", "secret");
+    assertEquals(
+        userId, admin.getUserInfoByAccessKey("LIFECYCLEKEY").get().getUserId());
+
+    admin.removeUser(userId);
+    assertFalse(admin.getUserInfo(userId).isPresent());
+    assertFalse(admin.getUserInfoByAccessKey("LIFECYCLEKEY").isPresent());
+  }
+
+  @Test
+  public void listUserInfo() {
+    List<User> users = admin.listUserInfo(ListOptions.parallelism(16));
+    assertTrue(users.size() >= 500);
+    assertEquals(admin.listUser().size(), users.size());
+  }
+
+  @Test
+  public void paginate() {
+    assertEquals(admin.listUser().size(), Iterables.size(admin.iterateUsers(64)));
+    assertEquals(1000, Iterables.size(admin.iterateBuckets(64)));
+  }
+
+  @Test
+  public void bucketInfo() {
+    try (Stream<BucketInfo> buckets = admin.streamBucketInfo()) {
+      assertEquals(1000, buckets.count());
+    }
+    assertEquals(2, admin.listBucketInfo("user-0000007").size());
+
+    Optional<BucketInfo> bucket = admin.getBucketInfo("user-0000007-bucket-1");
+    assertEquals("user-0000007", bucket.get().getOwner());
+    assertFalse(admin.getBucketInfo("no-such-bucket").isPresent());
+  }
+
+  @Test
+  public void usage() {
+    UsageInfo usage =
+        admin
+            .getUserUsage(
+                "user-0000003", ImmutableMap.of("start", "2017-04-01 01:00:00"))
+            .get();
+    assertEquals(1, usage.getEntries().size());
+    // 2 buckets, 2 of the 3 hours
+    assertEquals(4, usage.getEntries().get(0).getBuckets().size());
+    assertEquals(500, admin.getUsage().get().getSummary().size());
+  }
+
+  @Test
+  public void info() {
+    assertEquals(
+        "rados", admin.getInfo().get().getInfo().getStorageBackends().get(0).getName());
+  }
+
+  @Test
+  public void failure() {
+    rgw.failNext(503);
+    try {
+      admin.getUserInfo("user-0000001");
+      fail();
+    } catch (RgwAdminException e) {
+      assertEquals(503, e.status());
+    }
+    assertTrue(admin.getUserInfo("user-0000001").isPresent());
+  }
+
+  @Test
+  public void latency() throws IOException {
+    try (FakeRgwServer slow =
+        FakeRgwServer.builder().users(1).latency(Duration.ofMillis(200)).start()) {
+      RgwAdmin slowAdmin = new RgwAdminImpl("admin", "secret", slow.endpoint());
+      long start = System.nanoTime();
+      slowAdmin.getInfo();
+      assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+    }
+  }
+}
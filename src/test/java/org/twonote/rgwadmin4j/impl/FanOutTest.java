@@ -0,0 +1,135 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.ListOptions;
+
+public class FanOutTest {
+
+  private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterClass
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static List<String> keys(int n) {
+    return IntStream.range(0, n).mapToObj(String::valueOf).collect(Collectors.toList());
+  }
+
+  @Test
+  public void keepOrderAndBoundConcurrency() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<String> result =
+        FanOut.run(
+            keys(200),
+            k ->
+                CompletableFuture.supplyAsync(
+                    () -> {
+                      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                      try {
+                        Thread.sleep(1);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      inFlight.decrementAndGet();
+                      return "v" + k;
+                    },
+                    executor),
+            ListOptions.parallelism(4))
+            .join();
+
+    assertEquals(keys(200).stream().map(k -> "v" + k).collect(Collectors.toList()), result);
+    assertTrue(maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void skipNullAndCompleteImmediately() {
+    List<String> result =
+        FanOut.run(
+            keys(100000),
+            k ->
+                CompletableFuture.completedFuture(
+                    Integer.parseInt(k) % 2 == 0 ? k : null),
+            ListOptions.parallelism(3))
+            .join();
+    assertEquals(50000, result.size());
+    assertEquals("99998", result.get(result.size() - 1));
+  }
+
+  @Test
+  public void reportFailures() {
+    Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+    List<String> result =
+        FanOut.run(
+            Arrays.asList("a", "b", "c", "d"),
+            k -> {
+              if ("b".equals(k)) {
+                throw new RgwAdminException(500, "sync failure");
+              }
+              CompletableFuture<String> future = new CompletableFuture<>();
+              if ("d".equals(k)) {
+                future.completeExceptionally(new RgwAdminException(503, "SlowDown"));
+              } else {
+                future.complete(k);
+              }
+              return future;
+            },
+            ListOptions.parallelism(2).onFailure(failures::put))
+            .join();
+
+    assertEquals(Arrays.asList("a", "c"), result);
+    assertEquals(2, failures.size());
+    assertEquals(503, ((RgwAdminException) failures.get("d")).status());
+  }
+
+  @Test
+  public void abortOnFailure() {
+    List<String> issued = Collections.synchronizedList(new ArrayList<>());
+    try {
+      FanOut.run(
+          keys(10),
+          k -> {
+            issued.add(k);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new RgwAdminException(500, "IOException"));
+            return future;
+          },
+          ListOptions.defaults())
+          .join();
+      fail();
+    } catch (CompletionException e) {
+      assertEquals("IOException", e.getCause().getMessage());
+    }
+    assertEquals(Collections.singletonList("0"), issued);
+  }
+
+  @Test
+  public void empty() {
+    assertTrue(
+        FanOut.run(
+            Collections.emptyList(),
+            CompletableFuture::completedFuture,
+            ListOptions.parallelism(8))
+            .join()
+            .isEmpty());
+  }
+}
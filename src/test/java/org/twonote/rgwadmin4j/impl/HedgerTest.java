@@ -0,0 +1,115 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.After;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.LoadBalancing;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+
+public class HedgerTest {
+
+  private FakeRgwServer fast;
+  private FakeRgwServer slow;
+
+  @After
+  public void stop() throws IOException {
+    if (fast != null) {
+      fast.close();
+    }
+    if (slow != null) {
+      slow.close();
+    }
+  }
+
+  @Test
+  public void hedgeSlowReadsToAnotherEndpoint() {
+    fast = FakeRgwServer.builder().users(10).start();
+    slow = FakeRgwServer.builder().users(10).latency(Duration.ofSeconds(2)).start();
+    RgwAdmin admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoints(slow.endpoint(), fast.endpoint())
+            .hedgeReads(Duration.ofMillis(50))
+            .build();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 6; i++) {
+      assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    // each read sent to the slow endpoint is duplicated to the fast one
+    assertEquals(3, slow.requestCount());
+    assertEquals(6, fast.requestCount());
+  }
+
+  @Test
+  public void doNotHedgeFastReads() {
+    fast = FakeRgwServer.builder().users(10).latency(Duration.ofMillis(100)).start();
+    RgwAdmin admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(fast.endpoint())
+            .hedgeReads(Duration.ofMillis(500))
+            .build();
+
+    assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    assertEquals(1, fast.requestCount());
+  }
+
+  @Test
+  public void keepDelayUnderSlowTail() {
+    fast = FakeRgwServer.builder().users(10).start();
+    slow = FakeRgwServer.builder().users(10).latency(Duration.ofSeconds(1)).start();
+    OkHttpClient client =
+        new OkHttpClient.Builder()
+            .addInterceptor(
+                new LoadBalancer(
+                    Arrays.asList(slow.endpoint(), fast.endpoint()),
+                    LoadBalancing.ROUND_ROBIN,
+                    Integer.MAX_VALUE,
+                    Duration.ZERO))
+            .addInterceptor(new S3Auth("admin", "secret"))
+            .build();
+    long minDelay = TimeUnit.MILLISECONDS.toNanos(20);
+    Hedger hedger = new Hedger(client, Duration.ofNanos(minDelay), 0.9);
+    Request request =
+        new Request.Builder().url(slow.endpoint() + "/user?uid=user-0000001").get().build();
+
+    for (int i = 0; i < 128; i++) {
+      assertNotNull(hedger.execute(request, false));
+    }
+    // Half of the reads are won by the duplicate after the delay. Had only the reads won by the
+    // first request been sampled, the delay would have collapsed to the minimum.
+    assertTrue(hedger.delayNanos() > minDelay);
+    assertTrue(hedger.delayNanos() < TimeUnit.SECONDS.toNanos(1));
+  }
+
+  @Test
+  public void adaptDelayToPercentile() {
+    Hedger hedger = new Hedger(new OkHttpClient(), Duration.ofMillis(10), 0.95);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(10), hedger.delayNanos());
+
+    for (int i = 1; i <= 128; i++) {
+      hedger.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    // the 95th percentile of 1..128 ms
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(122), hedger.delayNanos());
+
+    for (int i = 0; i < 512; i++) {
+      hedger.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(10), hedger.delayNanos());
+  }
+}
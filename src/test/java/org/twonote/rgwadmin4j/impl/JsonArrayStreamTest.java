@@ -0,0 +1,49 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+public class JsonArrayStreamTest {
+
+  private static Response response(String body) {
+    return new Response.Builder()
+        .request(new Request.Builder().url("http://127.0.0.1/admin/metadata/user").build())
+        .protocol(Protocol.HTTP_1_1)
+        .code(200)
+        .message("OK")
+        .body(ResponseBody.create(body, MediaType.get("application/json")))
+        .build();
+  }
+
+  @Test
+  public void read() {
+    try (Stream<String> stream = JsonArrayStream.of(response("[\"a\",\"b\"]"), String.class)) {
+      assertEquals(ImmutableList.of("a", "b"), stream.collect(Collectors.toList()));
+    }
+    try (Stream<String> stream = JsonArrayStream.of(null, String.class)) {
+      assertEquals(0, stream.count());
+    }
+  }
+
+  @Test
+  public void malformed() {
+    for (String body : new String[] {"[\"a\",{\"b\":1}]", "{\"a\":1}", "[\"a\",tru"}) {
+      try (Stream<String> stream = JsonArrayStream.of(response(body), String.class)) {
+        stream.forEach(s -> {});
+        fail(body);
+      } catch (RgwAdminException e) {
+        assertEquals(500, e.status());
+      }
+    }
+  }
+}
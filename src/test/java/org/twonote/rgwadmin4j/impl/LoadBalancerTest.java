@@ -0,0 +1,165 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.LoadBalancing;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+
+public class LoadBalancerTest {
+
+  private final List<FakeRgwServer> servers = new ArrayList<>();
+
+  @After
+  public void stop() throws IOException {
+    for (FakeRgwServer server : servers) {
+      server.close();
+    }
+  }
+
+  private FakeRgwServer start(Duration latency) {
+    FakeRgwServer server = FakeRgwServer.builder().users(10).latency(latency).start();
+    servers.add(server);
+    return server;
+  }
+
+  private static RgwAdminBuilder builder(String... endpoints) {
+    return new RgwAdminBuilder().accessKey("admin").secretKey("secret").endpoints(endpoints);
+  }
+
+  /*
+   * Send n lookups and count the failed ones.
+   */
+  private static int lookup(RgwAdmin admin, int n) {
+    int failures = 0;
+    for (int i = 0; i < n; i++) {
+      try {
+        assertTrue(admin.getUserInfo("user-0000001").isPresent());
+      } catch (RgwAdminException e) {
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  /*
+   * Send n requests and count the failed ones.
+   */
+  private static int lookup(OkHttpClient client, Request request, int n) throws IOException {
+    int failures = 0;
+    for (int i = 0; i < n; i++) {
+      try (Response response = client.newCall(request).execute()) {
+        if (!response.isSuccessful()) {
+          failures++;
+        }
+      }
+    }
+    return failures;
+  }
+
+  @Test
+  public void roundRobin() {
+    FakeRgwServer a = start(Duration.ZERO);
+    FakeRgwServer b = start(Duration.ZERO);
+    // the path prefix of each endpoint is kept
+    FakeRgwServer c = start(Duration.ZERO);
+    RgwAdmin admin = builder(a.endpoint(), b.endpoint(), c.endpoint() + "/").build();
+
+    assertEquals(0, lookup(admin, 30));
+    assertEquals(10, a.requestCount());
+    assertEquals(10, b.requestCount());
+    assertEquals(10, c.requestCount());
+  }
+
+  @Test
+  public void ejectUnreachableEndpoint() throws IOException {
+    FakeRgwServer a = start(Duration.ZERO);
+    FakeRgwServer down = start(Duration.ZERO);
+    down.close();
+    RgwAdmin admin =
+        builder(a.endpoint(), down.endpoint())
+            .endpointEjection(3, Duration.ofMinutes(1))
+            .build();
+
+    assertEquals(3, lookup(admin, 20));
+    assertEquals(17, a.requestCount());
+  }
+
+  @Test
+  public void readmitAfterEjection() throws IOException {
+    FakeRgwServer a = start(Duration.ZERO);
+    FakeRgwServer b = start(Duration.ZERO);
+    AtomicLong now = new AtomicLong();
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return now.get();
+          }
+        };
+    OkHttpClient client =
+        new OkHttpClient.Builder()
+            .addInterceptor(
+                new LoadBalancer(
+                    Arrays.asList(a.endpoint(), b.endpoint()),
+                    LoadBalancing.ROUND_ROBIN,
+                    1,
+                    Duration.ofMillis(500),
+                    ticker))
+            .addInterceptor(new S3Auth("admin", "secret"))
+            .build();
+    Request request =
+        new Request.Builder().url(a.endpoint() + "/user?uid=user-0000001").get().build();
+
+    b.failNext(503);
+    assertEquals(1, lookup(client, request, 10));
+    assertEquals(1, b.requestCount());
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+    assertEquals(0, lookup(client, request, 10));
+    assertEquals(1, b.requestCount());
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    assertEquals(0, lookup(client, request, 10));
+    assertEquals(6, b.requestCount());
+  }
+
+  @Test
+  public void preferFastEndpoint() {
+    FakeRgwServer fast = start(Duration.ZERO);
+    FakeRgwServer slow = start(Duration.ofMillis(50));
+    RgwAdmin admin =
+        builder(fast.endpoint(), slow.endpoint()).loadBalancing(LoadBalancing.LATENCY_EWMA).build();
+
+    assertEquals(0, lookup(admin, 40));
+    assertTrue(slow.requestCount() <= 2);
+  }
+
+  @Test
+  public void spreadSequentialRequestsByOutstanding() {
+    FakeRgwServer a = start(Duration.ZERO);
+    FakeRgwServer b = start(Duration.ZERO);
+    RgwAdmin admin =
+        builder(a.endpoint(), b.endpoint())
+            .loadBalancing(LoadBalancing.LEAST_OUTSTANDING_REQUESTS)
+            .build();
+
+    assertEquals(0, lookup(admin, 20));
+    assertEquals(10, a.requestCount());
+    assertEquals(10, b.requestCount());
+  }
+}
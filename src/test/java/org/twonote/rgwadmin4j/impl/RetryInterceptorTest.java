@@ -0,0 +1,116 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RetryPolicy;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+
+public class RetryInterceptorTest {
+
+  private FakeRgwServer rgw;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).start();
+  }
+
+  @After
+  public void stop() throws IOException {
+    rgw.close();
+  }
+
+  private static RetryPolicy.Builder policy() {
+    return RetryPolicy.builder().maxAttempts(3).backoff(Duration.ofMillis(1), Duration.ofMillis(5));
+  }
+
+  private RgwAdmin admin(RetryPolicy policy) {
+    return new RgwAdminBuilder()
+        .accessKey("admin")
+        .secretKey("secret")
+        .endpoint(rgw.endpoint())
+        .retryPolicy(policy)
+        .build();
+  }
+
+  private static void assertFails(int status, Runnable call) {
+    try {
+      call.run();
+      fail();
+    } catch (RgwAdminException e) {
+      assertEquals(status, e.status());
+    }
+  }
+
+  @Test
+  public void retryTransientFailures() {
+    RgwAdmin admin = admin(policy().build());
+    rgw.failNext(503);
+    rgw.failNext(500);
+    assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    assertEquals(3, rgw.requestCount());
+
+    rgw.failNext(503);
+    rgw.failNext(503);
+    rgw.failNext(503);
+    assertFails(503, () -> admin.getUserInfo("user-0000001"));
+    assertEquals(6, rgw.requestCount());
+  }
+
+  @Test
+  public void retryIdempotentRequestsOnly() {
+    RgwAdmin admin = admin(policy().build());
+
+    rgw.failNext(503);
+    assertFails(503, () -> admin.createS3Credential("user-0000001"));
+    assertEquals(1, rgw.requestCount());
+
+    rgw.failNext(503);
+    assertFails(503, () -> admin.modifyUser("user-0000001", ImmutableMap.of("max-buckets", "5")));
+    assertEquals(2, rgw.requestCount());
+
+    // the key is given, so repeating the request is harmless
+    rgw.failNext(503);
+    admin.createS3Credential("user-0000001", "RETRIEDKEY", "secret");
+    assertEquals(4, rgw.requestCount());
+  }
+
+  @Test
+  public void stopRetryingWhenBudgetIsSpent() {
+    RgwAdmin admin = admin(policy().budget(0, 2).build());
+    for (int i = 0; i < 10; i++) {
+      rgw.failNext(503);
+    }
+    // 2 retries left
+    assertFails(503, () -> admin.getUserInfo("user-0000001"));
+    assertEquals(3, rgw.requestCount());
+    // none left
+    assertFails(503, () -> admin.getUserInfo("user-0000001"));
+    assertEquals(4, rgw.requestCount());
+  }
+
+  @Test
+  public void retryOnAnotherEndpoint() throws IOException {
+    FakeRgwServer down = FakeRgwServer.builder().users(1).start();
+    down.close();
+    RgwAdmin admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoints(down.endpoint(), rgw.endpoint())
+            .retryPolicy(policy().build())
+            .build();
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(admin.getUserInfo("user-0000001").isPresent());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.ListOptions;
+import org.twonote.rgwadmin4j.RgwAdminAsync;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+
+public class RgwAdminAsyncCancelTest {
+
+  private FakeRgwServer rgw;
+  private OkHttpClient client;
+  private RgwAdminAsync admin;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).latency(Duration.ofSeconds(3)).start();
+    client = new OkHttpClient();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .httpClient(client)
+            .buildAsync();
+  }
+
+  @After
+  public void stop() throws IOException {
+    client.dispatcher().cancelAll();
+    rgw.close();
+  }
+
+  /*
+   * Wait for the number of running calls, well before the responses would arrive.
+   */
+  private void awaitRunning(int calls) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (client.dispatcher().runningCallsCount() != calls && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(calls, client.dispatcher().runningCallsCount());
+  }
+
+  private void awaitRequests(int requests) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (rgw.requestCount() < requests && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(requests, rgw.requestCount());
+  }
+
+  @Test
+  public void cancelCancelsCall() throws Exception {
+    CompletableFuture<?> future = admin.getUserInfo("user-0");
+    awaitRunning(1);
+
+    assertTrue(future.cancel(true));
+    awaitRunning(0);
+  }
+
+  @Test
+  public void cancelCancelsCallOfChainedOperation() throws Exception {
+    CompletableFuture<?> future = admin.listSubUser("user-0");
+    awaitRunning(1);
+
+    assertTrue(future.cancel(true));
+    awaitRunning(0);
+  }
+
+  @Test
+  public void cancelCancelsFanOut() throws Exception {
+    CompletableFuture<?> future = admin.listUserInfo(ListOptions.parallelism(3));
+    // The listing, then the first three metadata reads.
+    awaitRequests(4);
+
+    assertTrue(future.cancel(true));
+    awaitRunning(0);
+    assertEquals(4, rgw.requestCount());
+  }
+
+  @Test
+  public void listUserInfoWithinDispatcherLimit() throws Exception {
+    client.dispatcher().setMaxRequestsPerHost(2);
+    CompletableFuture<?> future = admin.listUserInfo();
+    // The listing, then the first two metadata reads; the others are not enqueued yet.
+    awaitRequests(3);
+    assertEquals(0, client.dispatcher().queuedCallsCount());
+
+    assertTrue(future.cancel(true));
+    awaitRunning(0);
+  }
+}
@@ -0,0 +1,60 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RgwAdminAsync;
+import org.twonote.rgwadmin4j.model.User;
+
+public class RgwAdminAsyncImplTest extends BaseTest {
+
+  private static RgwAdminAsync RGW_ADMIN_ASYNC;
+
+  @BeforeClass
+  public static void initAsync() {
+    RGW_ADMIN_ASYNC = new RgwAdminAsyncImpl(adminAccessKey, adminSecretKey, adminEndpoint);
+  }
+
+  @Test
+  public void getUserInfo() {
+    testWithAUser(
+        u -> {
+          User response = RGW_ADMIN_ASYNC.getUserInfo(u.getUserId()).join().get();
+          assertEquals(u, response);
+        });
+
+    // not exist
+    assertFalse(RGW_ADMIN_ASYNC.getUserInfo(UUID.randomUUID().toString()).join().isPresent());
+  }
+
+  @Test
+  public void listUserInfo() {
+    testWithAUser(
+        u -> {
+          List<User> users = RGW_ADMIN_ASYNC.listUserInfo().join();
+          assertTrue(users.stream().anyMatch(u::equals));
+        });
+  }
+
+  @Test
+  public void failure() {
+    try {
+      RGW_ADMIN_ASYNC.createS3Credential(UUID.randomUUID().toString()).join();
+      fail("should not create credential for a user not exist");
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof RgwAdminException);
+      String message = e.getCause().getMessage();
+      assertTrue(
+          "InvalidArgument".equals(message) // kraken
+              || "NoSuchUser".equals(message) // luminous
+          );
+    }
+  }
+}
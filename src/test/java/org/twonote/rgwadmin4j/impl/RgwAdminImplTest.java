@@ -13,20 +13,25 @@ import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.twonote.rgwadmin4j.ListOptions;
 import org.twonote.rgwadmin4j.model.BucketInfo;
 import org.twonote.rgwadmin4j.model.Cap;
 import org.twonote.rgwadmin4j.model.ClusterInfo;
 import org.twonote.rgwadmin4j.model.CredentialType;
+import org.twonote.rgwadmin4j.model.MetadataPage;
 import org.twonote.rgwadmin4j.model.Quota;
 import org.twonote.rgwadmin4j.model.S3Credential;
 import org.twonote.rgwadmin4j.model.SubUser;
@@ -56,6 +61,22 @@ public class RgwAdminImplTest extends BaseTest {
         });
   }
 
+  @Test
+  public void listUserInfoInParallel() {
+    testWithAUser(
+        u -> {
+          List<String> failed = Collections.synchronizedList(new ArrayList<>());
+          List<User> users =
+              RGW_ADMIN.listUserInfo(
+                  ListOptions.parallelism(8).onFailure((uid, e) -> failed.add(uid)));
+          assertTrue(users.stream().anyMatch(u::equals));
+          assertTrue(failed.isEmpty());
+          assertEquals(
+              RGW_ADMIN.listUserInfo().stream().map(User::getUserId).collect(Collectors.toList()),
+              users.stream().map(User::getUserId).collect(Collectors.toList()));
+        });
+  }
+
   @Test
   public void listUser() {
     testWithAUser(
@@ -65,6 +86,29 @@ public class RgwAdminImplTest extends BaseTest {
         });
   }
 
+  @Test
+  public void listUserPage() {
+    testWithAUser(
+        u -> {
+          // at least the admin and the test user exist
+          MetadataPage page = RGW_ADMIN.listUserPage(null, 1);
+          assertEquals(1, page.getKeys().size());
+          assertTrue(page.isTruncated());
+          assertNotNull(page.getMarker());
+
+          MetadataPage nextPage = RGW_ADMIN.listUserPage(page.getMarker(), 1);
+          assertEquals(1, nextPage.getKeys().size());
+          assertFalse(page.getKeys().equals(nextPage.getKeys()));
+
+          List<String> userIds = new ArrayList<>();
+          RGW_ADMIN.iterateUsers(1).forEach(userIds::add);
+          assertTrue(userIds.contains(u.getUserId()));
+          assertEquals(
+              RGW_ADMIN.listUser().stream().sorted().collect(Collectors.toList()),
+              userIds.stream().sorted().collect(Collectors.toList()));
+        });
+  }
+
   @Test
   public void listSubUserInfo() {
     testWithASubUser(
@@ -708,6 +752,32 @@ public class RgwAdminImplTest extends BaseTest {
         });
   }
 
+  @Test
+  public void streamBucketInfo() {
+    testWithASubUser(
+        v -> {
+          AmazonS3 s3 =
+              createS3(
+                  v.getS3Credentials().get(0).getAccessKey(),
+                  v.getS3Credentials().get(0).getSecretKey());
+          for (int i = 0; i < 3; i++) {
+            s3.createBucket(UUID.randomUUID().toString().toLowerCase());
+          }
+
+          // all buckets
+          try (Stream<BucketInfo> buckets = RGW_ADMIN.streamBucketInfo()) {
+            assertTrue(buckets.count() >= 3);
+          }
+
+          // bucket belong to the user
+          try (Stream<BucketInfo> buckets = RGW_ADMIN.streamBucketInfo(v.getUserId())) {
+            assertEquals(
+                RGW_ADMIN.listBucket(v.getUserId()).stream().sorted().collect(Collectors.toList()),
+                buckets.map(BucketInfo::getBucket).sorted().collect(Collectors.toList()));
+          }
+        });
+  }
+
   @Test
   public void listBucket() {
     testWithASubUser(
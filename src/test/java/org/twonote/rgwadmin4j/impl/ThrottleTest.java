@@ -0,0 +1,146 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.OperationClass;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+
+public class ThrottleTest {
+
+  private static long elapsedMillis(Runnable runnable) {
+    long start = System.nanoTime();
+    runnable.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private static OperationClass classify(String method, String path) {
+    RequestBody body = "GET".equals(method) ? null : RequestBody.create(new byte[0], null);
+    return Throttle.classify(
+        new Request.Builder().url("http://127.0.0.1/admin/" + path).method(method, body).build());
+  }
+
+  @Test
+  public void classify() {
+    assertEquals(OperationClass.READ, classify("GET", "user"));
+    assertEquals(OperationClass.WRITE, classify("PUT", "user"));
+    assertEquals(OperationClass.WRITE, classify("POST", "user"));
+    assertEquals(OperationClass.DELETE, classify("DELETE", "bucket"));
+    assertEquals(OperationClass.USAGE_TRIM, classify("DELETE", "usage"));
+
+    AdminRequests requests = new AdminRequests("http://127.0.0.1/admin");
+    assertEquals(
+        OperationClass.READ, Throttle.classify(requests.checkBucketIndex("b", true, false)));
+    assertEquals(
+        OperationClass.WRITE, Throttle.classify(requests.checkBucketIndex("b", true, true)));
+  }
+
+  @Test
+  public void limitRatePerOperationClass() throws IOException {
+    try (FakeRgwServer rgw = FakeRgwServer.builder().users(10).start()) {
+      RgwAdmin admin =
+          new RgwAdminBuilder()
+              .accessKey("admin")
+              .secretKey("secret")
+              .endpoint(rgw.endpoint())
+              .rateLimit(OperationClass.READ, 20)
+              .build();
+
+      // 20 requests per second, the first one at once
+      assertTrue(
+          elapsedMillis(
+                  () -> IntStream.range(0, 21).forEach(i -> admin.getUserInfo("user-0000001")))
+              >= 900);
+      // writes are not limited
+      assertTrue(
+          elapsedMillis(
+                  () ->
+                      IntStream.range(0, 21)
+                          .forEach(
+                              i ->
+                                  admin.modifyUser(
+                                      "user-0000001", ImmutableMap.of("max-buckets", "5"))))
+              < 900);
+    }
+  }
+
+  @Test
+  public void holdSlotUntilBodyClosed() throws Exception {
+    try (FakeRgwServer rgw = FakeRgwServer.builder().users(10).start()) {
+      OkHttpClient client =
+          new OkHttpClient.Builder()
+              .addInterceptor(
+                  new Throttle(ImmutableMap.of(), ImmutableMap.of(OperationClass.READ, 1)))
+              .addInterceptor(new S3Auth("admin", "secret"))
+              .build();
+      Request request =
+          new Request.Builder().url(rgw.endpoint() + "/user?uid=user-0000001").get().build();
+
+      Response first = client.newCall(request).execute();
+      CompletableFuture<Integer> second =
+          CompletableFuture.supplyAsync(
+              () -> {
+                try (Response response = client.newCall(request).execute()) {
+                  return response.code();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+      Thread.sleep(200);
+      assertFalse(second.isDone());
+
+      first.close();
+      assertEquals(Integer.valueOf(200), second.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void limitConcurrency() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try (FakeRgwServer rgw =
+        FakeRgwServer.builder().users(10).latency(Duration.ofMillis(200)).start()) {
+      RgwAdmin admin =
+          new RgwAdminBuilder()
+              .accessKey("admin")
+              .secretKey("secret")
+              .endpoint(rgw.endpoint())
+              .maxConcurrentRequests(OperationClass.READ, 2)
+              .build();
+
+      // 6 reads, 2 at a time
+      long elapsed =
+          elapsedMillis(
+              () -> {
+                List<CompletableFuture<Void>> futures =
+                    IntStream.range(0, 6)
+                        .mapToObj(
+                            i ->
+                                CompletableFuture.runAsync(
+                                    () -> admin.getUserInfo("user-0000001"), executor))
+                        .collect(Collectors.toList());
+                futures.forEach(CompletableFuture::join);
+              });
+      assertTrue(elapsed >= 600);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
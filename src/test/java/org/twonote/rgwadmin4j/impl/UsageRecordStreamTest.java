@@ -0,0 +1,140 @@
+package org.twonote.rgwadmin4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.usage.BucketUsage;
+import org.twonote.rgwadmin4j.model.usage.Entries;
+import org.twonote.rgwadmin4j.model.usage.Usage;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+public class UsageRecordStreamTest {
+
+  private static RgwAdmin admin(String endpoint) {
+    return new RgwAdminBuilder().accessKey("admin").secretKey("secret").endpoint(endpoint).build();
+  }
+
+  @Test
+  public void sameAsGetUsage() throws IOException {
+    try (FakeRgwServer rgw =
+        FakeRgwServer.builder().users(20).bucketsPerUser(3).usageHours(5).start()) {
+      RgwAdmin admin = admin(rgw.endpoint());
+      Map<String, String> parameters = ImmutableMap.of("start", "2017-04-01 02:00:00");
+
+      List<String> expected = new ArrayList<>();
+      UsageInfo usage = admin.getUsage(parameters).get();
+      for (Entries entries : usage.getEntries()) {
+        for (BucketUsage bucket : entries.getBuckets()) {
+          for (Usage u : bucket.getCategories()) {
+            expected.add(
+                format(
+                    new UsageRecord(
+                        entries.getUser(),
+                        bucket.getBucket(),
+                        bucket.getOwner(),
+                        bucket.getEpoch(),
+                        u.getCategory(),
+                        u.getBytes_sent(),
+                        u.getBytes_received(),
+                        u.getOps(),
+                        u.getSuccessful_ops())));
+          }
+        }
+      }
+
+      List<String> streamed;
+      try (Stream<UsageRecord> records = admin.streamUsage(parameters)) {
+        streamed = records.map(UsageRecordStreamTest::format).collect(Collectors.toList());
+      }
+      assertEquals(20 * 3 * 3 * 4, streamed.size());
+      assertEquals(expected, streamed);
+
+      List<UsageRecord> consumed = new ArrayList<>();
+      admin.streamUsage(ImmutableMap.of("uid", "user-0000001"), consumed::add);
+      assertEquals(3 * 5 * 4, consumed.size());
+      assertEquals("user-0000001", consumed.get(0).getUser());
+    }
+  }
+
+  @Test
+  public void lenientOrder() throws IOException, InterruptedException {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(
+          new MockResponse()
+              .setBody(
+                  "{\"summary\":[{\"user\":\"a\",\"categories\":[],\"total\":{}}],"
+                      + "\"entries\":["
+                      + "{\"buckets\":[{\"categories\":[{\"category\":\"put_obj\",\"ops\":2,"
+                      + "\"bytes_received\":7,\"extra\":[1]}],\"owner\":\"a\",\"bucket\":\"b\","
+                      + "\"epoch\":3600}],\"user\":\"a\"},"
+                      + "{\"user\":\"c\",\"buckets\":[]},"
+                      + "{\"user\":\"d\",\"buckets\":[{\"bucket\":\"\",\"epoch\":7200,"
+                      + "\"categories\":[{\"category\":\"list_buckets\",\"bytes_sent\":5,"
+                      + "\"ops\":1,\"successful_ops\":1}]}]}]}"));
+      server.enqueue(new MockResponse().setResponseCode(404));
+
+      RgwAdmin admin = admin(server.url("/admin").toString());
+      List<UsageRecord> records;
+      try (Stream<UsageRecord> stream = admin.streamUsage(null)) {
+        records = stream.collect(Collectors.toList());
+      }
+      assertEquals(2, records.size());
+      assertEquals("a|b|a|3600|put_obj|0|7|2|0", format(records.get(0)));
+      assertEquals("d||null|7200|list_buckets|5|0|1|1", format(records.get(1)));
+      // The summary is skipped, so it is not requested.
+      assertEquals(
+          "False", server.takeRequest().getRequestUrl().queryParameter("show-summary"));
+
+      try (Stream<UsageRecord> stream = admin.streamUsage(null)) {
+        assertFalse(stream.findAny().isPresent());
+      }
+    }
+  }
+
+  @Test
+  public void malformedNumber() throws IOException {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(
+          new MockResponse()
+              .setBody(
+                  "{\"entries\":[{\"user\":\"a\",\"buckets\":[{\"bucket\":\"b\","
+                      + "\"epoch\":\"soon\",\"categories\":[]}]}]}"));
+
+      RgwAdmin admin = admin(server.url("/admin").toString());
+      try (Stream<UsageRecord> stream = admin.streamUsage(null)) {
+        stream.forEach(r -> {});
+        fail();
+      } catch (RgwAdminException e) {
+        assertEquals(500, e.status());
+      }
+    }
+  }
+
+  private static String format(UsageRecord r) {
+    return String.join(
+        "|",
+        r.getUser(),
+        r.getBucket(),
+        r.getOwner(),
+        String.valueOf(r.getEpoch()),
+        r.getCategory(),
+        String.valueOf(r.getBytesSent()),
+        String.valueOf(r.getBytesReceived()),
+        String.valueOf(r.getOps()),
+        String.valueOf(r.getSuccessfulOps()));
+  }
+}
@@ -0,0 +1,135 @@
+package org.twonote.rgwadmin4j.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RetryPolicy;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.impl.RgwAdminException;
+import org.twonote.rgwadmin4j.model.BucketInfo;
+
+public class MetricsListenerTest {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final List<RequestMetrics> completed = new CopyOnWriteArrayList<>();
+  private final List<String> retried = new CopyOnWriteArrayList<>();
+
+  private final MetricsListener listener =
+      new MetricsListener() {
+        @Override
+        public void requestStarted(String operation, String method) {
+          inFlight.incrementAndGet();
+        }
+
+        @Override
+        public void requestCompleted(RequestMetrics metrics) {
+          inFlight.decrementAndGet();
+          completed.add(metrics);
+        }
+
+        @Override
+        public void requestRetried(String operation, String method, int attempt) {
+          retried.add(method + " " + operation + " " + attempt);
+        }
+      };
+
+  private FakeRgwServer rgw;
+  private RgwAdmin admin;
+
+  @Before
+  public void start() {
+    rgw = FakeRgwServer.builder().users(10).bucketsPerUser(2).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .metricsListener(listener)
+            .retryPolicy(
+                RetryPolicy.builder().backoff(Duration.ZERO, Duration.ZERO).maxAttempts(2).build())
+            .build();
+  }
+
+  @After
+  public void stop() throws IOException {
+    rgw.close();
+  }
+
+  private RequestMetrics last() {
+    return completed.get(completed.size() - 1);
+  }
+
+  @Test
+  public void nameOperations() {
+    admin.getUserInfo("user-0000001");
+    assertEquals("user", last().getOperation());
+    assertEquals("GET", last().getMethod());
+    assertEquals(200, last().getStatus());
+    assertTrue(last().getBytesReceived() > 0);
+    assertTrue(last().getLatencyNanos() > 0);
+    assertNull(last().getFailure());
+
+    admin.getUserQuota("user-0000001");
+    assertEquals("user.quota", last().getOperation());
+    admin.createS3Credential("user-0000001");
+    assertEquals("user.key", last().getOperation());
+    assertEquals("PUT", last().getMethod());
+    admin.getBucketInfo("user-0000001-bucket-0");
+    assertEquals("bucket", last().getOperation());
+    admin.getUsage();
+    assertEquals("usage", last().getOperation());
+    admin.listUser();
+    assertEquals("metadata", last().getOperation());
+
+    admin.getUserInfo("nobody");
+    assertEquals(404, last().getStatus());
+    assertEquals(0, inFlight.get());
+  }
+
+  @Test
+  public void measureStreamsUntilClosed() {
+    try (Stream<BucketInfo> buckets = admin.streamBucketInfo()) {
+      assertEquals(20, buckets.count());
+    }
+    assertEquals(0, inFlight.get());
+    assertEquals("bucket", last().getOperation());
+    assertTrue(last().getBytesReceived() > 0);
+  }
+
+  @Test
+  public void reportRetriesAsPartOfRequest() {
+    rgw.failNext(503);
+    admin.getUserInfo("user-0000001");
+    assertEquals(1, completed.size());
+    assertEquals(200, last().getStatus());
+    assertEquals(1, retried.size());
+    assertEquals("GET user 2", retried.get(0));
+  }
+
+  @Test
+  public void reportIoFailures() throws IOException {
+    rgw.close();
+    try {
+      admin.getInfo();
+      fail();
+    } catch (RgwAdminException e) {
+      assertEquals(0, last().getStatus());
+      assertNotNull(last().getFailure());
+    }
+    assertEquals(0, inFlight.get());
+  }
+}
@@ -0,0 +1,138 @@
+package org.twonote.rgwadmin4j.usage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.usage.UsageTable.Dimension;
+import org.twonote.rgwadmin4j.usage.UsageTable.Metric;
+
+public class UsageAggregatorTest {
+
+  private static final long DAY = 86400;
+
+  private static UsageTable sample() {
+    return UsageTable.builder()
+        .add("a", "b1", "a", DAY + 3600, "put_obj", 0, 100, 2, 2)
+        .add("a", "b1", "a", DAY + 7200, "put_obj", 0, 50, 1, 1)
+        .add("a", "b2", "a", 2 * DAY, "get_obj", 70, 0, 7, 6)
+        .add("c", "b1", "a", DAY + 3600, "get_obj", 30, 0, 3, 3)
+        .build();
+  }
+
+  @Test
+  public void groupByUser() {
+    UsageTable table = sample();
+    UsageAggregator.Result result =
+        UsageAggregator.builder().groupBy(Dimension.USER).build().aggregate(table);
+
+    assertEquals(2, result.size());
+    assertEquals("a", result.name(Dimension.USER, 0));
+    assertEquals("c", result.name(Dimension.USER, 1));
+    assertEquals(3, result.count(0));
+    assertEquals(150, result.sum(0, Metric.BYTES_RECEIVED));
+    assertEquals(7, result.max(0, Metric.OPS));
+    assertNull(result.timeBucket(0));
+    // The table spans from the second hour of day 1 through the first hour of day 2.
+    assertEquals(10.0 / DAY, result.rate(0, Metric.OPS), 1e-12);
+    assertArrayEquals(new int[] {0, 1}, result.top(Metric.OPS, 5));
+    assertArrayEquals(new int[] {0}, result.top(Metric.BYTES_SENT, 1));
+
+    try {
+      result.id(Dimension.BUCKET, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void groupByBucketAndDay() {
+    UsageAggregator.Result result =
+        UsageAggregator.builder()
+            .groupBy(Dimension.CATEGORY, Dimension.BUCKET)
+            .timeBucket(Duration.ofDays(1))
+            .build()
+            .aggregate(sample());
+
+    // b1 put_obj day 1, b1 get_obj day 1, b2 get_obj day 2
+    assertEquals(3, result.size());
+    assertEquals("b1", result.name(Dimension.BUCKET, 0));
+    assertEquals("put_obj", result.name(Dimension.CATEGORY, 0));
+    assertEquals(Instant.ofEpochSecond(DAY), result.timeBucket(0));
+    assertEquals(3, result.sum(0, Metric.OPS));
+    assertEquals(3.0 / DAY, result.rate(0, Metric.OPS), 1e-12);
+    assertEquals("b1", result.name(Dimension.BUCKET, 1));
+    assertEquals("get_obj", result.name(Dimension.CATEGORY, 1));
+    assertEquals("b2", result.name(Dimension.BUCKET, 2));
+    assertEquals(Instant.ofEpochSecond(2 * DAY), result.timeBucket(2));
+  }
+
+  @Test
+  public void filter() {
+    UsageTable table = sample();
+    int getObj = table.names(Dimension.CATEGORY).indexOf("get_obj");
+    UsageAggregator.Result result =
+        UsageAggregator.builder()
+            .filter(row -> table.id(Dimension.CATEGORY, row) == getObj)
+            .build()
+            .aggregate(table);
+
+    assertEquals(1, result.size());
+    assertEquals(2, result.count(0));
+    assertEquals(100, result.sum(0, Metric.BYTES_SENT));
+  }
+
+  @Test
+  public void parallel() {
+    Random random = new Random(42);
+    UsageTable.Builder builder = UsageTable.builder();
+    Map<String, long[]> expected = new HashMap<>();
+    for (int i = 0; i < 500_000; i++) {
+      String user = "user-" + random.nextInt(300);
+      String category = "category-" + random.nextInt(5);
+      long epoch = 3600L * random.nextInt(24 * 30);
+      long ops = random.nextInt(1000);
+      builder.add(user, "bucket", user, epoch, category, 0, 0, ops, ops);
+      long[] e = expected.computeIfAbsent(user + category + epoch / DAY, k -> new long[2]);
+      e[0] += ops;
+      e[1] = Math.max(e[1], ops);
+    }
+
+    UsageAggregator.Result result =
+        UsageAggregator.builder()
+            .groupBy(Dimension.USER, Dimension.CATEGORY)
+            .timeBucket(Duration.ofDays(1))
+            .build()
+            .aggregate(builder.build());
+
+    assertEquals(expected.size(), result.size());
+    for (int group = 0; group < result.size(); group++) {
+      long[] e =
+          expected.get(
+              result.name(Dimension.USER, group)
+                  + result.name(Dimension.CATEGORY, group)
+                  + result.timeBucket(group).getEpochSecond() / DAY);
+      assertEquals(e[0], result.sum(group, Metric.OPS));
+      assertEquals(e[1], result.max(group, Metric.OPS));
+    }
+  }
+
+  @Test
+  public void empty() {
+    UsageAggregator.Result result =
+        UsageAggregator.builder()
+            .groupBy(Dimension.USER)
+            .timeBucket(Duration.ofHours(1))
+            .build()
+            .aggregate(UsageTable.builder().build());
+    assertEquals(0, result.size());
+  }
+}
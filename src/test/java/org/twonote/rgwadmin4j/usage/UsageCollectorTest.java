@@ -0,0 +1,119 @@
+package org.twonote.rgwadmin4j.usage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.model.usage.UsageRecord;
+
+public class UsageCollectorTest {
+
+  private static final Instant START = Instant.ofEpochSecond(FakeRgwServer.USAGE_START);
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private FakeRgwServer rgw;
+  private RgwAdmin admin;
+  private Path file;
+
+  @Before
+  public void start() throws IOException {
+    rgw = FakeRgwServer.builder().users(3).bucketsPerUser(1).usageHours(12).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .build();
+    file = folder.getRoot().toPath().resolve("marks");
+  }
+
+  @After
+  public void stop() throws IOException {
+    rgw.close();
+  }
+
+  private static Instant hours(long hours) {
+    return START.plus(Duration.ofHours(hours));
+  }
+
+  @Test
+  public void incremental() {
+    UsageCollector collector = UsageCollector.builder(admin, file).build();
+    List<UsageRecord> records = new ArrayList<>();
+
+    // 3 users * 4 hours * 4 categories
+    assertEquals(48, collector.collect(hours(4), records::add));
+    assertEquals(48, records.size());
+    assertEquals(hours(3), collector.highWaterMark("user-0000001").get());
+
+    // Only complete hours are collected.
+    assertEquals(0, collector.collect(hours(4).plus(Duration.ofMinutes(30)), records::add));
+
+    records.clear();
+    assertEquals(72, collector.collect(hours(10), records::add));
+    assertTrue(records.stream().allMatch(r -> r.getEpoch() >= hours(4).getEpochSecond()));
+
+    // The marks survive the collector.
+    UsageCollector next = UsageCollector.builder(admin, file).build();
+    assertEquals(hours(9), next.highWaterMark("user-0000002").get());
+    assertEquals(0, next.collect(hours(10), records::add));
+  }
+
+  @Test
+  public void perUser() {
+    UsageCollector collector =
+        UsageCollector.builder(admin, file).initialStart(hours(8)).build();
+    List<UsageRecord> records = new ArrayList<>();
+
+    assertFalse(collector.highWaterMark("user-0000001").isPresent());
+    assertEquals(16, collector.collectUser("user-0000001", hours(12), records::add));
+    assertEquals(hours(11), collector.highWaterMark("user-0000001").get());
+
+    // The user collected ahead is not passed again.
+    records.clear();
+    assertEquals(2 * 2 * 4, collector.collect(hours(10), records::add));
+    assertTrue(records.stream().noneMatch(r -> "user-0000001".equals(r.getUser())));
+    assertEquals(hours(11), collector.highWaterMark("user-0000001").get());
+    assertEquals(hours(9), collector.highWaterMark("user-0000002").get());
+
+    records.clear();
+    assertEquals(2 * 2 * 4, collector.collect(hours(12), records::add));
+    assertEquals(0, collector.collectUser("user-0000001", hours(12), records::add));
+  }
+
+  @Test
+  public void trim() throws InterruptedException {
+    UsageCollector collector = UsageCollector.builder(admin, file).trim(true).build();
+    collector.collect(hours(6), r -> {});
+
+    RecordedRequest read = rgw.server().takeRequest(1, TimeUnit.SECONDS);
+    RecordedRequest trim = rgw.server().takeRequest(1, TimeUnit.SECONDS);
+    assertEquals("GET", read.getMethod());
+    assertEquals("DELETE", trim.getMethod());
+    assertEquals("2017-04-01 06:00:00", trim.getRequestUrl().queryParameter("end"));
+    assertEquals(null, trim.getRequestUrl().queryParameter("uid"));
+
+    collector.collectUser("user-0000001", hours(8), r -> {});
+    rgw.server().takeRequest(1, TimeUnit.SECONDS);
+    trim = rgw.server().takeRequest(1, TimeUnit.SECONDS);
+    assertEquals("DELETE", trim.getMethod());
+    assertEquals("user-0000001", trim.getRequestUrl().queryParameter("uid"));
+  }
+}
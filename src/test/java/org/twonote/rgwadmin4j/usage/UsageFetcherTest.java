@@ -0,0 +1,167 @@
+package org.twonote.rgwadmin4j.usage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.usage.BucketUsage;
+import org.twonote.rgwadmin4j.model.usage.Entries;
+import org.twonote.rgwadmin4j.model.usage.Summary;
+import org.twonote.rgwadmin4j.model.usage.Usage;
+
+public class UsageFetcherTest {
+
+  private static final Instant START = Instant.ofEpochSecond(FakeRgwServer.USAGE_START);
+
+  private static FakeRgwServer rgw;
+  private static RgwAdmin admin;
+
+  @BeforeClass
+  public static void start() {
+    rgw = FakeRgwServer.builder().users(5).bucketsPerUser(2).usageHours(30).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .build();
+  }
+
+  @AfterClass
+  public static void stop() throws IOException {
+    rgw.close();
+  }
+
+  @Test
+  public void windows() {
+    UsageInfo whole = admin.getUsage().get();
+    int before = rgw.requestCount();
+    UsageInfo merged =
+        UsageFetcher.builder(admin)
+            .window(Duration.ofHours(6))
+            .parallelism(3)
+            .build()
+            .fetch(START, START.plus(Duration.ofDays(2)));
+
+    assertEquals(8, rgw.requestCount() - before);
+    assertSame(whole, merged);
+  }
+
+  @Test
+  public void splitByUser() {
+    UsageInfo whole = admin.getUsage().get();
+    int before = rgw.requestCount();
+    UsageInfo merged =
+        UsageFetcher.builder(admin)
+            .splitByUser(true)
+            .parallelism(8)
+            .build()
+            .fetch(START, START.plus(Duration.ofDays(2)));
+
+    // 1 listing, 5 users * 2 days
+    assertEquals(11, rgw.requestCount() - before);
+    assertSame(whole, merged);
+  }
+
+  @Test
+  public void splitByUserWithoutUsers() throws IOException {
+    try (FakeRgwServer empty = FakeRgwServer.builder().users(0).start()) {
+      RgwAdmin emptyAdmin =
+          new RgwAdminBuilder()
+              .accessKey("admin")
+              .secretKey("secret")
+              .endpoint(empty.endpoint())
+              .build();
+      UsageInfo usage =
+          UsageFetcher.builder(emptyAdmin)
+              .splitByUser(true)
+              .build()
+              .fetch(START, START.plus(Duration.ofDays(2)));
+
+      assertTrue(usage.getEntries().isEmpty());
+      assertTrue(usage.getSummary().isEmpty());
+      // Only the listing.
+      assertEquals(1, empty.requestCount());
+    }
+  }
+
+  @Test
+  public void parameters() {
+    UsageInfo usage =
+        UsageFetcher.builder(admin)
+            .window(Duration.ofHours(1))
+            .splitByUser(true)
+            .build()
+            .fetch(
+                START.plus(Duration.ofHours(2)),
+                START.plus(Duration.ofHours(5)),
+                ImmutableMap.of("uid", "user-0000003", "show-summary", "false"));
+
+    assertNull(usage.getSummary());
+    assertEquals(1, usage.getEntries().size());
+    List<Long> epochs =
+        usage
+            .getEntries()
+            .get(0)
+            .getBuckets()
+            .stream()
+            .map(BucketUsage::getEpoch)
+            .distinct()
+            .collect(Collectors.toList());
+    assertEquals(3, epochs.size());
+    assertEquals(FakeRgwServer.USAGE_START + 2 * 3600, (long) epochs.get(0));
+  }
+
+  @Test
+  public void invalidWindow() {
+    try {
+      UsageFetcher.builder(admin).window(Duration.ofMinutes(90));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static void assertSame(UsageInfo expected, UsageInfo actual) {
+    assertEquals(expected.getEntries().size(), actual.getEntries().size());
+    for (int i = 0; i < expected.getEntries().size(); i++) {
+      Entries e = expected.getEntries().get(i);
+      Entries a = actual.getEntries().get(i);
+      assertEquals(e.getUser(), a.getUser());
+      assertEquals(e.getBuckets().size(), a.getBuckets().size());
+    }
+    assertEquals(expected.getSummary().size(), actual.getSummary().size());
+    for (int i = 0; i < expected.getSummary().size(); i++) {
+      Summary e = expected.getSummary().get(i);
+      Summary a = actual.getSummary().get(i);
+      assertEquals(e.getUser(), a.getUser());
+      assertUsage(e.getTotal(), a.getTotal());
+      assertEquals(e.getCategories().size(), a.getCategories().size());
+      for (int j = 0; j < e.getCategories().size(); j++) {
+        assertUsage(e.getCategories().get(j), a.getCategories().get(j));
+      }
+    }
+  }
+
+  private static void assertUsage(Usage expected, Usage actual) {
+    assertEquals(expected.getCategory(), actual.getCategory());
+    assertEquals(expected.getBytes_sent(), actual.getBytes_sent());
+    assertEquals(expected.getBytes_received(), actual.getBytes_received());
+    assertEquals(expected.getOps(), actual.getOps());
+    assertEquals(expected.getSuccessful_ops(), actual.getSuccessful_ops());
+  }
+}
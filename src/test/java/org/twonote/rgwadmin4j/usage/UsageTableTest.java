@@ -0,0 +1,101 @@
+package org.twonote.rgwadmin4j.usage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.twonote.rgwadmin4j.RgwAdmin;
+import org.twonote.rgwadmin4j.RgwAdminBuilder;
+import org.twonote.rgwadmin4j.impl.FakeRgwServer;
+import org.twonote.rgwadmin4j.model.UsageInfo;
+import org.twonote.rgwadmin4j.model.usage.Summary;
+import org.twonote.rgwadmin4j.usage.UsageTable.Dimension;
+import org.twonote.rgwadmin4j.usage.UsageTable.Metric;
+
+public class UsageTableTest {
+
+  private static FakeRgwServer rgw;
+  private static RgwAdmin admin;
+
+  @BeforeClass
+  public static void start() {
+    rgw = FakeRgwServer.builder().users(50).bucketsPerUser(2).usageHours(5).start();
+    admin =
+        new RgwAdminBuilder()
+            .accessKey("admin")
+            .secretKey("secret")
+            .endpoint(rgw.endpoint())
+            .build();
+  }
+
+  @AfterClass
+  public static void stop() throws IOException {
+    rgw.close();
+  }
+
+  @Test
+  public void load() {
+    UsageTable table = UsageTable.load(admin, Collections.emptyMap());
+    UsageInfo usage = admin.getUsage().get();
+
+    // 50 users * 2 buckets * 5 hours * 4 categories
+    assertEquals(2000, table.size());
+    assertEquals(50, table.names(Dimension.USER).size());
+    assertEquals(100, table.names(Dimension.BUCKET).size());
+    assertEquals(50, table.names(Dimension.OWNER).size());
+    assertEquals(4, table.names(Dimension.CATEGORY).size());
+
+    long[] ops = table.sumBy(Dimension.USER, Metric.OPS);
+    long[] bytesSent = table.sumBy(Dimension.USER, Metric.BYTES_SENT);
+    for (Summary summary : usage.getSummary()) {
+      int user = table.names(Dimension.USER).indexOf(summary.getUser());
+      assertEquals(summary.getTotal().getOps(), ops[user]);
+      assertEquals(summary.getTotal().getBytes_sent(), bytesSent[user]);
+    }
+    assertEquals(
+        usage.getSummary().stream().mapToLong(s -> s.getTotal().getOps()).sum(),
+        table.sum(Metric.OPS));
+
+    int row = 42;
+    assertEquals(
+        table.name(Dimension.USER, table.id(Dimension.USER, row)),
+        table.name(Dimension.OWNER, table.id(Dimension.OWNER, row)));
+    assertEquals(FakeRgwServer.USAGE_START, table.epoch(0));
+  }
+
+  @Test
+  public void fromUsageInfo() {
+    UsageTable streamed = UsageTable.load(admin, Collections.emptyMap());
+    UsageTable built = UsageTable.builder().add(admin.getUsage().get()).build();
+
+    assertEquals(streamed.size(), built.size());
+    assertEquals(streamed.names(Dimension.BUCKET), built.names(Dimension.BUCKET));
+    for (Metric metric : Metric.values()) {
+      assertArrayEquals(
+          streamed.sumBy(Dimension.CATEGORY, metric), built.sumBy(Dimension.CATEGORY, metric));
+    }
+  }
+
+  @Test
+  public void aggregate() {
+    UsageTable table =
+        UsageTable.builder()
+            .add("a", "b1", "a", 3600, "put_obj", 0, 100, 2, 2)
+            .add("a", "b1", "a", 7200, "put_obj", 0, 50, 1, 1)
+            .add("a", "b2", "a", 3600, "get_obj", 70, 0, 7, 6)
+            .add("c", "b1", "a", 3600, "get_obj", 30, 0, 3, 3)
+            .build();
+
+    assertArrayEquals(new long[] {10, 3}, table.sumBy(Dimension.USER, Metric.OPS));
+    assertArrayEquals(new long[] {150, 0}, table.sumBy(Dimension.CATEGORY, Metric.BYTES_RECEIVED));
+    assertArrayEquals(new long[] {7, 3}, table.maxBy(Dimension.USER, Metric.OPS));
+    assertArrayEquals(
+        new long[] {8, 3},
+        table.sumBy(Dimension.USER, Metric.SUCCESSFUL_OPS, r -> table.epoch(r) == 3600));
+    assertEquals(1, table.names(Dimension.OWNER).size());
+  }
+}